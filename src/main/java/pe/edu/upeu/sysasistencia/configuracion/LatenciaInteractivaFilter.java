@@ -0,0 +1,40 @@
+package pe.edu.upeu.sysasistencia.configuracion;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import pe.edu.upeu.sysasistencia.servicio.impl.ControlCargaImportacion;
+
+import java.io.IOException;
+
+/**
+ * Mide la latencia de las peticiones interactivas para el control de carga de importaciones.
+ * Las cargas, importaciones y exportaciones no cuentan: son el tráfico que se regula.
+ */
+@Component
+@RequiredArgsConstructor
+public class LatenciaInteractivaFilter extends OncePerRequestFilter {
+    private final ControlCargaImportacion controlCarga;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long inicio = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            controlCarga.registrarInteractiva(System.nanoTime() - inicio);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return uri.contains("/importar") || uri.contains("/importaciones")
+                || uri.contains("/cargas") || uri.contains("/exportar");
+    }
+}
@@ -1,23 +1,50 @@
 package pe.edu.upeu.sysasistencia.control;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import pe.edu.upeu.sysasistencia.dtos.ArtefactoExportacionDTO;
+import pe.edu.upeu.sysasistencia.dtos.CargaDTO;
+import pe.edu.upeu.sysasistencia.dtos.EstadoControlDTO;
+import pe.edu.upeu.sysasistencia.dtos.EstadoImportacionDTO;
 import pe.edu.upeu.sysasistencia.dtos.ImportFilterDTO;
 import pe.edu.upeu.sysasistencia.dtos.ImportResultDTO;
 import pe.edu.upeu.sysasistencia.dtos.MatriculaDTO;
+import pe.edu.upeu.sysasistencia.dtos.ResumenAuditoriaDTO;
+import pe.edu.upeu.sysasistencia.dtos.VistaPreviaImportacionDTO;
+import pe.edu.upeu.sysasistencia.excepciones.ArchivoDemasiadoGrandeException;
 import pe.edu.upeu.sysasistencia.excepciones.CustomResponse;
 import pe.edu.upeu.sysasistencia.mappers.MatriculaMapper;
 import pe.edu.upeu.sysasistencia.modelo.Matricula;
+import pe.edu.upeu.sysasistencia.modelo.ModoImportacion;
+import pe.edu.upeu.sysasistencia.modelo.ParticionExportacion;
 import pe.edu.upeu.sysasistencia.modelo.TipoPersona;
 import pe.edu.upeu.sysasistencia.servicio.IMatriculaService;
+import pe.edu.upeu.sysasistencia.servicio.impl.AuditoriaImportacionService;
+import pe.edu.upeu.sysasistencia.servicio.impl.CargaArchivoService;
+import pe.edu.upeu.sysasistencia.servicio.impl.ControlCargaImportacion;
+import pe.edu.upeu.sysasistencia.servicio.impl.ExportacionProgramadaService;
+import pe.edu.upeu.sysasistencia.servicio.impl.RegistroImportacionesService;
+import pe.edu.upeu.sysasistencia.servicio.impl.exportacion.ArchivoExportacion;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.GZIPOutputStream;
 
 @Slf4j
 @RestController
@@ -27,6 +54,11 @@ import java.util.List;
 public class MatriculaController {
     private final IMatriculaService matriculaService;
     private final MatriculaMapper matriculaMapper;
+    private final CargaArchivoService cargaService;
+    private final RegistroImportacionesService registroImportaciones;
+    private final ControlCargaImportacion controlCarga;
+    private final AuditoriaImportacionService auditoria;
+    private final ExportacionProgramadaService exportacionesProgramadas;
 
     @GetMapping
     public ResponseEntity<List<MatriculaDTO>> findAll() {
@@ -34,6 +66,39 @@ public class MatriculaController {
         return ResponseEntity.ok(list);
     }
 
+    /**
+     * Lectura masiva para integraciones: los mismos MatriculaDTO que GET /matriculas, uno por línea
+     * (NDJSON), enviados a medida que se leen del cursor. Acepta los filtros de /filtrar.
+     * Si el cliente acepta gzip se comprime al vuelo, vaciando el compresor en cada envío.
+     */
+    @GetMapping(value = "/ndjson", produces = "application/x-ndjson")
+    public void streamNdjson(
+            @RequestParam(required = false) Long sedeId,
+            @RequestParam(required = false) Long facultadId,
+            @RequestParam(required = false) Long programaId,
+            @RequestParam(required = false) TipoPersona tipoPersona,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse response
+    ) throws IOException {
+        boolean gzip = aceptaGzip(acceptEncoding);
+
+        response.setContentType("application/x-ndjson;charset=UTF-8");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        OutputStream out = response.getOutputStream();
+        if (gzip) {
+            try (GZIPOutputStream comprimido = new GZIPOutputStream(out, 16 * 1024, true)) {
+                matriculaService.exportarMatriculasANdjson(sedeId, facultadId, programaId, tipoPersona, comprimido);
+            }
+        } else {
+            matriculaService.exportarMatriculasANdjson(sedeId, facultadId, programaId, tipoPersona, out);
+            out.flush();
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<MatriculaDTO> findById(@PathVariable Long id) {
         Matricula obj = matriculaService.findById(id);
@@ -83,9 +148,13 @@ public class MatriculaController {
     }
 
     /**
-     * Endpoint mejorado para importar desde Excel con filtros
+     * Endpoint mejorado para importar desde Excel o CSV/TSV con filtros
      * Si se aplican filtros (sede, facultad, programa), solo se importarán registros que coincidan
      * Si no se aplican filtros, se importarán todos los registros del Excel
+     * Con simular=true solo se validan las filas (en paralelo) y no se guarda nada
+     * Con modo=UPSERT las personas existentes se actualizan solo si sus datos cambiaron
+     * Un archivo idéntico (mismos filtros) devuelve el resultado anterior, salvo con forzar=true
+     * Con multiple=true (o un .zip) cada hoja/archivo se importa en paralelo como unidad independiente
      */
     @PostMapping("/importar")
     public ResponseEntity<ImportResultDTO> importarExcel(
@@ -93,7 +162,11 @@ public class MatriculaController {
             @RequestParam(required = false) Long sedeId,
             @RequestParam(required = false) Long facultadId,
             @RequestParam(required = false) Long programaId,
-            @RequestParam(required = false) TipoPersona tipoPersona
+            @RequestParam(required = false) TipoPersona tipoPersona,
+            @RequestParam(defaultValue = "false") boolean simular,
+            @RequestParam(defaultValue = "INSERTAR") ModoImportacion modo,
+            @RequestParam(defaultValue = "false") boolean forzar,
+            @RequestParam(defaultValue = "false") boolean multiple
     ) {
         try {
             // Validar archivo
@@ -101,10 +174,7 @@ public class MatriculaController {
                 throw new RuntimeException("El archivo está vacío");
             }
 
-            String filename = file.getOriginalFilename();
-            if (filename == null || (!filename.endsWith(".xlsx") && !filename.endsWith(".xls"))) {
-                throw new RuntimeException("El archivo debe ser un Excel (.xlsx o .xls)");
-            }
+            validarNombreArchivo(file.getOriginalFilename());
 
             // Crear objeto de filtros
             ImportFilterDTO filtros = new ImportFilterDTO();
@@ -112,58 +182,408 @@ public class MatriculaController {
             filtros.setFacultadId(facultadId);
             filtros.setProgramaId(programaId);
             filtros.setTipoPersona(tipoPersona);
+            filtros.setModo(modo);
+            filtros.setForzar(forzar);
+            filtros.setMultiple(multiple);
 
-            // Importar con filtros
-            ImportResultDTO result = matriculaService.importarDesdeExcel(file, filtros);
-
-            // Agregar información sobre los filtros aplicados
-            if (filtros.tieneFiltros()) {
-                result.getWarnings().add("Se aplicaron filtros en la importación");
-                if (sedeId != null) result.getWarnings().add("Filtro Sede ID: " + sedeId);
-                if (facultadId != null) result.getWarnings().add("Filtro Facultad ID: " + facultadId);
-                if (programaId != null) result.getWarnings().add("Filtro Programa ID: " + programaId);
-                if (tipoPersona != null) result.getWarnings().add("Tipo Persona: " + tipoPersona);
-            } else {
-                result.getWarnings().add("No se aplicaron filtros - se importaron todos los registros válidos");
-            }
+            // Importar (o simular) con filtros
+            ImportResultDTO result = simular
+                    ? matriculaService.simularImportacion(file, filtros)
+                    : matriculaService.importarDesdeExcel(file, filtros);
 
+            agregarWarningsFiltros(result, filtros);
             return ResponseEntity.ok(result);
 
         } catch (Exception e) {
-            ImportResultDTO errorResult = new ImportResultDTO();
-            errorResult.setTotalRegistros(0);
-            errorResult.setExitosos(0);
-            errorResult.setFallidos(0);
-            errorResult.getErrores().add("Error general: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResult);
+            return errorImportacion(e);
         }
     }
 
-    @GetMapping("/exportar")
-    public ResponseEntity<byte[]> exportarExcel(
+    /**
+     * Vista previa antes de importar: mapeo de columnas y las primeras filas convertidas
+     * (fechas y tipo de persona detectado). Solo lee esas filas, sin recorrer el resto del archivo.
+     */
+    @PostMapping("/importar/vista-previa")
+    public ResponseEntity<VistaPreviaImportacionDTO> vistaPreviaImportacion(
+            @RequestParam("file") MultipartFile file,
             @RequestParam(required = false) Long sedeId,
             @RequestParam(required = false) Long facultadId,
             @RequestParam(required = false) Long programaId,
-            @RequestParam(required = false) TipoPersona tipoPersona
+            @RequestParam(required = false) TipoPersona tipoPersona,
+            @RequestParam(defaultValue = "50") int filas
+    ) throws Exception {
+        validarNombreArchivo(file.getOriginalFilename());
+
+        ImportFilterDTO filtros = new ImportFilterDTO();
+        filtros.setSedeId(sedeId);
+        filtros.setFacultadId(facultadId);
+        filtros.setProgramaId(programaId);
+        filtros.setTipoPersona(tipoPersona);
+
+        return ResponseEntity.ok(matriculaService.previsualizarImportacion(file, filtros, filas));
+    }
+
+    /**
+     * Importación de archivos grandes: el cuerpo de la petición (application/octet-stream) se copia
+     * directo a disco, sin multipart ni límite de 10MB. Los filtros van como parámetros de la URL.
+     */
+    @PostMapping(value = "/importar/stream", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<ImportResultDTO> importarStream(
+            HttpServletRequest request,
+            @RequestParam String nombreArchivo,
+            @RequestParam(defaultValue = "false") boolean simular,
+            ImportFilterDTO filtros
     ) {
+        Path archivo = null;
         try {
-            byte[] excelBytes = matriculaService.exportarMatriculasAExcel(sedeId, facultadId, programaId, tipoPersona);
+            validarNombreArchivo(nombreArchivo);
+            archivo = cargaService.recibir(request.getInputStream(), nombreArchivo);
+            ImportResultDTO result = simular
+                    ? matriculaService.simularImportacion(archivo, nombreArchivo, filtros)
+                    : matriculaService.importarDesdeArchivo(archivo, nombreArchivo, filtros);
+            agregarWarningsFiltros(result, filtros);
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return errorImportacion(e);
+        } finally {
+            cargaService.eliminarArchivo(archivo);
+        }
+    }
 
-            // Generar nombre de archivo con timestamp
-            String filename = "Matriculas_" +
-                    java.time.LocalDateTime.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) +
-                    ".xlsx";
+    /**
+     * Carga por partes reanudable: se crea la carga, se envían las partes con PUT indicando el offset
+     * y, si la conexión se corta, se consulta con GET cuántos bytes llegaron y se continúa desde ahí.
+     * tamano (bytes) es obligatorio: la carga solo se puede importar cuando llegó completa.
+     */
+    @PostMapping("/cargas")
+    public ResponseEntity<CargaDTO> iniciarCarga(
+            @RequestParam String nombreArchivo,
+            @RequestParam long tamano
+    ) throws IOException {
+        validarNombreArchivo(nombreArchivo);
+        return ResponseEntity.status(HttpStatus.CREATED).body(cargaService.iniciar(nombreArchivo, tamano));
+    }
+
+    @PutMapping(value = "/cargas/{id}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<CargaDTO> agregarParte(
+            @PathVariable String id,
+            @RequestParam long offset,
+            HttpServletRequest request
+    ) throws IOException {
+        return ResponseEntity.ok(cargaService.agregar(id, offset, request.getInputStream()));
+    }
+
+    @GetMapping("/cargas/{id}")
+    public ResponseEntity<CargaDTO> estadoCarga(@PathVariable String id) {
+        return ResponseEntity.ok(cargaService.estado(id));
+    }
+
+    @DeleteMapping("/cargas/{id}")
+    public ResponseEntity<Void> cancelarCarga(@PathVariable String id) {
+        cargaService.eliminar(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Importa una carga completa. Si la importación falla la carga se conserva para reintentar
+     * (se reanuda desde el último checkpoint)
+     */
+    @PostMapping("/cargas/{id}/importar")
+    public ResponseEntity<ImportResultDTO> importarCarga(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "false") boolean simular,
+            ImportFilterDTO filtros
+    ) {
+        Path archivo = cargaService.archivoCompleto(id);
+        String nombreArchivo = cargaService.estado(id).getNombreArchivo();
+        try {
+            ImportResultDTO result = simular
+                    ? matriculaService.simularImportacion(archivo, nombreArchivo, filtros)
+                    : matriculaService.importarDesdeArchivo(archivo, nombreArchivo, filtros);
+            if (!simular) {
+                cargaService.eliminar(id);
+            }
+            agregarWarningsFiltros(result, filtros);
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return errorImportacion(e);
+        }
+    }
+
+    /**
+     * Importaciones en curso y recientes; las que están en curso incluyen el estado del control de carga
+     */
+    @GetMapping("/importaciones")
+    public ResponseEntity<List<EstadoImportacionDTO>> listarImportaciones() {
+        return ResponseEntity.ok(registroImportaciones.listar());
+    }
+
+    @GetMapping("/importaciones/{id}")
+    public ResponseEntity<EstadoImportacionDTO> estadoImportacion(@PathVariable String id) {
+        return ResponseEntity.ok(registroImportaciones.estado(id));
+    }
+
+    /**
+     * Resumen de la auditoría de una importación (las filas están en el archivo JSON lines)
+     */
+    @GetMapping("/importaciones/{id}/auditoria")
+    public ResponseEntity<ResumenAuditoriaDTO> auditoriaImportacion(@PathVariable String id) {
+        return ResponseEntity.ok(auditoria.resumen(id));
+    }
+
+    /**
+     * Filas que fallaron, con sus columnas originales más la fila, el código y el mensaje de error
+     */
+    @GetMapping("/importaciones/{id}/errores.xlsx")
+    public ResponseEntity<Resource> erroresImportacion(@PathVariable String id) throws IOException {
+        Path archivo = registroImportaciones.archivoErrores(id);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
+        headers.setContentDispositionFormData("attachment", "Errores_importacion_" + id + ".xlsx");
+        headers.setContentLength(Files.size(archivo));
+
+        return new ResponseEntity<>(new FileSystemResource(archivo), headers, HttpStatus.OK);
+    }
+
+    @GetMapping("/importaciones/control")
+    public ResponseEntity<EstadoControlDTO> estadoControlCarga() {
+        return ResponseEntity.ok(controlCarga.estado());
+    }
+
+    private void validarNombreArchivo(String filename) {
+        if (filename == null || !filename.toLowerCase().matches(".*\\.(xlsx|xls|csv|tsv|zip)$")) {
+            throw new RuntimeException("El archivo debe ser un Excel (.xlsx o .xls), CSV/TSV (.csv, .tsv) o un .zip con esos archivos");
+        }
+    }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
-            headers.setContentDispositionFormData("attachment", filename);
-            headers.setContentLength(excelBytes.length);
+    // Agregar información sobre los filtros aplicados
+    private void agregarWarningsFiltros(ImportResultDTO result, ImportFilterDTO filtros) {
+        if (filtros.tieneFiltros()) {
+            result.getWarnings().add("Se aplicaron filtros en la importación");
+            if (filtros.getSedeId() != null) result.getWarnings().add("Filtro Sede ID: " + filtros.getSedeId());
+            if (filtros.getFacultadId() != null) result.getWarnings().add("Filtro Facultad ID: " + filtros.getFacultadId());
+            if (filtros.getProgramaId() != null) result.getWarnings().add("Filtro Programa ID: " + filtros.getProgramaId());
+            if (filtros.getTipoPersona() != null) result.getWarnings().add("Tipo Persona: " + filtros.getTipoPersona());
+        } else {
+            result.getWarnings().add("No se aplicaron filtros - se importaron todos los registros válidos");
+        }
+    }
 
-            return new ResponseEntity<>(excelBytes, headers, HttpStatus.OK);
+    private ResponseEntity<ImportResultDTO> errorImportacion(Exception e) {
+        ImportResultDTO errorResult = new ImportResultDTO();
+        errorResult.setTotalRegistros(0);
+        errorResult.setExitosos(0);
+        errorResult.setFallidos(0);
+        errorResult.getErrores().add("Error general: " + e.getMessage());
+        HttpStatus status = e instanceof ArchivoDemasiadoGrandeException
+                ? HttpStatus.PAYLOAD_TOO_LARGE : HttpStatus.INTERNAL_SERVER_ERROR;
+        return ResponseEntity.status(status).body(errorResult);
+    }
+
+    /**
+     * Excel con los filtros dados. Se sirve desde la caché de exportaciones mientras los datos
+     * no cambien; con If-None-Match igual al ETag vigente responde 304 sin generar nada.
+     */
+    @GetMapping("/exportar")
+    public void exportarExcel(
+            @RequestParam(required = false) Long sedeId,
+            @RequestParam(required = false) Long facultadId,
+            @RequestParam(required = false) Long programaId,
+            @RequestParam(required = false) TipoPersona tipoPersona,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        enviarExportacion(matriculaService.etagExportacionExcel(sedeId, facultadId, programaId, tipoPersona),
+                () -> matriculaService.exportarMatriculasAExcel(sedeId, facultadId, programaId, tipoPersona),
+                "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", ".xlsx", request, response);
+    }
 
+    /**
+     * Toda la selección en un .zip con un Excel por programa (o por sede), generados en paralelo.
+     * Usa la misma caché y la misma lógica de 304 que /exportar, con su propia clave y su propio ETag.
+     */
+    @GetMapping("/exportar/zip")
+    public void exportarZip(
+            @RequestParam(defaultValue = "PROGRAMA") ParticionExportacion particion,
+            @RequestParam(required = false) Long sedeId,
+            @RequestParam(required = false) Long facultadId,
+            @RequestParam(required = false) Long programaId,
+            @RequestParam(required = false) TipoPersona tipoPersona,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        enviarExportacion(
+                matriculaService.etagExportacionPorParticion(particion, sedeId, facultadId, programaId, tipoPersona),
+                () -> matriculaService.exportarMatriculasPorParticion(particion, sedeId, facultadId, programaId, tipoPersona),
+                "application/zip", ".zip", request, response);
+    }
+
+    /**
+     * Exportaciones generadas en segundo plano (exportacion.programada.*), de la más reciente a la más antigua
+     */
+    @GetMapping("/exportaciones-programadas")
+    public ResponseEntity<List<ArtefactoExportacionDTO>> listarExportacionesProgramadas() throws IOException {
+        return ResponseEntity.ok(exportacionesProgramadas.listar());
+    }
+
+    /**
+     * Descarga la última versión del conjunto (o la indicada) tal como quedó en disco
+     */
+    @GetMapping("/exportaciones-programadas/{conjunto}")
+    public void descargarExportacionProgramada(
+            @PathVariable String conjunto,
+            @RequestParam(required = false) String version,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        ArtefactoExportacionDTO artefacto = exportacionesProgramadas.buscar(conjunto, version);
+        enviarExportacion(ExportacionProgramadaService.etag(artefacto),
+                () -> exportacionesProgramadas.abrir(artefacto),
+                artefacto.getFormato().getContentType(), artefacto.getFormato().getExtension(), request, response);
+    }
+
+    @PostMapping("/exportaciones-programadas/generar")
+    public ResponseEntity<Void> generarExportacionesProgramadas() {
+        exportacionesProgramadas.generarAhora();
+        return ResponseEntity.accepted().build();
+    }
+
+    /**
+     * Responde 304 si If-None-Match coincide con el ETag vigente; si no, obtiene el archivo
+     * (de la caché o generándolo) y lo copia a la respuesta.
+     */
+    private void enviarExportacion(String etag, Callable<ArchivoExportacion> exportacion, String contentType,
+                                   String extension, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ServletWebRequest webRequest = new ServletWebRequest(request, response);
+        if (webRequest.checkNotModified(etag)) {
+            return;
+        }
+
+        try (ArchivoExportacion archivo = exportacion.call()) {
+            // Nombre de archivo con la fecha en que se generaron los datos
+            String filename = "Matriculas_" +
+                    archivo.getGenerado().format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) +
+                    extension;
+
+            response.setContentType(contentType);
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+            response.setHeader(HttpHeaders.ETAG, archivo.getEtag());
+            // El navegador puede guardarlo, pero debe revalidar con el ETag
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+            response.setContentLengthLong(archivo.getTamano());
+            archivo.transferirA(response.getOutputStream());
+
+        } catch (TimeoutException e) {
+            // Otra solicitud idéntica sigue generándola; al terminar quedará en la caché
+            log.warn("Exportación {} en curso por más del tiempo de espera", extension);
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "30");
         } catch (Exception e) {
-            log.error("Error al exportar Excel: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            log.error("Error al exportar {}: {}", extension, e.getMessage());
+            if (!response.isCommitted()) {
+                response.reset();
+                response.setStatus(HttpStatus.INTERNAL_SERVER_ERROR.value());
+            }
+        }
+    }
+
+    /**
+     * Padrón completo en Excel, con las mismas columnas que /exportar: cada persona con su matrícula
+     * si la tiene, así que también salen los invitados, que no se matriculan.
+     */
+    @GetMapping("/exportar/padron")
+    public void exportarPadron(
+            @RequestParam(required = false) TipoPersona tipoPersona,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        enviarExportacion(matriculaService.etagExportacionPadron(tipoPersona),
+                () -> matriculaService.exportarPadronAExcel(tipoPersona),
+                "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", ".xlsx", request, response);
+    }
+
+    /**
+     * Mismo contenido que /exportar en CSV (UTF-8), escrito a la respuesta a medida que se leen
+     * las filas. Si el cliente acepta gzip se comprime al vuelo.
+     */
+    @GetMapping("/exportar/csv")
+    public void exportarCsv(
+            @RequestParam(required = false) Long sedeId,
+            @RequestParam(required = false) Long facultadId,
+            @RequestParam(required = false) Long programaId,
+            @RequestParam(required = false) TipoPersona tipoPersona,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse response
+    ) throws IOException {
+        String filename = "Matriculas_" +
+                java.time.LocalDateTime.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) +
+                ".csv";
+        boolean gzip = aceptaGzip(acceptEncoding);
+
+        response.setContentType("text/csv;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        OutputStream out = response.getOutputStream();
+        if (gzip) {
+            try (GZIPOutputStream comprimido = new GZIPOutputStream(out, 64 * 1024)) {
+                matriculaService.exportarMatriculasACsv(sedeId, facultadId, programaId, tipoPersona, comprimido);
+            }
+        } else {
+            matriculaService.exportarMatriculasACsv(sedeId, facultadId, programaId, tipoPersona, out);
+            out.flush();
+        }
+    }
+
+    /**
+     * Mismas matrículas en Arrow IPC (stream) para pandas, Polars o DuckDB: columnas tipadas y
+     * sede, facultad, programa, modalidad, ciclo y tipo de persona con diccionario.
+     * Si el cliente acepta gzip se comprime al vuelo.
+     */
+    @GetMapping("/exportar/arrow")
+    public void exportarArrow(
+            @RequestParam(required = false) Long sedeId,
+            @RequestParam(required = false) Long facultadId,
+            @RequestParam(required = false) Long programaId,
+            @RequestParam(required = false) TipoPersona tipoPersona,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse response
+    ) throws IOException {
+        String filename = "Matriculas_" +
+                java.time.LocalDateTime.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) +
+                ".arrows";
+        boolean gzip = aceptaGzip(acceptEncoding);
+
+        response.setContentType("application/vnd.apache.arrow.stream");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        OutputStream out = response.getOutputStream();
+        if (gzip) {
+            try (GZIPOutputStream comprimido = new GZIPOutputStream(out, 64 * 1024)) {
+                matriculaService.exportarMatriculasAArrow(sedeId, facultadId, programaId, tipoPersona, comprimido);
+            }
+        } else {
+            matriculaService.exportarMatriculasAArrow(sedeId, facultadId, programaId, tipoPersona, out);
+            out.flush();
+        }
+    }
+
+    private static boolean aceptaGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String codificacion : acceptEncoding.split(",")) {
+            String[] partes = codificacion.trim().split(";");
+            if (!partes[0].trim().equalsIgnoreCase("gzip")) continue;
+            // gzip;q=0 significa que no se acepta
+            return partes.length < 2 || !partes[1].trim().matches("q=0(\\.0*)?");
         }
+        return false;
     }
-}
\ No newline at end of file
+}
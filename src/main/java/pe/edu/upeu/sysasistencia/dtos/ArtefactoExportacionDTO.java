@@ -0,0 +1,23 @@
+package pe.edu.upeu.sysasistencia.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import pe.edu.upeu.sysasistencia.modelo.FormatoExportacion;
+
+import java.time.LocalDateTime;
+
+/**
+ * Exportación programada ya generada en disco; version es la fecha de generación más una
+ * secuencia para las generadas en el mismo milisegundo (yyyyMMdd-HHmmssSSS-000)
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class ArtefactoExportacionDTO {
+    private String conjunto;
+    private String version;
+    private FormatoExportacion formato;
+    private Long tamano;
+    private LocalDateTime generado;
+}
@@ -0,0 +1,19 @@
+package pe.edu.upeu.sysasistencia.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Estado de una carga por partes: bytes recibidos hasta ahora (siguiente offset esperado)
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class CargaDTO {
+    private String id;
+    private String nombreArchivo;
+    private Long tamano;
+    private long recibidos;
+    private boolean completa;
+}
@@ -0,0 +1,19 @@
+package pe.edu.upeu.sysasistencia.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Columna del archivo y el campo del padrón al que se asignó (null si se ignora)
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class ColumnaVistaPreviaDTO {
+    private int indice;
+    private String encabezado;
+    private String columna;
+    // TEXTO, FECHA o FECHA_HORA
+    private String tipo;
+}
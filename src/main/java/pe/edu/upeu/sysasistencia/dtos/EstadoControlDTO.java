@@ -0,0 +1,32 @@
+package pe.edu.upeu.sysasistencia.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Estado del control de carga de las importaciones: tamaño de bloque y bloques concurrentes
+ * permitidos en este momento, y las señales con que se calcularon
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class EstadoControlDTO {
+    private boolean habilitado;
+    private int tamanoBloque;
+    private int paralelismo;
+    private int bloquesEnCurso;
+    private boolean congestionado;
+    private String motivo;
+    private long p99InteractivoMs;
+    private long p99ObjetivoMs;
+    private double esperaConexionMs;
+    private double latenciaFilaMs;
+    private double latenciaFilaBaseMs;
+    private int hilosEsperandoConexion;
+    private long pausaMs;
+    private long reducciones;
+    private LocalDateTime ultimoAjuste;
+}
@@ -0,0 +1,27 @@
+package pe.edu.upeu.sysasistencia.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Avance de una importación (en curso o reciente). Mientras corre incluye el estado
+ * del control de carga con que se están confirmando sus bloques.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class EstadoImportacionDTO {
+    private String id;
+    private String nombreArchivo;
+    private String estado;
+    private LocalDateTime inicio;
+    private LocalDateTime fin;
+    private int filasProcesadas;
+    private int exitosos;
+    private int fallidos;
+    private String error;
+    private EstadoControlDTO control;
+}
@@ -0,0 +1,21 @@
+package pe.edu.upeu.sysasistencia.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import pe.edu.upeu.sysasistencia.modelo.TipoPersona;
+
+/**
+ * Fila de muestra ya convertida como en la importación, con el tipo de persona detectado
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class FilaVistaPreviaDTO {
+    private int fila;
+    private TipoPersona tipoPersona;
+    // Código y mensaje si la fila sería rechazada; null si es válida
+    private String codigoError;
+    private String error;
+    private MatriculaExcelDTO datos;
+}
@@ -0,0 +1,19 @@
+package pe.edu.upeu.sysasistencia.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Identificadores y hashes guardados de una persona y su matrícula (proyección, sin cargar entidades)
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class HuellaPersonaDTO {
+    private String documento;
+    private Long idPersona;
+    private String hashPersona;
+    private Long idMatricula;
+    private String hashMatricula;
+}
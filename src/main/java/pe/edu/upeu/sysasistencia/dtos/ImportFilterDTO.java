@@ -3,6 +3,7 @@ package pe.edu.upeu.sysasistencia.dtos;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import pe.edu.upeu.sysasistencia.modelo.ModoImportacion;
 import pe.edu.upeu.sysasistencia.modelo.TipoPersona;
 
 @NoArgsConstructor
@@ -13,6 +14,12 @@ public class ImportFilterDTO {
     private Long facultadId;
     private Long programaId;
     private TipoPersona tipoPersona;
+    // INSERTAR (por defecto) o UPSERT
+    private ModoImportacion modo = ModoImportacion.INSERTAR;
+    // Reimportar aunque exista un resultado guardado para el mismo archivo y filtros
+    private boolean forzar;
+    // Importar todas las hojas del libro como unidades independientes (un zip siempre se procesa así)
+    private boolean multiple;
 
     // Método para verificar si hay filtros activos
     public boolean tieneFiltros() {
@@ -23,4 +30,8 @@ public class ImportFilterDTO {
     public boolean esEstudiante() {
         return sedeId != null && facultadId != null && programaId != null;
     }
+
+    public boolean esUpsert() {
+        return modo == ModoImportacion.UPSERT;
+    }
 }
\ No newline at end of file
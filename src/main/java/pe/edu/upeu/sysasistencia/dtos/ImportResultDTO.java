@@ -5,14 +5,63 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @NoArgsConstructor
 @AllArgsConstructor
 @Data
 public class ImportResultDTO {
+    // Id para consultar el avance en /matriculas/importaciones/{id}
+    private String idImportacion;
     private int totalRegistros;
     private int exitosos;
     private int fallidos;
+    // Modo UPSERT: filas existentes actualizadas / sin cambios (incluidas en exitosos)
+    private int actualizados;
+    private int sinCambios;
+    private boolean simulacion;
+    // Hoja o archivo al que corresponde (importación por unidades)
+    private String unidad;
+    private List<ImportResultDTO> unidades = new ArrayList<>();
+    // Errores generales y una línea por código de error de fila (con rangos de filas)
     private List<String> errores = new ArrayList<>();
+    private List<ResumenErrorDTO> resumenErrores = new ArrayList<>();
     private List<String> warnings = new ArrayList<>();
+    // Descarga de las filas fallidas con su error; null si no hubo errores
+    private String reporteErrores;
+
+    /**
+     * Suma los contadores de una unidad y la agrega al detalle
+     */
+    public void agregarUnidad(ImportResultDTO parcial) {
+        totalRegistros += parcial.totalRegistros;
+        exitosos += parcial.exitosos;
+        fallidos += parcial.fallidos;
+        actualizados += parcial.actualizados;
+        sinCambios += parcial.sinCambios;
+        unidades.add(parcial);
+    }
+
+    /**
+     * Copia independiente (las listas no se comparten)
+     */
+    public ImportResultDTO copia() {
+        ImportResultDTO copia = new ImportResultDTO();
+        copia.setIdImportacion(idImportacion);
+        copia.setReporteErrores(reporteErrores);
+        copia.setTotalRegistros(totalRegistros);
+        copia.setExitosos(exitosos);
+        copia.setFallidos(fallidos);
+        copia.setActualizados(actualizados);
+        copia.setSinCambios(sinCambios);
+        copia.setSimulacion(simulacion);
+        copia.setUnidad(unidad);
+        copia.setUnidades(unidades.stream().map(ImportResultDTO::copia).collect(Collectors.toCollection(ArrayList::new)));
+        copia.setErrores(new ArrayList<>(errores));
+        copia.setResumenErrores(resumenErrores.stream()
+                .map(r -> new ResumenErrorDTO(r.getCodigo(), r.getMensaje(), r.getCantidad(), r.getFilas(), r.getEjemplo()))
+                .collect(Collectors.toCollection(ArrayList::new)));
+        copia.setWarnings(new ArrayList<>(warnings));
+        return copia;
+    }
 }
\ No newline at end of file
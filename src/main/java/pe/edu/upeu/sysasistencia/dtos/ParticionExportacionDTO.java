@@ -0,0 +1,17 @@
+package pe.edu.upeu.sysasistencia.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Programa o sede con la cantidad de matrículas que entran en la exportación (proyección)
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class ParticionExportacionDTO {
+    private Long id;
+    private String nombre;
+    private Long filas;
+}
@@ -0,0 +1,31 @@
+package pe.edu.upeu.sysasistencia.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resumen de la auditoría de una importación: registros escritos por tipo de evento
+ * y archivos donde quedaron
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class ResumenAuditoriaDTO {
+    private String idImportacion;
+    private String nombreArchivo;
+    private String estado;
+    private LocalDateTime inicio;
+    private LocalDateTime fin;
+    private long registros;
+    private Map<String, Long> eventos;
+    private List<String> archivos;
+    // Registros encolados que aún no se escriben
+    private int pendientes;
+    // Registros que no entraron en la cola llena y no se escribieron
+    private long descartados;
+}
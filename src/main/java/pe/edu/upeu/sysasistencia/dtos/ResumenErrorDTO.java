@@ -0,0 +1,20 @@
+package pe.edu.upeu.sysasistencia.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Filas omitidas por un mismo motivo, con sus rangos (ej. "2-150, 152, 160-171")
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class ResumenErrorDTO {
+    private String codigo;
+    private String mensaje;
+    private int cantidad;
+    private String filas;
+    // Primer detalle registrado (solo para errores inesperados)
+    private String ejemplo;
+}
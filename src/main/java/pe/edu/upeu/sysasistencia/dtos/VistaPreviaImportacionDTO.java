@@ -0,0 +1,23 @@
+package pe.edu.upeu.sysasistencia.dtos;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mapeo de columnas y primeras filas de un archivo, sin importar nada
+ */
+@NoArgsConstructor
+@Data
+public class VistaPreviaImportacionDTO {
+    private String nombreArchivo;
+    private boolean posicional;
+    private List<ColumnaVistaPreviaDTO> columnas = new ArrayList<>();
+    private List<String> faltantesObligatorias = new ArrayList<>();
+    private List<FilaVistaPreviaDTO> filas = new ArrayList<>();
+    // true si el archivo tiene más filas que la muestra
+    private boolean hayMasFilas;
+    private List<String> warnings = new ArrayList<>();
+}
@@ -0,0 +1,10 @@
+package pe.edu.upeu.sysasistencia.excepciones;
+
+/**
+ * El archivo (o lo que se extrae de él) supera los límites configurados
+ */
+public class ArchivoDemasiadoGrandeException extends RuntimeException {
+    public ArchivoDemasiadoGrandeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package pe.edu.upeu.sysasistencia.excepciones;
+
+import lombok.Getter;
+
+/**
+ * La parte enviada no empieza donde terminó la última recibida
+ */
+@Getter
+public class CargaConflictoException extends RuntimeException {
+    private final long recibidos;
+
+    public CargaConflictoException(String message, long recibidos) {
+        super(message);
+        this.recibidos = recibidos;
+    }
+}
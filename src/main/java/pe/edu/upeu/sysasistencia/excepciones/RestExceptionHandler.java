@@ -38,6 +38,30 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(err, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(CargaConflictoException.class)
+    public ResponseEntity<CustomResponse> handleCargaConflictoException(CargaConflictoException ex, WebRequest request) {
+        CustomResponse err = new CustomResponse(
+                HttpStatus.CONFLICT.value(),
+                LocalDateTime.now(),
+                ex.getMessage(),
+                request.getDescription(false)
+        );
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Upload-Offset", String.valueOf(ex.getRecibidos()));
+        return new ResponseEntity<>(err, headers, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(ArchivoDemasiadoGrandeException.class)
+    public ResponseEntity<CustomResponse> handleArchivoDemasiadoGrandeException(ArchivoDemasiadoGrandeException ex, WebRequest request) {
+        CustomResponse err = new CustomResponse(
+                HttpStatus.PAYLOAD_TOO_LARGE.value(),
+                LocalDateTime.now(),
+                ex.getMessage(),
+                request.getDescription(false)
+        );
+        return new ResponseEntity<>(err, HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
     @ExceptionHandler(ArithmeticException.class)
     public ResponseEntity<CustomResponse> handleArithmeticException(ArithmeticException ex, WebRequest request) {
         CustomResponse err = new CustomResponse(
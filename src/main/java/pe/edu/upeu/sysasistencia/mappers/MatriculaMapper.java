@@ -43,5 +43,7 @@ public interface MatriculaMapper extends GenericMapper<MatriculaDTO, Matricula>
     @Mapping(target = "programaEstudio.nombre", ignore = true)
     @Mapping(target = "programaEstudio.facultad", ignore = true)
     @Mapping(target = "programaEstudio.descripcion", ignore = true)
+    @Mapping(target = "persona.hashFila", ignore = true)
+    @Mapping(target = "hashFila", ignore = true)
     Matricula toEntity(MatriculaDTO dto);
 }
\ No newline at end of file
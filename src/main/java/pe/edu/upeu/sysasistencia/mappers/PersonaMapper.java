@@ -11,5 +11,6 @@ public interface PersonaMapper extends GenericMapper<PersonaDTO, Persona> {
     PersonaDTO toDTO(Persona persona);
 
     @Mapping(source = "usuarioId", target = "usuario.idUsuario")
+    @Mapping(target = "hashFila", ignore = true)
     Persona toEntity(PersonaDTO dto);
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package pe.edu.upeu.sysasistencia.modelo;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum FormatoExportacion {
+    XLSX(".xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"),
+    CSV(".csv", "text/csv;charset=UTF-8"),
+    ARROW(".arrows", "application/vnd.apache.arrow.stream");
+
+    private final String extension;
+    private final String contentType;
+}
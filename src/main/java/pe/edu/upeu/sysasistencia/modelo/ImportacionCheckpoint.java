@@ -0,0 +1,69 @@
+package pe.edu.upeu.sysasistencia.modelo;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Punto de control de una importación masiva: se guarda en la misma transacción
+ * que cada bloque confirmado, para poder reanudar si el proceso se interrumpe.
+ */
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Entity
+@Table(name = "upeu_importacion_checkpoint")
+public class ImportacionCheckpoint {
+    public static final String EN_PROCESO = "EN_PROCESO";
+    public static final String COMPLETADO = "COMPLETADO";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_checkpoint")
+    private Long idCheckpoint;
+
+    // Hash del archivo + filtros aplicados
+    @Column(name = "clave", nullable = false, length = 200, unique = true)
+    private String clave;
+
+    // SHA-256 del archivo subido
+    @Column(name = "hash_archivo", nullable = false, length = 64)
+    private String hashArchivo;
+
+    @Column(name = "nombre_archivo", length = 255)
+    private String nombreArchivo;
+
+    // Última fila del archivo incluida en un bloque confirmado
+    @Column(name = "ultima_fila", nullable = false)
+    private int ultimaFila;
+
+    // Posición del lector después de la última fila (offset en bytes para CSV)
+    @Column(name = "posicion", nullable = false)
+    private long posicion;
+
+    @Column(name = "total_registros", nullable = false)
+    private int totalRegistros;
+
+    @Column(name = "exitosos", nullable = false)
+    private int exitosos;
+
+    @Column(name = "fallidos", nullable = false)
+    private int fallidos;
+
+    @Column(name = "actualizados", nullable = false)
+    private int actualizados;
+
+    @Column(name = "sin_cambios", nullable = false)
+    private int sinCambios;
+
+    @Column(name = "estado", nullable = false, length = 20)
+    private String estado;
+
+    @Column(name = "fecha_actualizacion")
+    private LocalDateTime fechaActualizacion;
+}
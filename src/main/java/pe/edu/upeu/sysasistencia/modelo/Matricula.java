@@ -54,4 +54,8 @@ public class Matricula {
 
     @Column(name = "estado", length = 20)
     private String estado;
+
+    // Hash de los campos importados, para detectar cambios al reimportar
+    @Column(name = "hash_fila", length = 64)
+    private String hashFila;
 }
\ No newline at end of file
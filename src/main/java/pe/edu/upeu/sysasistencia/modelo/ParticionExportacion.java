@@ -0,0 +1,6 @@
+package pe.edu.upeu.sysasistencia.modelo;
+
+public enum ParticionExportacion {
+    PROGRAMA,
+    SEDE
+}
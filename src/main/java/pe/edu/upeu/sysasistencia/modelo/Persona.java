@@ -57,4 +57,8 @@ public class Persona {
     @OneToOne
     @JoinColumn(name = "usuario_id", unique = true)
     private Usuario usuario;
+
+    // Hash de los campos importados, para detectar cambios al reimportar
+    @Column(name = "hash_fila", length = 64)
+    private String hashFila;
 }
\ No newline at end of file
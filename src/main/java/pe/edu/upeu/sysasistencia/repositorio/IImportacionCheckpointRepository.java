@@ -0,0 +1,8 @@
+package pe.edu.upeu.sysasistencia.repositorio;
+
+import pe.edu.upeu.sysasistencia.modelo.ImportacionCheckpoint;
+import java.util.Optional;
+
+public interface IImportacionCheckpointRepository extends ICrudGenericoRepository<ImportacionCheckpoint, Long>{
+    Optional<ImportacionCheckpoint> findByClave(String clave);
+}
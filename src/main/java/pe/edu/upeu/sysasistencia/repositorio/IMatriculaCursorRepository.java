@@ -0,0 +1,26 @@
+package pe.edu.upeu.sysasistencia.repositorio;
+
+import pe.edu.upeu.sysasistencia.modelo.Matricula;
+import pe.edu.upeu.sysasistencia.modelo.TipoPersona;
+
+import java.util.stream.Stream;
+
+/**
+ * Lectura de matrículas con un cursor de solo avance, para exportaciones de cualquier tamaño
+ */
+public interface IMatriculaCursorRepository {
+
+    /**
+     * Mismos filtros que findByFiltros. Las entidades llegan desacopladas (sesión sin estado),
+     * con persona, usuario, sede, facultad y programa ya cargados en la misma consulta.
+     * El stream debe cerrarse: libera el cursor y la conexión.
+     */
+    Stream<Matricula> streamByFiltros(Long sedeId, Long facultadId, Long programaId, TipoPersona tipoPersona);
+
+    /**
+     * Padrón completo: cada persona con su matrícula si la tiene (LEFT JOIN), incluidos los invitados
+     * que nunca se matriculan. Sin matrícula llega una Matricula sin id que solo tiene la persona.
+     * Igual que streamByFiltros: una sola consulta, entidades desacopladas, el stream debe cerrarse.
+     */
+    Stream<Matricula> streamPadron(TipoPersona tipoPersona);
+}
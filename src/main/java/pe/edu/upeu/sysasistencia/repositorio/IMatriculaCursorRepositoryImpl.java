@@ -0,0 +1,89 @@
+package pe.edu.upeu.sysasistencia.repositorio;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.MariaDBDialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import pe.edu.upeu.sysasistencia.modelo.Matricula;
+import pe.edu.upeu.sysasistencia.modelo.Persona;
+import pe.edu.upeu.sysasistencia.modelo.TipoPersona;
+
+import java.util.stream.Stream;
+
+/**
+ * El cursor se abre en una StatelessSession propia: no hay contexto de persistencia, así que
+ * la memoria no crece con las filas leídas. En MySQL el fetch size Integer.MIN_VALUE hace que
+ * Connector/J lea el ResultSet fila por fila en lugar de traerlo completo; mientras el cursor
+ * está abierto la conexión no admite otras consultas, por eso todas las asociaciones EAGER
+ * que se exportan van en JOIN FETCH.
+ */
+public class IMatriculaCursorRepositoryImpl implements IMatriculaCursorRepository {
+    private static final String CONSULTA = "SELECT m FROM Matricula m " +
+            "JOIN FETCH m.persona p LEFT JOIN FETCH p.usuario " +
+            "JOIN FETCH m.sede JOIN FETCH m.facultad " +
+            "JOIN FETCH m.programaEstudio pe JOIN FETCH pe.facultad WHERE " +
+            "(:sedeId IS NULL OR m.sede.idSede = :sedeId) AND " +
+            "(:facultadId IS NULL OR m.facultad.idFacultad = :facultadId) AND " +
+            "(:programaId IS NULL OR m.programaEstudio.idPrograma = :programaId) AND " +
+            "(:tipoPersona IS NULL OR p.tipoPersona = :tipoPersona)";
+    // Desde la persona: la matrícula y sus asociaciones son opcionales
+    private static final String CONSULTA_PADRON = "SELECT p, m FROM Persona p LEFT JOIN FETCH p.usuario " +
+            "LEFT JOIN Matricula m ON m.persona = p " +
+            "LEFT JOIN FETCH m.sede LEFT JOIN FETCH m.facultad " +
+            "LEFT JOIN FETCH m.programaEstudio pe LEFT JOIN FETCH pe.facultad WHERE " +
+            "(:tipoPersona IS NULL OR p.tipoPersona = :tipoPersona)";
+
+    private final SessionFactory sessionFactory;
+    private final int fetchSize;
+
+    public IMatriculaCursorRepositoryImpl(EntityManagerFactory entityManagerFactory,
+                                          @Value("${exportacion.cursor.fetch-size:1000}") int fetchSize) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        Dialect dialect = sessionFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        this.fetchSize = dialect instanceof MySQLDialect && !(dialect instanceof MariaDBDialect)
+                ? Integer.MIN_VALUE : fetchSize;
+    }
+
+    @Override
+    public Stream<Matricula> streamByFiltros(Long sedeId, Long facultadId, Long programaId, TipoPersona tipoPersona) {
+        StatelessSession session = sessionFactory.openStatelessSession();
+        try {
+            // stream() recorre un ScrollableResults FORWARD_ONLY y lo cierra con el stream
+            return session.createSelectionQuery(CONSULTA, Matricula.class)
+                    .setParameter("sedeId", sedeId)
+                    .setParameter("facultadId", facultadId)
+                    .setParameter("programaId", programaId)
+                    .setParameter("tipoPersona", tipoPersona)
+                    .setFetchSize(fetchSize)
+                    .setReadOnly(true)
+                    .stream()
+                    .onClose(session::close);
+        } catch (RuntimeException e) {
+            session.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public Stream<Matricula> streamPadron(TipoPersona tipoPersona) {
+        StatelessSession session = sessionFactory.openStatelessSession();
+        try {
+            return session.createSelectionQuery(CONSULTA_PADRON, Object[].class)
+                    .setParameter("tipoPersona", tipoPersona)
+                    .setFetchSize(fetchSize)
+                    .setReadOnly(true)
+                    .stream()
+                    .map(fila -> fila[1] != null
+                            ? (Matricula) fila[1]
+                            : Matricula.builder().persona((Persona) fila[0]).build())
+                    .onClose(session::close);
+        } catch (RuntimeException e) {
+            session.close();
+            throw e;
+        }
+    }
+}
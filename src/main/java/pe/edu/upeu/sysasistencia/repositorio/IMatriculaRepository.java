@@ -2,13 +2,14 @@ package pe.edu.upeu.sysasistencia.repositorio;
 
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import pe.edu.upeu.sysasistencia.dtos.ParticionExportacionDTO;
 import pe.edu.upeu.sysasistencia.modelo.Matricula;
 import pe.edu.upeu.sysasistencia.modelo.TipoPersona;
 
 import java.util.List;
 import java.util.Optional;
 
-public interface IMatriculaRepository extends ICrudGenericoRepository<Matricula, Long>{
+public interface IMatriculaRepository extends ICrudGenericoRepository<Matricula, Long>, IMatriculaCursorRepository {
     Optional<Matricula> findByPersonaIdPersona(Long idPersona);
 
     @Query("SELECT m FROM Matricula m WHERE m.persona.codigoEstudiante = :codigo")
@@ -25,4 +26,54 @@ public interface IMatriculaRepository extends ICrudGenericoRepository<Matricula,
             @Param("programaId") Long programaId,
             @Param("tipoPersona") TipoPersona tipoPersona
     );
-}
\ No newline at end of file
+
+    /**
+     * Programas con matrículas según los filtros, de mayor a menor cantidad
+     */
+    @Query("SELECT new pe.edu.upeu.sysasistencia.dtos.ParticionExportacionDTO(pe.idPrograma, pe.nombre, COUNT(m)) " +
+            "FROM Matricula m JOIN m.programaEstudio pe WHERE " +
+            "(:sedeId IS NULL OR m.sede.idSede = :sedeId) AND " +
+            "(:facultadId IS NULL OR m.facultad.idFacultad = :facultadId) AND " +
+            "(:programaId IS NULL OR pe.idPrograma = :programaId) AND " +
+            "(:tipoPersona IS NULL OR m.persona.tipoPersona = :tipoPersona) " +
+            "GROUP BY pe.idPrograma, pe.nombre ORDER BY COUNT(m) DESC")
+    List<ParticionExportacionDTO> contarPorPrograma(
+            @Param("sedeId") Long sedeId,
+            @Param("facultadId") Long facultadId,
+            @Param("programaId") Long programaId,
+            @Param("tipoPersona") TipoPersona tipoPersona
+    );
+
+    /**
+     * Sedes con matrículas según los filtros, de mayor a menor cantidad
+     */
+    @Query("SELECT new pe.edu.upeu.sysasistencia.dtos.ParticionExportacionDTO(s.idSede, s.nombre, COUNT(m)) " +
+            "FROM Matricula m JOIN m.sede s WHERE " +
+            "(:sedeId IS NULL OR s.idSede = :sedeId) AND " +
+            "(:facultadId IS NULL OR m.facultad.idFacultad = :facultadId) AND " +
+            "(:programaId IS NULL OR m.programaEstudio.idPrograma = :programaId) AND " +
+            "(:tipoPersona IS NULL OR m.persona.tipoPersona = :tipoPersona) " +
+            "GROUP BY s.idSede, s.nombre ORDER BY COUNT(m) DESC")
+    List<ParticionExportacionDTO> contarPorSede(
+            @Param("sedeId") Long sedeId,
+            @Param("facultadId") Long facultadId,
+            @Param("programaId") Long programaId,
+            @Param("tipoPersona") TipoPersona tipoPersona
+    );
+
+    // Valores distintos de las columnas de pocos valores, para los diccionarios de la exportación Arrow
+    @Query("SELECT DISTINCT s.nombre FROM Matricula m JOIN m.sede s")
+    List<String> findNombresSede();
+
+    @Query("SELECT DISTINCT f.nombre FROM Matricula m JOIN m.facultad f")
+    List<String> findNombresFacultad();
+
+    @Query("SELECT DISTINCT pe.nombre FROM Matricula m JOIN m.programaEstudio pe")
+    List<String> findNombresPrograma();
+
+    @Query("SELECT DISTINCT m.modalidadEstudio FROM Matricula m WHERE m.modalidadEstudio IS NOT NULL")
+    List<String> findModalidades();
+
+    @Query("SELECT DISTINCT m.ciclo FROM Matricula m WHERE m.ciclo IS NOT NULL")
+    List<String> findCiclos();
+}
@@ -1,9 +1,25 @@
 package pe.edu.upeu.sysasistencia.repositorio;
 
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import pe.edu.upeu.sysasistencia.dtos.HuellaPersonaDTO;
 import pe.edu.upeu.sysasistencia.modelo.Persona;
+
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface IPersonaRepository extends ICrudGenericoRepository<Persona, Long>{
     Optional<Persona> findByCodigoEstudiante(String codigoEstudiante);
     Optional<Persona> findByDocumento(String documento);
-}
\ No newline at end of file
+
+    @Query("SELECT p.documento FROM Persona p WHERE p.documento IN :documentos")
+    List<String> findDocumentosExistentes(@Param("documentos") Collection<String> documentos);
+
+    @Query("SELECT p.codigoEstudiante FROM Persona p WHERE p.codigoEstudiante IN :codigos")
+    List<String> findCodigosExistentes(@Param("codigos") Collection<String> codigos);
+
+    @Query("SELECT new pe.edu.upeu.sysasistencia.dtos.HuellaPersonaDTO(p.documento, p.idPersona, p.hashFila, m.idMatricula, m.hashFila) " +
+            "FROM Persona p LEFT JOIN Matricula m ON m.persona = p WHERE p.documento IN :documentos")
+    List<HuellaPersonaDTO> findHuellasPorDocumento(@Param("documentos") Collection<String> documentos);
+}
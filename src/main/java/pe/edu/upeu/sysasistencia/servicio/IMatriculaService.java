@@ -3,9 +3,15 @@ package pe.edu.upeu.sysasistencia.servicio;
 import org.springframework.web.multipart.MultipartFile;
 import pe.edu.upeu.sysasistencia.dtos.ImportFilterDTO;
 import pe.edu.upeu.sysasistencia.dtos.ImportResultDTO;
+import pe.edu.upeu.sysasistencia.dtos.VistaPreviaImportacionDTO;
 import pe.edu.upeu.sysasistencia.modelo.Matricula;
+import pe.edu.upeu.sysasistencia.modelo.ParticionExportacion;
 import pe.edu.upeu.sysasistencia.modelo.TipoPersona;
+import pe.edu.upeu.sysasistencia.servicio.impl.exportacion.ArchivoExportacion;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
 import java.util.List;
 
 public interface IMatriculaService extends ICrudGenericoService<Matricula, Long>{
@@ -15,5 +21,43 @@ public interface IMatriculaService extends ICrudGenericoService<Matricula, Long>
 
     ImportResultDTO importarDesdeExcel(MultipartFile file, ImportFilterDTO filtros) throws Exception;
 
-    byte[] exportarMatriculasAExcel(Long sedeId, Long facultadId, Long programaId, TipoPersona tipoPersona) throws Exception;
-}
\ No newline at end of file
+    ImportResultDTO simularImportacion(MultipartFile file, ImportFilterDTO filtros) throws Exception;
+
+    // Mapeo de columnas y primeras filas convertidas, sin importar
+    VistaPreviaImportacionDTO previsualizarImportacion(MultipartFile file, ImportFilterDTO filtros, int filas) throws Exception;
+
+    // Importación de un archivo ya guardado en disco (carga en streaming o por partes)
+    ImportResultDTO importarDesdeArchivo(Path archivo, String nombreArchivo, ImportFilterDTO filtros) throws Exception;
+
+    ImportResultDTO simularImportacion(Path archivo, String nombreArchivo, ImportFilterDTO filtros) throws Exception;
+
+    // Excel guardado en la caché de exportaciones (o recién generado); el llamador lo cierra
+    ArchivoExportacion exportarMatriculasAExcel(Long sedeId, Long facultadId, Long programaId, TipoPersona tipoPersona) throws Exception;
+
+    // ETag que tendría hoy el Excel con esos filtros, para responder 304 sin generarlo
+    String etagExportacionExcel(Long sedeId, Long facultadId, Long programaId, TipoPersona tipoPersona);
+
+    // Padrón en Excel: todas las personas (también invitados sin matrícula) con su matrícula si la tienen
+    ArchivoExportacion exportarPadronAExcel(TipoPersona tipoPersona) throws Exception;
+
+    String etagExportacionPadron(TipoPersona tipoPersona);
+
+    // Zip con un Excel por programa o sede, generados en paralelo; también pasa por la caché
+    ArchivoExportacion exportarMatriculasPorParticion(ParticionExportacion particion, Long sedeId, Long facultadId,
+                                                      Long programaId, TipoPersona tipoPersona) throws Exception;
+
+    String etagExportacionPorParticion(ParticionExportacion particion, Long sedeId, Long facultadId,
+                                       Long programaId, TipoPersona tipoPersona);
+
+    // Escribe el CSV en out a medida que se leen las filas; devuelve la cantidad de filas
+    int exportarMatriculasACsv(Long sedeId, Long facultadId, Long programaId, TipoPersona tipoPersona,
+                               OutputStream out) throws IOException;
+
+    // Escribe las matrículas en Arrow IPC (stream) a medida que se leen; devuelve la cantidad de filas
+    long exportarMatriculasAArrow(Long sedeId, Long facultadId, Long programaId, TipoPersona tipoPersona,
+                                  OutputStream out) throws IOException;
+
+    // Escribe un MatriculaDTO por línea (NDJSON) a medida que se leen; devuelve la cantidad de filas
+    long exportarMatriculasANdjson(Long sedeId, Long facultadId, Long programaId, TipoPersona tipoPersona,
+                                   OutputStream out) throws IOException;
+}
@@ -1,9 +1,16 @@
 package pe.edu.upeu.sysasistencia.servicio;
 
+import pe.edu.upeu.sysasistencia.dtos.HuellaPersonaDTO;
 import pe.edu.upeu.sysasistencia.modelo.Persona;
+
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface IPersonaService extends ICrudGenericoService<Persona, Long>{
     Optional<Persona> findByCodigoEstudiante(String codigo);
     Optional<Persona> findByDocumento(String documento);
-}
\ No newline at end of file
+    List<String> findDocumentosExistentes(Collection<String> documentos);
+    List<String> findCodigosExistentes(Collection<String> codigos);
+    List<HuellaPersonaDTO> findHuellasPorDocumento(Collection<String> documentos);
+}
@@ -0,0 +1,75 @@
+package pe.edu.upeu.sysasistencia.servicio.impl;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.springframework.stereotype.Service;
+import pe.edu.upeu.sysasistencia.modelo.Matricula;
+import pe.edu.upeu.sysasistencia.repositorio.IMatriculaRepository;
+import pe.edu.upeu.sysasistencia.servicio.impl.exportacion.EscritorArrow;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Exporta matrículas en Arrow IPC (stream) para herramientas de análisis: columnas tipadas,
+ * lotes de EscritorArrow.FILAS_POR_LOTE filas y diccionarios para las columnas repetitivas.
+ * La memoria de los vectores sale de un allocator hijo por exportación, fuera del heap.
+ */
+@Slf4j
+@Service
+public class ArrowExportService {
+    private final IMatriculaRepository repo;
+    private final RootAllocator allocator = new RootAllocator();
+
+    public ArrowExportService(IMatriculaRepository repo) {
+        this.repo = repo;
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        allocator.close();
+    }
+
+    /**
+     * Valores de los diccionarios. Se consultan antes de abrir el cursor: con MySQL no se
+     * puede lanzar otra consulta por la misma conexión mientras el cursor esté abierto.
+     */
+    public Map<String, List<String>> valoresDiccionario() {
+        return Map.of(
+                "sede", repo.findNombresSede(),
+                "facultad", repo.findNombresFacultad(),
+                "programa", repo.findNombresPrograma(),
+                "modalidad", repo.findModalidades(),
+                "ciclo", repo.findCiclos());
+    }
+
+    /**
+     * No cierra out. El stream de matrículas se abre después de leer los diccionarios y se cierra al terminar.
+     */
+    public long exportar(Supplier<Stream<Matricula>> matriculas, OutputStream out) throws IOException {
+        Map<String, List<String>> diccionarios = valoresDiccionario();
+        try (BufferAllocator hijo = allocator.newChildAllocator("exportacion-arrow", 0, Long.MAX_VALUE);
+             EscritorArrow arrow = new EscritorArrow(out, hijo, diccionarios);
+             Stream<Matricula> stream = matriculas.get()) {
+            Iterator<Matricula> it = stream.iterator();
+            while (it.hasNext()) {
+                arrow.fila(it.next());
+            }
+            arrow.terminar();
+            out.flush();
+            if (arrow.getSinDiccionario() > 0) {
+                // Filas agregadas entre la lectura de los diccionarios y la del cursor
+                log.warn("Arrow: {} valores fuera del diccionario se exportaron como nulos", arrow.getSinDiccionario());
+            }
+            log.info("Arrow generado con {} registros", arrow.getFilas());
+            return arrow.getFilas();
+        }
+    }
+}
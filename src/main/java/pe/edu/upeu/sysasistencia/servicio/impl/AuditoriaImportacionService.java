@@ -0,0 +1,314 @@
+package pe.edu.upeu.sysasistencia.servicio.impl;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import pe.edu.upeu.sysasistencia.dtos.ResumenAuditoriaDTO;
+import pe.edu.upeu.sysasistencia.excepciones.ModelNotFoundException;
+import pe.edu.upeu.sysasistencia.servicio.impl.importacion.EventoImportacion;
+import pe.edu.upeu.sysasistencia.servicio.impl.importacion.ImportacionEnCurso;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Auditoría de importaciones en JSON lines (un registro por fila, más inicio y fin de cada importación).
+ * Los hilos de importación solo encolan; un hilo escritor escribe por lotes en un archivo de solo
+ * agregado que rota por día y por tamaño. El log normal recibe solo una muestra de las filas.
+ * Si la cola sigue llena después de importacion.auditoria.espera-max-ms el registro se descarta
+ * (y se cuenta en el resumen): la auditoría nunca deja una importación bloqueada.
+ */
+@Slf4j
+@Service
+public class AuditoriaImportacionService {
+    public static final String INICIO = "INICIO";
+
+    private static final int LOTE = 1024;
+    private static final JsonStringEncoder JSON = JsonStringEncoder.getInstance();
+
+    private final BlockingQueue<Registro> cola;
+    private final Map<String, Resumen> resumenes;
+    private final Path directorio;
+    private final long maxBytes;
+    private final int muestreoLog;
+    private final long esperaMaxMs;
+    private final boolean habilitado;
+    private final AtomicLong filasAuditadas = new AtomicLong();
+
+    private Thread escritor;
+    private volatile boolean detenido;
+
+    // Estado del archivo actual (solo lo usa el hilo escritor)
+    private OutputStream salida;
+    private Path archivoActual;
+    private LocalDate diaActual;
+    private long bytesActual;
+
+    public AuditoriaImportacionService(
+            @Value("${importacion.auditoria.habilitado:true}") boolean habilitado,
+            @Value("${importacion.auditoria.directorio:}") String directorio,
+            @Value("${importacion.auditoria.max-bytes:52428800}") long maxBytes,
+            @Value("${importacion.auditoria.capacidad-cola:65536}") int capacidadCola,
+            @Value("${importacion.auditoria.espera-max-ms:100}") long esperaMaxMs,
+            @Value("${importacion.auditoria.muestreo-log:1000}") int muestreoLog,
+            @Value("${importacion.registro.max-terminadas:100}") int maxResumenes) {
+        this.habilitado = habilitado;
+        this.directorio = directorio.isBlank()
+                ? Path.of(System.getProperty("java.io.tmpdir"), "sysasistencia-auditoria")
+                : Path.of(directorio);
+        this.maxBytes = maxBytes;
+        this.muestreoLog = Math.max(1, muestreoLog);
+        this.esperaMaxMs = Math.max(0, esperaMaxMs);
+        this.cola = new ArrayBlockingQueue<>(capacidadCola);
+        this.resumenes = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Resumen> eldest) {
+                return size() > Math.max(1, maxResumenes);
+            }
+        };
+    }
+
+    @PostConstruct
+    public void iniciarEscritor() {
+        if (!habilitado) return;
+        escritor = new Thread(this::escribirCola, "importacion-auditoria");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    /**
+     * Escribe lo pendiente antes de cerrar
+     */
+    @PreDestroy
+    public void detenerEscritor() throws InterruptedException {
+        detenido = true;
+        if (escritor != null) {
+            escritor.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    public void inicio(String idImportacion, String nombreArchivo) {
+        encolar(new Registro(idImportacion, INICIO, 0, null, nombreArchivo));
+    }
+
+    /**
+     * Filas de un bloque ya confirmado
+     */
+    public void filas(String idImportacion, List<EventoImportacion> eventos) {
+        for (EventoImportacion evento : eventos) {
+            encolar(new Registro(idImportacion, evento.getEvento(), evento.getFila(), evento.getDocumento(), evento.getDetalle()));
+            if (filasAuditadas.incrementAndGet() % muestreoLog == 0) {
+                log.info("Importación {}: fila {} {} (muestra 1 de {})",
+                        idImportacion, evento.getFila(), evento.getEvento(), muestreoLog);
+            }
+        }
+    }
+
+    /**
+     * estado es COMPLETADO o ERROR; detalle lleva los totales o el mensaje de error
+     */
+    public void fin(String idImportacion, String estado, String detalle) {
+        encolar(new Registro(idImportacion, estado, 0, null, detalle));
+    }
+
+    public ResumenAuditoriaDTO resumen(String idImportacion) {
+        synchronized (resumenes) {
+            Resumen resumen = resumenes.get(idImportacion);
+            if (resumen == null) {
+                throw new ModelNotFoundException("No hay auditoría para la importación " + idImportacion);
+            }
+            return new ResumenAuditoriaDTO(idImportacion, resumen.nombreArchivo, resumen.estado,
+                    resumen.inicio, resumen.fin, resumen.registros, new TreeMap<>(resumen.eventos),
+                    new ArrayList<>(resumen.archivos), cola.size(), resumen.descartados);
+        }
+    }
+
+    private void encolar(Registro registro) {
+        if (!habilitado) return;
+        boolean encolado = false;
+        try {
+            // Si el disco no da abasto la importación espera un poco; sin hilo escritor no espera
+            long espera = escritor != null && escritor.isAlive() ? esperaMaxMs : 0;
+            encolado = cola.offer(registro, espera, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!encolado) {
+            descartar(registro);
+        }
+    }
+
+    private void descartar(Registro registro) {
+        long descartados;
+        synchronized (resumenes) {
+            descartados = ++resumenes.computeIfAbsent(registro.idImportacion, id -> new Resumen()).descartados;
+        }
+        if (descartados == 1) {
+            log.warn("Importación {}: cola de auditoría llena, se descartan registros", registro.idImportacion);
+        }
+    }
+
+    private void escribirCola() {
+        List<Registro> lote = new ArrayList<>(LOTE);
+        while (!detenido || !cola.isEmpty()) {
+            try {
+                Registro primero = cola.poll(500, TimeUnit.MILLISECONDS);
+                if (primero == null) continue;
+                lote.add(primero);
+                cola.drainTo(lote, LOTE - 1);
+                escribirLote(lote);
+            } catch (InterruptedException e) {
+                detenido = true;
+            } catch (RuntimeException e) {
+                // El hilo debe seguir vivo: si muere, las importaciones llenan la cola
+                log.error("Error en el escritor de auditoría; se pierde un lote de {} registros", lote.size(), e);
+                cerrarArchivo();
+            } finally {
+                lote.clear();
+            }
+        }
+        cerrarArchivo();
+    }
+
+    private void escribirLote(List<Registro> lote) {
+        StringBuilder linea = new StringBuilder(160);
+        try {
+            for (Registro registro : lote) {
+                linea.setLength(0);
+                registro.escribir(linea);
+                linea.append('\n');
+                rotarSiHaceFalta();
+                // Se cuentan bytes UTF-8, no caracteres: con tildes la línea ocupa más
+                byte[] bytes = linea.toString().getBytes(StandardCharsets.UTF_8);
+                salida.write(bytes);
+                bytesActual += bytes.length;
+                actualizarResumen(registro);
+            }
+            salida.flush();
+        } catch (IOException e) {
+            log.error("No se pudo escribir la auditoría de importación en {}: {}", archivoActual, e.getMessage());
+            cerrarArchivo();
+        }
+    }
+
+    /**
+     * Un archivo por día; si supera maxBytes se continúa en el siguiente índice (.1, .2, ...)
+     */
+    private void rotarSiHaceFalta() throws IOException {
+        LocalDate hoy = LocalDate.now();
+        if (salida != null && hoy.equals(diaActual) && bytesActual < maxBytes) return;
+        cerrarArchivo();
+        Files.createDirectories(directorio);
+        Path archivo;
+        int indice = 0;
+        do {
+            archivo = directorio.resolve("auditoria-importacion-" + hoy + (indice > 0 ? "." + indice : "") + ".jsonl");
+            indice++;
+        } while (Files.exists(archivo) && Files.size(archivo) >= maxBytes);
+        salida = new BufferedOutputStream(Files.newOutputStream(archivo,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND), 64 * 1024);
+        archivoActual = archivo;
+        diaActual = hoy;
+        bytesActual = Files.exists(archivo) ? Files.size(archivo) : 0;
+    }
+
+    private void cerrarArchivo() {
+        if (salida == null) return;
+        try {
+            salida.close();
+        } catch (IOException e) {
+            log.warn("No se pudo cerrar la auditoría {}: {}", archivoActual, e.getMessage());
+        }
+        salida = null;
+    }
+
+    private void actualizarResumen(Registro registro) {
+        synchronized (resumenes) {
+            Resumen resumen = resumenes.computeIfAbsent(registro.idImportacion, id -> new Resumen());
+            resumen.archivos.add(archivoActual.getFileName().toString());
+            if (INICIO.equals(registro.evento)) {
+                resumen.nombreArchivo = registro.detalle;
+                resumen.estado = ImportacionEnCurso.EN_PROCESO;
+                resumen.inicio = registro.fecha();
+            } else if (registro.fila == 0) {
+                resumen.estado = registro.evento;
+                resumen.fin = registro.fecha();
+            } else {
+                resumen.registros++;
+                resumen.eventos.merge(registro.evento, 1L, Long::sum);
+            }
+        }
+    }
+
+    private static class Resumen {
+        private String nombreArchivo;
+        private String estado;
+        private LocalDateTime inicio;
+        private LocalDateTime fin;
+        private long registros;
+        private long descartados;
+        private final Map<String, Long> eventos = new LinkedHashMap<>();
+        private final Set<String> archivos = new LinkedHashSet<>();
+    }
+
+    private static class Registro {
+        private final long instante = System.currentTimeMillis();
+        private final String idImportacion;
+        private final String evento;
+        private final int fila;
+        private final String documento;
+        private final String detalle;
+
+        Registro(String idImportacion, String evento, int fila, String documento, String detalle) {
+            this.idImportacion = idImportacion;
+            this.evento = evento;
+            this.fila = fila;
+            this.documento = documento;
+            this.detalle = detalle;
+        }
+
+        LocalDateTime fecha() {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(instante), ZoneId.systemDefault());
+        }
+
+        void escribir(StringBuilder sb) {
+            sb.append("{\"ts\":").append(instante);
+            campo(sb, "importacion", idImportacion);
+            campo(sb, "evento", evento);
+            if (fila > 0) sb.append(",\"fila\":").append(fila);
+            campo(sb, "documento", documento);
+            campo(sb, "detalle", detalle);
+            sb.append('}');
+        }
+
+        private static void campo(StringBuilder sb, String nombre, String valor) {
+            if (valor == null) return;
+            sb.append(",\"").append(nombre).append("\":\"");
+            JSON.quoteAsString(valor, sb);
+            sb.append('"');
+        }
+    }
+}
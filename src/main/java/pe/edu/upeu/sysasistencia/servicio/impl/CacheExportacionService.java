@@ -0,0 +1,192 @@
+package pe.edu.upeu.sysasistencia.servicio.impl;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import pe.edu.upeu.sysasistencia.servicio.impl.exportacion.ArchivoExportacion;
+import pe.edu.upeu.sysasistencia.servicio.impl.exportacion.VersionDatosExportacion;
+import pe.edu.upeu.sysasistencia.utils.SingleFlight;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caché en disco de exportaciones ya generadas. La clave es el formato con los filtros y cada
+ * archivo vale solo para la versión de datos con la que se generó, así que una escritura
+ * de matrículas o personas invalida todo sin tener que rastrear qué filtros afecta.
+ * Se desaloja por LRU cuando el total supera exportacion.cache.max-bytes.
+ */
+@Slf4j
+@Service
+public class CacheExportacionService {
+    private static final String PREFIJO = "exportacion-";
+
+    private final VersionDatosExportacion versionDatos;
+    private final Path directorio;
+    private final long maxBytes;
+    private final Duration maxEspera;
+    private final SingleFlight<String, Entrada> generaciones = new SingleFlight<>();
+    // LRU por orden de acceso
+    private final LinkedHashMap<String, Entrada> archivos = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    public CacheExportacionService(
+            VersionDatosExportacion versionDatos,
+            @Value("${exportacion.cache.directorio:}") String directorio,
+            @Value("${exportacion.cache.max-bytes:1073741824}") long maxBytes,
+            @Value("${exportacion.cache.espera-max-segundos:120}") long maxEsperaSegundos) {
+        this.versionDatos = versionDatos;
+        this.directorio = directorio.isBlank()
+                ? Path.of(System.getProperty("java.io.tmpdir"), "sysasistencia-exportaciones")
+                : Path.of(directorio);
+        this.maxBytes = maxBytes;
+        this.maxEspera = Duration.ofSeconds(maxEsperaSegundos);
+    }
+
+    /**
+     * Los archivos de una ejecución anterior no tienen entrada y nunca se volverían a servir
+     */
+    @PostConstruct
+    public void limpiarDirectorio() throws IOException {
+        Files.createDirectories(directorio);
+        try (DirectoryStream<Path> anteriores = Files.newDirectoryStream(directorio, PREFIJO + "*")) {
+            for (Path anterior : anteriores) {
+                borrar(anterior);
+            }
+        }
+    }
+
+    /**
+     * ETag que tendría hoy la exportación con esta clave; sirve para responder 304 sin generarla
+     */
+    public String etag(String clave) {
+        return etag(clave, versionDatos.actual());
+    }
+
+    /**
+     * Devuelve el archivo guardado para la versión actual o lo genera. Si la misma exportación
+     * ya se está generando, espera ese resultado (como máximo exportacion.cache.espera-max-segundos,
+     * luego TimeoutException) en lugar de generarla otra vez. El llamador cierra el resultado.
+     */
+    public ArchivoExportacion obtenerOGenerar(String clave, String extension, GeneradorArchivo generador) throws Exception {
+        for (int intento = 0; ; intento++) {
+            long version = versionDatos.actual();
+            synchronized (this) {
+                Entrada guardada = archivos.get(clave);
+                if (guardada != null && guardada.version == version) {
+                    ArchivoExportacion archivo = abrir(guardada);
+                    if (archivo != null) {
+                        log.info("Exportación {} servida desde la caché", clave);
+                        return archivo;
+                    }
+                    archivos.remove(clave);
+                    totalBytes -= guardada.bytes;
+                }
+            }
+
+            String enCurso = clave + "|" + version;
+            if (generaciones.estaEnCurso(enCurso)) {
+                log.info("Exportación {} en curso: esperando su resultado", clave);
+            }
+            Entrada entrada = generaciones.ejecutar(enCurso, () -> generar(clave, version, extension, generador), maxEspera);
+            synchronized (this) {
+                ArchivoExportacion archivo = abrir(entrada);
+                if (archivo != null) return archivo;
+            }
+            // Desalojada entre que se generó y se abrió: se intenta una vez más
+            if (intento > 0) {
+                throw new IOException("La exportación " + clave + " se desalojó antes de enviarse");
+            }
+        }
+    }
+
+    private Entrada generar(String clave, long version, String extension, GeneradorArchivo generador) throws Exception {
+        Path temporal = Files.createTempFile(directorio, PREFIJO, extension);
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temporal), 64 * 1024)) {
+            generador.escribir(out);
+        } catch (Exception e) {
+            borrar(temporal);
+            throw e;
+        }
+
+        Entrada nueva = new Entrada(temporal, version, etag(clave, version), Files.size(temporal), LocalDateTime.now());
+        synchronized (this) {
+            guardar(clave, nueva);
+        }
+        return nueva;
+    }
+
+    private void guardar(String clave, Entrada nueva) {
+        Entrada anterior = archivos.put(clave, nueva);
+        totalBytes += nueva.bytes;
+        if (anterior != null) {
+            quitar(anterior);
+        }
+        long versionActual = versionDatos.actual();
+        Iterator<Map.Entry<String, Entrada>> it = archivos.entrySet().iterator();
+        while (it.hasNext()) {
+            Entrada entrada = it.next().getValue();
+            if (entrada == nueva) continue;
+            // El más antiguo primero; los de versiones pasadas ya no sirven
+            if (totalBytes > maxBytes || entrada.version != versionActual) {
+                it.remove();
+                quitar(entrada);
+            }
+        }
+    }
+
+    private ArchivoExportacion abrir(Entrada entrada) throws IOException {
+        try {
+            FileChannel canal = FileChannel.open(entrada.archivo, StandardOpenOption.READ);
+            return new ArchivoExportacion(canal, entrada.etag, entrada.bytes, entrada.generado);
+        } catch (NoSuchFileException e) {
+            log.warn("Exportación en caché borrada del disco: {}", entrada.archivo);
+            return null;
+        }
+    }
+
+    private void quitar(Entrada entrada) {
+        totalBytes -= entrada.bytes;
+        borrar(entrada.archivo);
+    }
+
+    private static void borrar(Path archivo) {
+        try {
+            Files.deleteIfExists(archivo);
+        } catch (IOException e) {
+            log.warn("No se pudo borrar {}: {}", archivo, e.getMessage());
+        }
+    }
+
+    private static String etag(String clave, long version) {
+        return "\"" + Integer.toHexString(clave.hashCode()) + "-" + Long.toString(version, 36) + "\"";
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Escribe la exportación completa en out (no lo cierra)
+     */
+    @FunctionalInterface
+    public interface GeneradorArchivo {
+        void escribir(OutputStream out) throws Exception;
+    }
+
+    private record Entrada(Path archivo, long version, String etag, long bytes, LocalDateTime generado) {
+    }
+}
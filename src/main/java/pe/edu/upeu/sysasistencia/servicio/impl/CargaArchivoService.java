@@ -0,0 +1,203 @@
+package pe.edu.upeu.sysasistencia.servicio.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import pe.edu.upeu.sysasistencia.dtos.CargaDTO;
+import pe.edu.upeu.sysasistencia.excepciones.ArchivoDemasiadoGrandeException;
+import pe.edu.upeu.sysasistencia.excepciones.CargaConflictoException;
+import pe.edu.upeu.sysasistencia.excepciones.ModelNotFoundException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Recepción de archivos grandes directo a disco, sin pasar por multipart ni por el heap.
+ * El cuerpo de la petición se copia al archivo con un buffer fijo de 64 KB. También permite
+ * cargas por partes reanudables: cada parte se escribe en el offset donde terminó la anterior.
+ * El tamaño total se declara al iniciar la carga; solo está completa al recibirlo entero.
+ */
+@Slf4j
+@Service
+public class CargaArchivoService {
+    private static final int BUFFER = 64 * 1024;
+
+    private final ConcurrentHashMap<String, Carga> cargas = new ConcurrentHashMap<>();
+    private final Path directorio;
+    private final long maxBytes;
+    private final Duration vigencia;
+
+    public CargaArchivoService(
+            @Value("${importacion.carga.directorio:}") String directorio,
+            @Value("${importacion.carga.max-bytes:2147483647}") long maxBytes,
+            @Value("${importacion.carga.vigencia-horas:24}") long vigenciaHoras) throws IOException {
+        this.directorio = directorio.isBlank()
+                ? Path.of(System.getProperty("java.io.tmpdir"), "sysasistencia-cargas")
+                : Path.of(directorio);
+        this.maxBytes = maxBytes;
+        this.vigencia = Duration.ofHours(vigenciaHoras);
+        Files.createDirectories(this.directorio);
+    }
+
+    /**
+     * Copia el cuerpo completo de la petición a un archivo temporal; el llamador debe eliminarlo
+     */
+    public Path recibir(InputStream entrada, String nombreArchivo) throws IOException {
+        Path destino = Files.createTempFile(directorio, "stream-", extension(nombreArchivo));
+        try (FileChannel canal = FileChannel.open(destino, StandardOpenOption.WRITE)) {
+            long recibidos = copiar(entrada, canal, maxBytes);
+            log.info("Archivo {} recibido en streaming: {} bytes", nombreArchivo, recibidos);
+            return destino;
+        } catch (IOException e) {
+            eliminarArchivo(destino);
+            throw e;
+        }
+    }
+
+    /**
+     * tamano es obligatorio: sin él no hay forma de saber si la última parte llegó
+     */
+    public CargaDTO iniciar(String nombreArchivo, long tamano) throws IOException {
+        if (tamano < 1) {
+            throw new IOException("El tamaño del archivo debe ser mayor que cero");
+        }
+        if (tamano > maxBytes) {
+            throw new ArchivoDemasiadoGrandeException("El archivo supera el tamaño máximo permitido (" + maxBytes + " bytes)");
+        }
+        limpiarVencidas();
+        String id = UUID.randomUUID().toString();
+        Path archivo = Files.createTempFile(directorio, "carga-", extension(nombreArchivo));
+        Carga carga = new Carga(id, nombreArchivo, tamano, archivo);
+        cargas.put(id, carga);
+        log.info("Carga {} iniciada para {} ({} bytes)", id, nombreArchivo, tamano);
+        return carga.estado();
+    }
+
+    /**
+     * Escribe una parte a partir de offset. Si la conexión se corta a mitad de la parte,
+     * lo ya escrito cuenta como recibido y el cliente continúa desde ahí. No se acepta nada más
+     * allá del tamaño declarado.
+     */
+    public CargaDTO agregar(String id, long offset, InputStream entrada) throws IOException {
+        Carga carga = obtener(id);
+        synchronized (carga) {
+            if (offset != carga.recibidos) {
+                throw new CargaConflictoException("La parte debe empezar en el byte " + carga.recibidos, carga.recibidos);
+            }
+            try (FileChannel canal = FileChannel.open(carga.archivo, StandardOpenOption.WRITE)) {
+                // Descarta restos de un intento anterior que no llegó a confirmarse
+                canal.truncate(offset);
+                canal.position(offset);
+                try {
+                    copiar(entrada, canal, carga.tamano);
+                } finally {
+                    carga.recibidos = canal.position();
+                    carga.ultimaActividad = LocalDateTime.now();
+                }
+            }
+            return carga.estado();
+        }
+    }
+
+    public CargaDTO estado(String id) {
+        return obtener(id).estado();
+    }
+
+    /**
+     * Archivo de una carga terminada, listo para importar
+     */
+    public Path archivoCompleto(String id) {
+        Carga carga = obtener(id);
+        if (!carga.estado().isCompleta()) {
+            throw new CargaConflictoException("La carga está incompleta: " + carga.recibidos + " de " + carga.tamano + " bytes", carga.recibidos);
+        }
+        return carga.archivo;
+    }
+
+    public void eliminar(String id) {
+        Carga carga = cargas.remove(id);
+        if (carga != null) eliminarArchivo(carga.archivo);
+    }
+
+    public void eliminarArchivo(Path archivo) {
+        if (archivo == null) return;
+        try {
+            Files.deleteIfExists(archivo);
+        } catch (IOException e) {
+            log.warn("No se pudo eliminar el archivo {}: {}", archivo, e.getMessage());
+        }
+    }
+
+    private Carga obtener(String id) {
+        Carga carga = cargas.get(id);
+        if (carga == null) {
+            throw new ModelNotFoundException("Carga no encontrada: " + id);
+        }
+        return carga;
+    }
+
+    private long copiar(InputStream entrada, FileChannel canal, long limite) throws IOException {
+        byte[] buffer = new byte[BUFFER];
+        ByteBuffer envoltura = ByteBuffer.wrap(buffer);
+        long total = 0;
+        int leidos;
+        while ((leidos = entrada.read(buffer)) != -1) {
+            total += leidos;
+            if (canal.position() + leidos > limite) {
+                throw new ArchivoDemasiadoGrandeException("El archivo supera el tamaño "
+                        + (limite == maxBytes ? "máximo permitido" : "declarado") + " (" + limite + " bytes)");
+            }
+            envoltura.clear().limit(leidos);
+            while (envoltura.hasRemaining()) {
+                canal.write(envoltura);
+            }
+        }
+        return total;
+    }
+
+    private void limpiarVencidas() {
+        LocalDateTime limite = LocalDateTime.now().minus(vigencia);
+        cargas.values().removeIf(carga -> {
+            if (carga.ultimaActividad.isBefore(limite)) {
+                log.info("Carga {} vencida, se elimina", carga.id);
+                eliminarArchivo(carga.archivo);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private static String extension(String nombreArchivo) {
+        int punto = nombreArchivo != null ? nombreArchivo.lastIndexOf('.') : -1;
+        return punto >= 0 ? nombreArchivo.substring(punto) : ".tmp";
+    }
+
+    private static class Carga {
+        private final String id;
+        private final String nombreArchivo;
+        private final long tamano;
+        private final Path archivo;
+        private volatile long recibidos;
+        private volatile LocalDateTime ultimaActividad = LocalDateTime.now();
+
+        Carga(String id, String nombreArchivo, long tamano, Path archivo) {
+            this.id = id;
+            this.nombreArchivo = nombreArchivo;
+            this.tamano = tamano;
+            this.archivo = archivo;
+        }
+
+        CargaDTO estado() {
+            return new CargaDTO(id, nombreArchivo, tamano, recibidos, recibidos == tamano);
+        }
+    }
+}
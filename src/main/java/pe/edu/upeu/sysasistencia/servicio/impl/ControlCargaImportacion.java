@@ -0,0 +1,196 @@
+package pe.edu.upeu.sysasistencia.servicio.impl;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import pe.edu.upeu.sysasistencia.dtos.EstadoControlDTO;
+import pe.edu.upeu.sysasistencia.utils.VentanaLatencias;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Control de carga AIMD para las importaciones, que comparten la base de datos con el tráfico
+ * interactivo. Después de cada bloque se revisan el p99 de las peticiones interactivas, la espera
+ * por conexión del pool y la latencia por fila: si alguna señal indica congestión, el tamaño de
+ * bloque y los bloques concurrentes se reducen a la mitad (y en el mínimo se agrega una pausa);
+ * si no, el bloque crece de a poco y, al llegar al máximo, también la concurrencia.
+ */
+@Slf4j
+@Service
+public class ControlCargaImportacion {
+    // Suavizado de las señales por bloque
+    private static final double ALFA = 0.3;
+    // Latencia por fila sobre la base que se considera congestión
+    private static final double FACTOR_LATENCIA = 2.0;
+    // Entre dos reducciones, para no reaccionar varias veces a la misma congestión
+    private static final long ENFRIAMIENTO_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long VENTANA_INTERACTIVA_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final int MIN_MUESTRAS_INTERACTIVAS = 20;
+    private static final long PAUSA_INICIAL_MS = 50;
+
+    private final VentanaLatencias interactivas = new VentanaLatencias(2048);
+    private final HikariDataSource hikari;
+    private final boolean habilitado;
+    private final int bloqueMax;
+    private final int bloqueMin;
+    private final int incrementoBloque;
+    private final int paralelismoMax;
+    private final long p99ObjetivoNanos;
+    private final long esperaMaxNanos;
+    private final long pausaMaxMs;
+
+    // Estado del controlador (protegido por this)
+    private int tamanoBloque;
+    private int paralelismo;
+    private int enUso;
+    private double esperaEwma;
+    private double latenciaFilaEwma;
+    private double latenciaBase = Double.MAX_VALUE;
+    private long p99Interactivo;
+    private int hilosEsperando;
+    private boolean congestionado;
+    private String motivo;
+    private long pausaMs;
+    private long reducciones;
+    private long ultimaReduccion = System.nanoTime() - ENFRIAMIENTO_NANOS;
+    private LocalDateTime ultimoAjuste;
+
+    public ControlCargaImportacion(
+            DataSource dataSource,
+            @Value("${importacion.control.habilitado:true}") boolean habilitado,
+            @Value("${importacion.tamano-bloque:500}") int bloqueMax,
+            @Value("${importacion.control.tamano-bloque-min:50}") int bloqueMin,
+            @Value("${importacion.control.incremento-bloque:50}") int incrementoBloque,
+            @Value("${importacion.unidades.paralelismo:4}") int paralelismoMax,
+            @Value("${importacion.control.p99-objetivo-ms:500}") long p99ObjetivoMs,
+            @Value("${importacion.control.espera-conexion-max-ms:50}") long esperaMaxMs,
+            @Value("${importacion.control.pausa-max-ms:2000}") long pausaMaxMs) {
+        this.hikari = hikari(dataSource);
+        this.habilitado = habilitado;
+        this.bloqueMax = Math.max(1, bloqueMax);
+        this.bloqueMin = Math.max(1, Math.min(bloqueMin, this.bloqueMax));
+        this.incrementoBloque = Math.max(1, incrementoBloque);
+        this.paralelismoMax = Math.max(1, paralelismoMax);
+        this.p99ObjetivoNanos = TimeUnit.MILLISECONDS.toNanos(p99ObjetivoMs);
+        this.esperaMaxNanos = TimeUnit.MILLISECONDS.toNanos(esperaMaxMs);
+        this.pausaMaxMs = pausaMaxMs;
+        this.tamanoBloque = this.bloqueMax;
+        this.paralelismo = this.paralelismoMax;
+    }
+
+    /**
+     * Latencia de una petición interactiva (la registra LatenciaInteractivaFilter)
+     */
+    public void registrarInteractiva(long nanos) {
+        interactivas.registrar(nanos);
+    }
+
+    public synchronized int tamanoBloque() {
+        return habilitado ? tamanoBloque : bloqueMax;
+    }
+
+    /**
+     * Espera un cupo para ejecutar un bloque; todas las importaciones comparten los cupos
+     */
+    public synchronized void adquirir() throws InterruptedException {
+        while (habilitado && enUso >= paralelismo) {
+            wait();
+        }
+        enUso++;
+    }
+
+    public synchronized void liberar() {
+        enUso--;
+        notifyAll();
+    }
+
+    /**
+     * Registra un bloque confirmado y ajusta el control. Devuelve la pausa (ms) a aplicar
+     * antes del siguiente bloque.
+     */
+    public synchronized long registrarBloque(int filas, long esperaConexionNanos, long duracionNanos) {
+        if (!habilitado) return 0;
+
+        esperaEwma = suavizar(esperaEwma, esperaConexionNanos);
+        latenciaFilaEwma = suavizar(latenciaFilaEwma, (double) duracionNanos / Math.max(1, filas));
+        // La base sigue al mínimo y sube muy lento, para adaptarse si cambia el costo normal por fila
+        latenciaBase = Math.min(latenciaFilaEwma, latenciaBase + (latenciaFilaEwma - latenciaBase) * 0.01);
+        p99Interactivo = interactivas.percentil(99, VENTANA_INTERACTIVA_NANOS, MIN_MUESTRAS_INTERACTIVAS);
+        hilosEsperando = hilosEsperandoConexion();
+
+        motivo = null;
+        if (p99ObjetivoNanos > 0 && p99Interactivo > p99ObjetivoNanos) {
+            motivo = "p99 interactivo sobre el objetivo";
+        } else if (hilosEsperando > 0) {
+            motivo = "hilos esperando conexión del pool";
+        } else if (esperaEwma > esperaMaxNanos) {
+            motivo = "espera de conexión";
+        } else if (latenciaFilaEwma > latenciaBase * FACTOR_LATENCIA) {
+            motivo = "latencia de sentencias";
+        }
+
+        long ahora = System.nanoTime();
+        congestionado = motivo != null;
+        if (congestionado) {
+            if (ahora - ultimaReduccion >= ENFRIAMIENTO_NANOS) {
+                tamanoBloque = Math.max(bloqueMin, tamanoBloque / 2);
+                paralelismo = Math.max(1, paralelismo / 2);
+                reducciones++;
+                ultimaReduccion = ahora;
+                log.info("Importación: {} - bloque {} filas, {} bloques concurrentes", motivo, tamanoBloque, paralelismo);
+            }
+            // Ya en el mínimo: la única forma de ceder más es esperar entre bloques
+            if (tamanoBloque == bloqueMin && paralelismo == 1) {
+                pausaMs = Math.min(pausaMaxMs, Math.max(PAUSA_INICIAL_MS, pausaMs * 2));
+            }
+        } else {
+            pausaMs = 0;
+            if (tamanoBloque < bloqueMax) {
+                tamanoBloque = Math.min(bloqueMax, tamanoBloque + incrementoBloque);
+            } else if (paralelismo < paralelismoMax) {
+                paralelismo++;
+                notifyAll();
+            }
+        }
+        ultimoAjuste = LocalDateTime.now();
+        return pausaMs;
+    }
+
+    public synchronized EstadoControlDTO estado() {
+        return new EstadoControlDTO(habilitado, tamanoBloque(), habilitado ? paralelismo : paralelismoMax, enUso,
+                congestionado, motivo,
+                TimeUnit.NANOSECONDS.toMillis(p99Interactivo), TimeUnit.NANOSECONDS.toMillis(p99ObjetivoNanos),
+                esperaEwma / 1_000_000.0, latenciaFilaEwma / 1_000_000.0,
+                latenciaBase == Double.MAX_VALUE ? 0 : latenciaBase / 1_000_000.0,
+                hilosEsperando, pausaMs, reducciones, ultimoAjuste);
+    }
+
+    private int hilosEsperandoConexion() {
+        if (hikari == null) return 0;
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        return pool != null ? pool.getThreadsAwaitingConnection() : 0;
+    }
+
+    private static double suavizar(double actual, double muestra) {
+        return actual == 0 ? muestra : actual + ALFA * (muestra - actual);
+    }
+
+    /**
+     * En producción el DataSource viene por JNDI y puede no ser Hikari: se usa solo la espera medida
+     */
+    private static HikariDataSource hikari(DataSource dataSource) {
+        try {
+            if (dataSource != null && dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class);
+            }
+        } catch (SQLException e) {
+            log.debug("No se pudo obtener el pool Hikari: {}", e.getMessage());
+        }
+        return null;
+    }
+}
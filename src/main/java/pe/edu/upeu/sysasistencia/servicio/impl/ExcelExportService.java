@@ -2,263 +2,81 @@ package pe.edu.upeu.sysasistencia.servicio.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.stereotype.Service;
 import pe.edu.upeu.sysasistencia.modelo.Matricula;
+import pe.edu.upeu.sysasistencia.modelo.Persona;
+import pe.edu.upeu.sysasistencia.servicio.impl.exportacion.ColumnasExportacion;
+import pe.edu.upeu.sysasistencia.servicio.impl.exportacion.EscritorExcel;
+import pe.edu.upeu.sysasistencia.servicio.impl.exportacion.EstilosExcel;
 
-import java.io.ByteArrayOutputStream;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.io.OutputStream;
+import java.util.Iterator;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ExcelExportService {
 
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-    private static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy h:mm a");
+    // Filas que SXSSF mantiene en memoria; las anteriores se escriben a un temporal
+    private static final int VENTANA_FILAS = 100;
 
     /**
-     * Exporta una lista de matrículas a un archivo Excel
+     * Exporta las matrículas a un archivo Excel a medida que llegan del cursor. No cierra out.
      */
-    public byte[] exportarMatriculasAExcel(List<Matricula> matriculas) throws Exception {
-        try (Workbook workbook = new XSSFWorkbook();
-             ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+    public void exportarMatriculasAExcel(Iterator<Matricula> matriculas, OutputStream out) throws Exception {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(VENTANA_FILAS);
+        workbook.setCompressTempFiles(true);
+        try (workbook) {
 
-            Sheet sheet = workbook.createSheet("Matrículas");
-
-            // Crear estilos
-            CellStyle headerStyle = createHeaderStyle(workbook);
-            CellStyle dateStyle = createDateStyle(workbook);
-            CellStyle dateTimeStyle = createDateTimeStyle(workbook);
-            CellStyle textStyle = createTextStyle(workbook);
+            SXSSFSheet sheet = workbook.createSheet("Matrículas");
+            EstilosExcel estilos = new EstilosExcel(workbook);
+            EscritorExcel escritor = new EscritorExcel(sheet, estilos, ColumnasExportacion.TOTAL);
 
             // Crear encabezado
-            crearEncabezado(sheet, headerStyle);
+            escritor.encabezado(ColumnasExportacion.encabezados(), estilos.encabezado());
 
             // Llenar datos
             int rowNum = 1;
-            for (Matricula matricula : matriculas) {
-                Row row = sheet.createRow(rowNum++);
-                llenarFila(row, matricula, textStyle, dateStyle, dateTimeStyle);
+            String[] textos = new String[ColumnasExportacion.TOTAL];
+            while (matriculas.hasNext()) {
+                escritor.fila(rowNum++);
+                llenarFila(escritor, matriculas.next(), textos);
             }
 
             // Ajustar ancho de columnas
-            ajustarAnchoColumnas(sheet);
+            escritor.ajustarAnchos();
 
             // Escribir al output stream
             workbook.write(out);
-            log.info("Excel generado exitosamente con {} registros", matriculas.size());
-
-            return out.toByteArray();
+            log.info("Excel generado exitosamente con {} registros", rowNum - 1);
 
         } catch (Exception e) {
             log.error("Error al generar Excel: {}", e.getMessage());
             throw new Exception("Error al generar el archivo Excel: " + e.getMessage());
+        } finally {
+            workbook.dispose();
         }
     }
 
     /**
-     * Crear encabezado del Excel
-     */
-    private void crearEncabezado(Sheet sheet, CellStyle headerStyle) {
-        Row headerRow = sheet.createRow(0);
-
-        String[] columnas = {
-                "Modo contrato",
-                "Modalidad estudio",
-                "Sede",
-                "Unidad académica",
-                "Programa estudio",
-                "Ciclo",
-                "Grupo",
-                "id_persona",
-                "Código estudiante",
-                "Estudiante",
-                "Documento",
-                "Correo",
-                "Usuario",
-                "Correo Institucional",
-                "Celular",
-                "Pais",
-                "Foto",
-                "Religión",
-                "Fecha de nacimiento",
-                "Fecha de matrícula"
-        };
-
-        for (int i = 0; i < columnas.length; i++) {
-            Cell cell = headerRow.createCell(i);
-            cell.setCellValue(columnas[i]);
-            cell.setCellStyle(headerStyle);
-        }
-    }
-
-    /**
-     * Llenar una fila con datos de matrícula
-     */
-    private void llenarFila(Row row, Matricula m, CellStyle textStyle,
-                            CellStyle dateStyle, CellStyle dateTimeStyle) {
-        int colNum = 0;
-
-        // Modo contrato
-        createCell(row, colNum++, m.getModoContrato(), textStyle);
-
-        // Modalidad estudio
-        createCell(row, colNum++, m.getModalidadEstudio(), textStyle);
-
-        // Sede
-        createCell(row, colNum++, m.getSede() != null ? m.getSede().getNombre() : "", textStyle);
-
-        // Unidad académica (Facultad)
-        createCell(row, colNum++, m.getFacultad() != null ? m.getFacultad().getNombre() : "", textStyle);
-
-        // Programa estudio
-        createCell(row, colNum++, m.getProgramaEstudio() != null ? m.getProgramaEstudio().getNombre() : "", textStyle);
-
-        // Ciclo
-        createCell(row, colNum++, m.getCiclo(), textStyle);
-
-        // Grupo
-        createCell(row, colNum++, m.getGrupo(), textStyle);
-
-        // id_persona
-        createCell(row, colNum++, m.getPersona() != null ? m.getPersona().getIdPersona().toString() : "", textStyle);
-
-        // Código estudiante
-        createCell(row, colNum++, m.getPersona() != null ? m.getPersona().getCodigoEstudiante() : "", textStyle);
-
-        // Estudiante (nombre completo)
-        createCell(row, colNum++, m.getPersona() != null ? m.getPersona().getNombreCompleto() : "", textStyle);
-
-        // Documento
-        createCell(row, colNum++, m.getPersona() != null ? m.getPersona().getDocumento() : "", textStyle);
-
-        // Correo
-        createCell(row, colNum++, m.getPersona() != null ? m.getPersona().getCorreo() : "", textStyle);
-
-        // Usuario
-        createCell(row, colNum++, m.getPersona() != null && m.getPersona().getUsuario() != null ?
-                m.getPersona().getUsuario().getUser() : "", textStyle);
-
-        // Correo Institucional
-        createCell(row, colNum++, m.getPersona() != null ? m.getPersona().getCorreoInstitucional() : "", textStyle);
-
-        // Celular
-        createCell(row, colNum++, m.getPersona() != null ? m.getPersona().getCelular() : "", textStyle);
-
-        // País
-        createCell(row, colNum++, m.getPersona() != null ? m.getPersona().getPais() : "", textStyle);
-
-        // Foto
-        createCell(row, colNum++, m.getPersona() != null ? m.getPersona().getFoto() : "", textStyle);
-
-        // Religión
-        createCell(row, colNum++, m.getPersona() != null ? m.getPersona().getReligion() : "", textStyle);
-
-        // Fecha de nacimiento (solo fecha)
-        if (m.getPersona() != null && m.getPersona().getFechaNacimiento() != null) {
-            Cell cell = row.createCell(colNum++);
-            cell.setCellValue(m.getPersona().getFechaNacimiento().format(DATE_FORMATTER));
-            cell.setCellStyle(dateStyle);
-        } else {
-            createCell(row, colNum++, "", textStyle);
-        }
-
-        // Fecha de matrícula (con hora)
-        if (m.getFechaMatricula() != null) {
-            Cell cell = row.createCell(colNum++);
-            cell.setCellValue(m.getFechaMatricula().format(DATETIME_FORMATTER));
-            cell.setCellStyle(dateTimeStyle);
-        } else {
-            createCell(row, colNum++, "", textStyle);
-        }
-    }
-
-    /**
-     * Crear celda con valor y estilo
-     */
-    private void createCell(Row row, int column, String value, CellStyle style) {
-        Cell cell = row.createCell(column);
-        cell.setCellValue(value != null ? value : "");
-        cell.setCellStyle(style);
-    }
-
-    /**
-     * Estilo para encabezado
-     */
-    private CellStyle createHeaderStyle(Workbook workbook) {
-        CellStyle style = workbook.createCellStyle();
-        Font font = workbook.createFont();
-        font.setBold(true);
-        font.setFontHeightInPoints((short) 11);
-        font.setColor(IndexedColors.WHITE.getIndex());
-        style.setFont(font);
-
-        style.setFillForegroundColor(IndexedColors.DARK_BLUE.getIndex());
-        style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-
-        style.setBorderBottom(BorderStyle.THIN);
-        style.setBorderTop(BorderStyle.THIN);
-        style.setBorderLeft(BorderStyle.THIN);
-        style.setBorderRight(BorderStyle.THIN);
-
-        style.setAlignment(HorizontalAlignment.CENTER);
-        style.setVerticalAlignment(VerticalAlignment.CENTER);
-
-        return style;
-    }
-
-    /**
-     * Estilo para celdas de texto
-     */
-    private CellStyle createTextStyle(Workbook workbook) {
-        CellStyle style = workbook.createCellStyle();
-        style.setBorderBottom(BorderStyle.THIN);
-        style.setBorderTop(BorderStyle.THIN);
-        style.setBorderLeft(BorderStyle.THIN);
-        style.setBorderRight(BorderStyle.THIN);
-        style.setVerticalAlignment(VerticalAlignment.CENTER);
-        return style;
-    }
-
-    /**
-     * Estilo para fechas (sin hora)
+     * Llenar una fila con datos de matrícula: mismos textos que el CSV, pero el id de persona
+     * como número y las fechas como fechas de Excel
      */
-    private CellStyle createDateStyle(Workbook workbook) {
-        CellStyle style = workbook.createCellStyle();
-        style.setBorderBottom(BorderStyle.THIN);
-        style.setBorderTop(BorderStyle.THIN);
-        style.setBorderLeft(BorderStyle.THIN);
-        style.setBorderRight(BorderStyle.THIN);
-        style.setVerticalAlignment(VerticalAlignment.CENTER);
-        return style;
-    }
-
-    /**
-     * Estilo para fechas con hora
-     */
-    private CellStyle createDateTimeStyle(Workbook workbook) {
-        CellStyle style = workbook.createCellStyle();
-        style.setBorderBottom(BorderStyle.THIN);
-        style.setBorderTop(BorderStyle.THIN);
-        style.setBorderLeft(BorderStyle.THIN);
-        style.setBorderRight(BorderStyle.THIN);
-        style.setVerticalAlignment(VerticalAlignment.CENTER);
-        return style;
-    }
-
-    /**
-     * Ajustar ancho de columnas automáticamente
-     */
-    private void ajustarAnchoColumnas(Sheet sheet) {
-        for (int i = 0; i < 20; i++) {
-            sheet.autoSizeColumn(i);
-            // Añadir un poco de padding extra
-            int currentWidth = sheet.getColumnWidth(i);
-            sheet.setColumnWidth(i, currentWidth + 1000);
+    private void llenarFila(EscritorExcel escritor, Matricula m, String[] textos) {
+        ColumnasExportacion.textos(m, textos);
+        Persona p = m.getPersona();
+        for (int i = 0; i < textos.length; i++) {
+            if (i == ColumnasExportacion.ID_PERSONA) {
+                escritor.numero(i, p != null ? p.getIdPersona() : null);
+            } else if (i == ColumnasExportacion.FECHA_NACIMIENTO) {
+                escritor.fecha(i, p != null ? p.getFechaNacimiento() : null);
+            } else if (i == ColumnasExportacion.FECHA_MATRICULA) {
+                escritor.fechaHora(i, m.getFechaMatricula());
+            } else {
+                escritor.texto(i, textos[i]);
+            }
         }
     }
-}
\ No newline at end of file
+}
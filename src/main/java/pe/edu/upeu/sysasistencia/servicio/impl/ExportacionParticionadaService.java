@@ -0,0 +1,201 @@
+package pe.edu.upeu.sysasistencia.servicio.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import pe.edu.upeu.sysasistencia.dtos.ParticionExportacionDTO;
+import pe.edu.upeu.sysasistencia.modelo.Matricula;
+import pe.edu.upeu.sysasistencia.modelo.ParticionExportacion;
+import pe.edu.upeu.sysasistencia.modelo.TipoPersona;
+import pe.edu.upeu.sysasistencia.repositorio.IMatriculaRepository;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Exportación de toda la universidad partida por programa o sede: cada parte es un libro
+ * Excel propio generado en un pool acotado (cada una con su cursor y su conexión), y el .zip
+ * final se arma a medida que las partes terminan. Las partes más grandes se encolan primero
+ * para que la más lenta no quede sola al final.
+ */
+@Slf4j
+@Service
+public class ExportacionParticionadaService {
+    private final IMatriculaRepository repo;
+    private final ExcelExportService excelExportService;
+    private final int paralelismo;
+    private ExecutorService pool;
+
+    public ExportacionParticionadaService(
+            IMatriculaRepository repo,
+            ExcelExportService excelExportService,
+            @Value("${exportacion.particiones.paralelismo:4}") int paralelismo) {
+        this.repo = repo;
+        this.excelExportService = excelExportService;
+        this.paralelismo = Math.max(1, paralelismo);
+    }
+
+    @PostConstruct
+    public void iniciarPool() {
+        AtomicInteger contador = new AtomicInteger();
+        pool = Executors.newFixedThreadPool(paralelismo,
+                r -> new Thread(r, "exportacion-particion-" + contador.incrementAndGet()));
+    }
+
+    @PreDestroy
+    public void detenerPool() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Escribe en out un .zip con un .xlsx por parte. No cierra out.
+     */
+    public int exportarZip(ParticionExportacion particion, Long sedeId, Long facultadId, Long programaId,
+                           TipoPersona tipoPersona, OutputStream out) throws Exception {
+        List<ParticionExportacionDTO> partes = particion == ParticionExportacion.SEDE
+                ? repo.contarPorSede(sedeId, facultadId, programaId, tipoPersona)
+                : repo.contarPorPrograma(sedeId, facultadId, programaId, tipoPersona);
+        if (partes.isEmpty()) {
+            throw new Exception("No hay registros para exportar con los filtros aplicados");
+        }
+
+        Temporales temporales = new Temporales();
+        CompletionService<ParteGenerada> completadas = new ExecutorCompletionService<>(pool);
+        List<Future<ParteGenerada>> futuros = new ArrayList<>(partes.size());
+        try {
+            for (ParticionExportacionDTO parte : partes) {
+                Long sede = particion == ParticionExportacion.SEDE ? parte.getId() : sedeId;
+                Long programa = particion == ParticionExportacion.PROGRAMA ? parte.getId() : programaId;
+                futuros.add(completadas.submit(() -> new ParteGenerada(parte,
+                        generarParte(temporales, sede, facultadId, programa, tipoPersona))));
+            }
+
+            // Los .xlsx ya vienen comprimidos: el zip solo los agrupa
+            ZipOutputStream zip = new ZipOutputStream(out);
+            zip.setLevel(Deflater.NO_COMPRESSION);
+            Set<String> nombres = new HashSet<>();
+            for (int i = 0; i < partes.size(); i++) {
+                ParteGenerada generada = esperar(completadas.take());
+                zip.putNextEntry(new ZipEntry(nombreEntrada(generada.parte(), nombres)));
+                Files.copy(generada.archivo(), zip);
+                zip.closeEntry();
+                temporales.borrar(generada.archivo());
+            }
+            zip.finish();
+            log.info("Exportación por {} generada con {} partes", particion, partes.size());
+            return partes.size();
+        } finally {
+            futuros.forEach(f -> f.cancel(true));
+            temporales.cancelar();
+        }
+    }
+
+    private Path generarParte(Temporales temporales, Long sedeId, Long facultadId, Long programaId,
+                              TipoPersona tipoPersona) throws Exception {
+        Path archivo = temporales.crear();
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(archivo), 64 * 1024);
+             Stream<Matricula> matriculas = repo.streamByFiltros(sedeId, facultadId, programaId, tipoPersona)) {
+            excelExportService.exportarMatriculasAExcel(temporales.hastaCancelar(matriculas.iterator()), out);
+        } catch (Exception e) {
+            temporales.borrar(archivo);
+            throw e;
+        }
+        return archivo;
+    }
+
+    private static ParteGenerada esperar(Future<ParteGenerada> futuro) throws Exception {
+        try {
+            return futuro.get();
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof Exception ex) throw ex;
+            throw e;
+        }
+    }
+
+    private static String nombreEntrada(ParticionExportacionDTO parte, Set<String> usados) {
+        String base = parte.getNombre() != null
+                ? parte.getNombre().replaceAll("[\\\\/:*?\"<>|]", "_").trim() : "";
+        if (base.isEmpty()) base = "Matriculas_" + parte.getId();
+        String nombre = base + ".xlsx";
+        for (int n = 2; !usados.add(nombre); n++) {
+            nombre = base + " (" + n + ").xlsx";
+        }
+        return nombre;
+    }
+
+    private record ParteGenerada(ParticionExportacionDTO parte, Path archivo) {
+    }
+
+    /**
+     * Temporales de una exportación. Al cancelar se borran los que queden y las partes
+     * que sigan en curso dejan de leer su cursor en la siguiente fila.
+     */
+    private static class Temporales {
+        private final List<Path> archivos = new ArrayList<>();
+        private volatile boolean cancelado;
+
+        synchronized Path crear() throws IOException {
+            if (cancelado) throw new CancellationException("Exportación cancelada");
+            Path archivo = Files.createTempFile("exportacion-parte-", ".xlsx");
+            archivos.add(archivo);
+            return archivo;
+        }
+
+        synchronized void borrar(Path archivo) {
+            archivos.remove(archivo);
+            eliminar(archivo);
+        }
+
+        synchronized void cancelar() {
+            cancelado = true;
+            archivos.forEach(Temporales::eliminar);
+            archivos.clear();
+        }
+
+        <T> Iterator<T> hastaCancelar(Iterator<T> it) {
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    if (cancelado) throw new CancellationException("Exportación cancelada");
+                    return it.hasNext();
+                }
+
+                @Override
+                public T next() {
+                    return it.next();
+                }
+            };
+        }
+
+        private static void eliminar(Path archivo) {
+            try {
+                Files.deleteIfExists(archivo);
+            } catch (IOException e) {
+                log.warn("No se pudo borrar {}: {}", archivo, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package pe.edu.upeu.sysasistencia.servicio.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+import pe.edu.upeu.sysasistencia.dtos.ArtefactoExportacionDTO;
+import pe.edu.upeu.sysasistencia.dtos.ParticionExportacionDTO;
+import pe.edu.upeu.sysasistencia.excepciones.ModelNotFoundException;
+import pe.edu.upeu.sysasistencia.modelo.FormatoExportacion;
+import pe.edu.upeu.sysasistencia.modelo.Matricula;
+import pe.edu.upeu.sysasistencia.repositorio.IMatriculaRepository;
+import pe.edu.upeu.sysasistencia.servicio.impl.exportacion.ArchivoExportacion;
+import pe.edu.upeu.sysasistencia.servicio.impl.exportacion.VersionDatosExportacion;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Genera en segundo plano los conjuntos de exportación configurados y los deja en disco como
+ * artefactos versionados, para que en horas pico la descarga sea solo leer un archivo.
+ * <p>
+ * exportacion.programada.conjuntos es una lista de formato[:sede] (xlsx, csv, arrow); con :sede
+ * se genera un archivo por sede. exportacion.programada.cron (expresión cron de Spring, vacía =
+ * solo a pedido) indica cuándo. Se genera en un único hilo de prioridad mínima, un conjunto a la vez,
+ * y se omite la ejecución si los datos no cambiaron desde la anterior. De cada conjunto se
+ * conservan las últimas exportacion.programada.versiones versiones; el índice es el propio
+ * directorio, así que los artefactos siguen disponibles tras reiniciar.
+ */
+@Slf4j
+@Service
+public class ExportacionProgramadaService {
+    private static final String SEPARADOR = "__";
+    private static final String PENDIENTE = ".pendiente";
+    private static final DateTimeFormatter FORMATO_VERSION = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmssSSS");
+    private static final int LARGO_FECHA_VERSION = 18;
+
+    private final IMatriculaRepository repo;
+    private final ExcelExportService excelExportService;
+    private final CsvExportService csvExportService;
+    private final ArrowExportService arrowExportService;
+    private final VersionDatosExportacion versionDatos;
+    private final List<Conjunto> conjuntos;
+    private final CronExpression cron;
+    private final Path directorio;
+    private final int versiones;
+    private ScheduledExecutorService executor;
+    private volatile long versionGenerada = -1;
+    private String ultimaFechaVersion = "";
+    private int secuencia;
+
+    public ExportacionProgramadaService(
+            IMatriculaRepository repo,
+            ExcelExportService excelExportService,
+            CsvExportService csvExportService,
+            ArrowExportService arrowExportService,
+            VersionDatosExportacion versionDatos,
+            @Value("${exportacion.programada.conjuntos:xlsx,xlsx:sede}") List<String> conjuntos,
+            @Value("${exportacion.programada.cron:}") String cron,
+            @Value("${exportacion.programada.directorio:}") String directorio,
+            @Value("${exportacion.programada.versiones:3}") int versiones) {
+        this.repo = repo;
+        this.excelExportService = excelExportService;
+        this.csvExportService = csvExportService;
+        this.arrowExportService = arrowExportService;
+        this.versionDatos = versionDatos;
+        this.conjuntos = conjuntos.stream().filter(c -> !c.isBlank()).map(Conjunto::de).toList();
+        this.cron = cron.isBlank() ? null : CronExpression.parse(cron);
+        this.directorio = directorio.isBlank()
+                ? Path.of(System.getProperty("java.io.tmpdir"), "sysasistencia-exportaciones-programadas")
+                : Path.of(directorio);
+        this.versiones = Math.max(1, versiones);
+    }
+
+    @PostConstruct
+    public void iniciar() throws IOException {
+        Files.createDirectories(directorio);
+        // Generaciones cortadas por un reinicio
+        try (DirectoryStream<Path> pendientes = Files.newDirectoryStream(directorio, "*" + PENDIENTE)) {
+            for (Path pendiente : pendientes) {
+                borrar(pendiente);
+            }
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "exportacion-programada");
+            hilo.setPriority(Thread.MIN_PRIORITY);
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        if (cron != null) {
+            programarSiguiente();
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Encola una generación de todos los conjuntos aunque los datos no hayan cambiado
+     */
+    public void generarAhora() {
+        executor.execute(() -> generarTodo(true));
+    }
+
+    /**
+     * Artefactos en disco, del más reciente al más antiguo
+     */
+    public List<ArtefactoExportacionDTO> listar() throws IOException {
+        List<ArtefactoExportacionDTO> artefactos = new ArrayList<>();
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorio, "*" + SEPARADOR + "*")) {
+            for (Path archivo : archivos) {
+                artefacto(archivo).ifPresent(artefactos::add);
+            }
+        }
+        artefactos.sort(Comparator.comparing(ArtefactoExportacionDTO::getVersion).reversed()
+                .thenComparing(ArtefactoExportacionDTO::getConjunto));
+        return artefactos;
+    }
+
+    /**
+     * La versión pedida del conjunto, o la más reciente si version es null
+     */
+    public ArtefactoExportacionDTO buscar(String conjunto, String version) throws IOException {
+        return listar().stream()
+                .filter(a -> a.getConjunto().equals(conjunto) && (version == null || a.getVersion().equals(version)))
+                .findFirst()
+                .orElseThrow(() -> new ModelNotFoundException("No hay exportación programada " + conjunto
+                        + (version != null ? " con versión " + version : "")));
+    }
+
+    /**
+     * Abre el artefacto para enviarlo; el llamador lo cierra
+     */
+    public ArchivoExportacion abrir(ArtefactoExportacionDTO artefacto) throws IOException {
+        Path archivo = directorio.resolve(nombreArchivo(artefacto.getConjunto(), artefacto.getVersion(),
+                artefacto.getFormato()));
+        try {
+            return new ArchivoExportacion(FileChannel.open(archivo, StandardOpenOption.READ), etag(artefacto),
+                    artefacto.getTamano(), artefacto.getGenerado());
+        } catch (NoSuchFileException e) {
+            throw new ModelNotFoundException("La versión " + artefacto.getVersion() + " de " + artefacto.getConjunto()
+                    + " ya no está disponible");
+        }
+    }
+
+    public static String etag(ArtefactoExportacionDTO artefacto) {
+        return "\"" + artefacto.getConjunto() + "-" + artefacto.getVersion() + "\"";
+    }
+
+    void generarTodo(boolean forzar) {
+        long version = versionDatos.actual();
+        if (!forzar && version == versionGenerada) {
+            log.info("Exportaciones programadas omitidas: los datos no cambiaron");
+            return;
+        }
+        boolean completas = true;
+        for (Conjunto conjunto : conjuntos) {
+            try {
+                if (conjunto.porSede()) {
+                    for (ParticionExportacionDTO sede : repo.contarPorSede(null, null, null, null)) {
+                        generar(conjunto.formato(), conjunto.nombre() + "-sede-" + sede.getId(), sede.getId());
+                    }
+                } else {
+                    generar(conjunto.formato(), conjunto.nombre(), null);
+                }
+            } catch (Exception e) {
+                completas = false;
+                log.error("Error al generar la exportación programada {}: {}", conjunto.nombre(), e.getMessage(), e);
+            }
+            if (Thread.currentThread().isInterrupted()) return;
+        }
+        if (completas) versionGenerada = version;
+    }
+
+    private void generar(FormatoExportacion formato, String conjunto, Long sedeId) throws Exception {
+        long inicio = System.nanoTime();
+        LocalDateTime generado = LocalDateTime.now();
+        String nombre = nombreArchivo(conjunto, nuevaVersion(generado), formato);
+        Path pendiente = directorio.resolve(nombre + PENDIENTE);
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(pendiente), 64 * 1024)) {
+            escribir(formato, sedeId, out);
+        } catch (Exception e) {
+            borrar(pendiente);
+            throw e;
+        }
+        // Aparece completo o no aparece
+        Files.move(pendiente, directorio.resolve(nombre), StandardCopyOption.ATOMIC_MOVE);
+        log.info("Exportación programada {} generada en {} ms", nombre,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+        podar(conjunto);
+    }
+
+    /**
+     * Fecha de generación más una secuencia que distingue las versiones del mismo milisegundo;
+     * sin ella la segunda reemplazaría a la primera al moverla
+     */
+    private synchronized String nuevaVersion(LocalDateTime generado) {
+        String fecha = generado.format(FORMATO_VERSION);
+        secuencia = fecha.equals(ultimaFechaVersion) ? secuencia + 1 : 0;
+        ultimaFechaVersion = fecha;
+        return fecha + "-" + String.format("%03d", secuencia);
+    }
+
+    private void escribir(FormatoExportacion formato, Long sedeId, OutputStream out) throws Exception {
+        if (formato == FormatoExportacion.ARROW) {
+            arrowExportService.exportar(() -> repo.streamByFiltros(sedeId, null, null, null), out);
+            return;
+        }
+        try (Stream<Matricula> matriculas = repo.streamByFiltros(sedeId, null, null, null)) {
+            if (formato == FormatoExportacion.CSV) {
+                csvExportService.exportar(matriculas, out);
+            } else {
+                excelExportService.exportarMatriculasAExcel(matriculas.iterator(), out);
+            }
+        }
+    }
+
+    /**
+     * Deja solo las últimas versiones del conjunto
+     */
+    private void podar(String conjunto) throws IOException {
+        List<ArtefactoExportacionDTO> anteriores = listar().stream()
+                .filter(a -> a.getConjunto().equals(conjunto))
+                .skip(versiones)
+                .toList();
+        for (ArtefactoExportacionDTO anterior : anteriores) {
+            borrar(directorio.resolve(nombreArchivo(anterior.getConjunto(), anterior.getVersion(), anterior.getFormato())));
+        }
+    }
+
+    private void programarSiguiente() {
+        LocalDateTime ahora = LocalDateTime.now();
+        LocalDateTime siguiente = cron.next(ahora);
+        if (siguiente == null) return;
+        executor.schedule(() -> {
+            try {
+                generarTodo(false);
+            } finally {
+                if (!executor.isShutdown()) programarSiguiente();
+            }
+        }, Duration.between(ahora, siguiente).toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Próximas exportaciones programadas: {}", siguiente);
+    }
+
+    private Optional<ArtefactoExportacionDTO> artefacto(Path archivo) throws IOException {
+        String nombre = archivo.getFileName().toString();
+        int separador = nombre.lastIndexOf(SEPARADOR);
+        int punto = nombre.lastIndexOf('.');
+        if (separador <= 0 || punto < separador) return Optional.empty();
+        String extension = nombre.substring(punto);
+        String version = nombre.substring(separador + SEPARADOR.length(), punto);
+        if (version.length() < LARGO_FECHA_VERSION || !version.substring(LARGO_FECHA_VERSION).matches("(-\\d+)?")) {
+            return Optional.empty();
+        }
+        for (FormatoExportacion formato : FormatoExportacion.values()) {
+            if (!formato.getExtension().equals(extension)) continue;
+            try {
+                LocalDateTime generado = LocalDateTime.parse(version.substring(0, LARGO_FECHA_VERSION), FORMATO_VERSION);
+                return Optional.of(new ArtefactoExportacionDTO(nombre.substring(0, separador), version, formato,
+                        Files.size(archivo), generado));
+            } catch (DateTimeParseException | NoSuchFileException e) {
+                return Optional.empty();
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static String nombreArchivo(String conjunto, String version, FormatoExportacion formato) {
+        return conjunto + SEPARADOR + version + formato.getExtension();
+    }
+
+    private static void borrar(Path archivo) {
+        try {
+            Files.deleteIfExists(archivo);
+        } catch (IOException e) {
+            log.warn("No se pudo borrar {}: {}", archivo, e.getMessage());
+        }
+    }
+
+    /**
+     * Un elemento de exportacion.programada.conjuntos: formato y si va un archivo por sede
+     */
+    record Conjunto(FormatoExportacion formato, boolean porSede) {
+        static Conjunto de(String definicion) {
+            String[] partes = definicion.trim().split(":");
+            boolean porSede = partes.length > 1 && partes[1].trim().equalsIgnoreCase("sede");
+            if (partes.length > 2 || (partes.length == 2 && !porSede)) {
+                throw new IllegalArgumentException("Conjunto de exportación inválido: " + definicion);
+            }
+            return new Conjunto(FormatoExportacion.valueOf(partes[0].trim().toUpperCase()), porSede);
+        }
+
+        String nombre() {
+            return formato.name().toLowerCase();
+        }
+    }
+}
@@ -1,32 +1,72 @@
 package pe.edu.upeu.sysasistencia.servicio.impl;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
+import pe.edu.upeu.sysasistencia.dtos.ColumnaVistaPreviaDTO;
+import pe.edu.upeu.sysasistencia.dtos.FilaVistaPreviaDTO;
+import pe.edu.upeu.sysasistencia.dtos.HuellaPersonaDTO;
 import pe.edu.upeu.sysasistencia.dtos.ImportFilterDTO;
 import pe.edu.upeu.sysasistencia.dtos.ImportResultDTO;
+import pe.edu.upeu.sysasistencia.dtos.MatriculaExcelDTO;
+import pe.edu.upeu.sysasistencia.dtos.VistaPreviaImportacionDTO;
+import pe.edu.upeu.sysasistencia.excepciones.ArchivoDemasiadoGrandeException;
 import pe.edu.upeu.sysasistencia.modelo.*;
 import pe.edu.upeu.sysasistencia.repositorio.ICrudGenericoRepository;
+import pe.edu.upeu.sysasistencia.repositorio.IImportacionCheckpointRepository;
 import pe.edu.upeu.sysasistencia.repositorio.IMatriculaRepository;
 import pe.edu.upeu.sysasistencia.repositorio.IUsuarioRepository;
 import pe.edu.upeu.sysasistencia.servicio.*;
-
-import java.io.InputStream;
-import java.time.LocalDate;
+import pe.edu.upeu.sysasistencia.servicio.impl.exportacion.ArchivoExportacion;
+import pe.edu.upeu.sysasistencia.servicio.impl.importacion.ColumnaMatricula;
+import pe.edu.upeu.sysasistencia.servicio.impl.importacion.EsquemaImportacion;
+import pe.edu.upeu.sysasistencia.servicio.impl.importacion.EventoImportacion;
+import pe.edu.upeu.sysasistencia.servicio.impl.importacion.FilaFuente;
+import pe.edu.upeu.sysasistencia.servicio.impl.importacion.FilaLeida;
+import pe.edu.upeu.sysasistencia.servicio.impl.importacion.HuellaArchivo;
+import pe.edu.upeu.sysasistencia.servicio.impl.importacion.HuellaFila;
+import pe.edu.upeu.sysasistencia.servicio.impl.importacion.ImportacionEnCurso;
+import pe.edu.upeu.sysasistencia.servicio.impl.importacion.LectorFilas;
+import pe.edu.upeu.sysasistencia.servicio.impl.importacion.CodigoErrorImportacion;
+import pe.edu.upeu.sysasistencia.servicio.impl.importacion.ReporteErrores;
+import pe.edu.upeu.sysasistencia.servicio.impl.importacion.ResultadoBloque;
+import pe.edu.upeu.sysasistencia.servicio.impl.importacion.ResultadoFila;
+import pe.edu.upeu.sysasistencia.servicio.impl.importacion.UnidadImportacion;
+import pe.edu.upeu.sysasistencia.servicio.impl.importacion.ValidadorFila;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -42,23 +82,54 @@ public class MatriculaServiceImp extends CrudGenericoServiceImp<Matricula, Long>
     private final IRolService rolService;
     private final IUsuarioRolService usuarioRolService;
     private final PasswordEncoder passwordEncoder;
+    private final IImportacionCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Máximo de filas por transacción (y por checkpoint); el control de carga lo reduce si hay congestión
+    @Value("${importacion.tamano-bloque:500}")
+    private int tamanoBloque;
+
+    // Hojas/archivos que se importan a la vez (cada una usa una conexión por bloque)
+    @Value("${importacion.unidades.paralelismo:4}")
+    private int paralelismoUnidades;
+
+    // Desde este tamaño de sharedStrings.xml los textos compartidos de un .xlsx van a disco
+    @Value("${importacion.xlsx.textos-en-disco-desde:16777216}")
+    private long umbralTextosEnDisco;
+
+    // Límites al extraer un zip: el total extraído usa el mismo tope que una carga
+    @Value("${importacion.carga.max-bytes:2147483647}")
+    private long maxBytesZip;
+
+    @Value("${importacion.zip.max-entradas:1000}")
+    private int maxEntradasZip;
+
+    // Tope de filas de la vista previa
+    @Value("${importacion.vista-previa.max-filas:500}")
+    private int maxFilasVistaPrevia;
 
-    // Formateadores para parsear fechas con hora
-    private static final DateTimeFormatter[] DATE_TIME_FORMATTERS = {
-            DateTimeFormatter.ofPattern("dd/MM/yyyy h:mm a", Locale.forLanguageTag("es")),
-            DateTimeFormatter.ofPattern("dd/MM/yyyy hh:mm a", Locale.forLanguageTag("es")),
-            DateTimeFormatter.ofPattern("dd/MM/yyyy H:mm", Locale.forLanguageTag("es")),
-            DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm", Locale.forLanguageTag("es")),
-            DateTimeFormatter.ofPattern("dd-MM-yyyy h:mm a", Locale.forLanguageTag("es")),
-            DateTimeFormatter.ofPattern("dd-MM-yyyy H:mm", Locale.forLanguageTag("es"))
-    };
-
-    // Formateadores para parsear solo fechas
-    private static final DateTimeFormatter[] DATE_FORMATTERS = {
-            DateTimeFormatter.ofPattern("dd/MM/yyyy"),
-            DateTimeFormatter.ofPattern("dd-MM-yyyy"),
-            DateTimeFormatter.ofPattern("yyyy-MM-dd")
-    };
+    private ExecutorService poolUnidades;
+    private TransactionTemplate transaccionNueva;
+
+    // Serializa la creación de sedes, facultades y programas entre unidades concurrentes
+    private final Object bloqueoReferencias = new Object();
+
+    @PostConstruct
+    public void iniciarPoolUnidades() {
+        AtomicInteger contador = new AtomicInteger();
+        poolUnidades = Executors.newFixedThreadPool(Math.max(1, paralelismoUnidades),
+                r -> new Thread(r, "importacion-unidad-" + contador.incrementAndGet()));
+        transaccionNueva = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        transaccionNueva.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PreDestroy
+    public void detenerPoolUnidades() {
+        poolUnidades.shutdown();
+    }
 
     @Override
     protected ICrudGenericoRepository<Matricula, Long> getRepo() {
@@ -75,189 +146,697 @@ public class MatriculaServiceImp extends CrudGenericoServiceImp<Matricula, Long>
         return repo.findByFiltros(sedeId, facultadId, programaId, tipoPersona);
     }
 
+    /**
+     * Sin transacción envolvente: cada bloque de filas se confirma en su propia transacción
+     * junto con su checkpoint, así una caída solo pierde el bloque en curso.
+     */
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ImportResultDTO importarDesdeExcel(MultipartFile file, ImportFilterDTO filtros) throws Exception {
+        Path temporal = volcarATemporal(file);
+        try {
+            return importar(temporal, file.getOriginalFilename(), filtros);
+        } finally {
+            eliminarTemporal(temporal);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ImportResultDTO simularImportacion(MultipartFile file, ImportFilterDTO filtros) throws Exception {
+        Path temporal = volcarATemporal(file);
+        try {
+            return procesarArchivo(temporal, file.getOriginalFilename(), filtros, true, null, null, null);
+        } finally {
+            eliminarTemporal(temporal);
+        }
+    }
+
+    /**
+     * Lee solo el encabezado y las primeras filas con el mismo lector y esquema de la importación;
+     * no recorre el resto del archivo ni consulta personas existentes.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public VistaPreviaImportacionDTO previsualizarImportacion(MultipartFile file, ImportFilterDTO filtros, int filas) throws Exception {
+        if (UnidadImportacion.esZip(file.getOriginalFilename())) {
+            throw new Exception("La vista previa no admite archivos .zip: envíe el libro o el CSV directamente");
+        }
+        Path temporal = volcarATemporal(file);
+        try {
+            return previsualizar(UnidadImportacion.unica(temporal, file.getOriginalFilename()), filtros,
+                    Math.max(1, Math.min(filas, maxFilasVistaPrevia)));
+        } finally {
+            eliminarTemporal(temporal);
+        }
+    }
+
+    /**
+     * El archivo pertenece al llamador (no se elimina aquí)
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ImportResultDTO importarDesdeArchivo(Path archivo, String nombreArchivo, ImportFilterDTO filtros) throws Exception {
+        return importar(archivo, nombreArchivo, filtros);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ImportResultDTO simularImportacion(Path archivo, String nombreArchivo, ImportFilterDTO filtros) throws Exception {
+        return procesarArchivo(archivo, nombreArchivo, filtros, true, null, null, null);
+    }
+
+    private ImportResultDTO importar(Path archivo, String nombreArchivo, ImportFilterDTO filtros) throws Exception {
+        // Mismo archivo y filtros: se devuelve el resultado guardado o se espera la importación en curso
+        String hash = HuellaArchivo.sha256(archivo);
+        String clave = HuellaArchivo.clave(hash, filtros);
+        return resultadosImportacion.obtenerOEjecutar(clave, filtros.isForzar(), () -> {
+            ImportacionEnCurso importacion = registroImportaciones.iniciar(nombreArchivo);
+            try {
+                ImportResultDTO result = procesarArchivo(archivo, nombreArchivo, filtros, false, clave, hash, importacion);
+                registroImportaciones.completar(importacion, result);
+                return result;
+            } catch (Exception e) {
+                registroImportaciones.fallar(importacion, e);
+                throw e;
+            }
+        });
+    }
+
+    /**
+     * La subida se vuelca a disco: se lee desde el archivo y se calcula su huella sin copiarla a memoria
+     */
+    private Path volcarATemporal(MultipartFile file) throws Exception {
+        Path temporal = null;
+        try {
+            temporal = Files.createTempFile("importacion-", extensionTemporal(file.getOriginalFilename()));
+            file.transferTo(temporal);
+            return temporal;
+        } catch (IOException e) {
+            eliminarTemporal(temporal);
+            throw new Exception("Error al procesar el archivo: " + e.getMessage());
+        }
+    }
+
+    /**
+     * importacion es null al simular
+     */
+    private ImportResultDTO procesarArchivo(Path temporal, String nombreArchivo, ImportFilterDTO filtros, boolean simular,
+                                            String clave, String hash, ImportacionEnCurso importacion) throws Exception {
+        try {
+            if (filtros.isMultiple() || UnidadImportacion.esZip(nombreArchivo)) {
+                return procesarUnidades(temporal, nombreArchivo, filtros, simular, clave, hash, importacion);
+            }
+            return procesarUnidad(UnidadImportacion.unica(temporal, nombreArchivo), filtros, simular, clave, hash, importacion);
+        } catch (ArchivoDemasiadoGrandeException e) {
+            // Se conserva el tipo para responder 413 en vez de 500
+            throw e;
+        } catch (Exception e) {
+            throw new Exception("Error al procesar el archivo: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Importa una hoja o un CSV/TSV
+     */
+    private ImportResultDTO procesarUnidad(UnidadImportacion unidad, ImportFilterDTO filtros, boolean simular,
+                                           String clave, String hash, ImportacionEnCurso importacion) throws Exception {
         ImportResultDTO result = new ImportResultDTO();
         result.setTotalRegistros(0);
         result.setExitosos(0);
         result.setFallidos(0);
+        result.setSimulacion(simular);
+
+        TipoPersona tipoPersona = tipoPersonaPorDefecto(filtros);
+
+        log.info("Iniciando {} de {} con filtros: Sede={}, Facultad={}, Programa={}, TipoPersona={}, Modo={}",
+                simular ? "simulación de importación" : "importación", unidad.getNombre(),
+                filtros.getSedeId(), filtros.getFacultadId(), filtros.getProgramaId(), tipoPersona, filtros.getModo());
+
+        try (LectorFilas lector = unidad.abrir(umbralTextosEnDisco)) {
+            EsquemaImportacion esquema = compilarEsquema(lector, result);
+            if (esquema != null) {
+                ValidadorFila validador = crearValidador(filtros, tipoPersona);
+                if (simular) {
+                    simulacionService.simular(lector, esquema, validador, result);
+                } else {
+                    importarFilas(lector, esquema, validador, result, unidad.clave(clave), hash, unidad.getNombre(), importacion);
+                }
+            }
+        }
 
-        TipoPersona tipoPersona = filtros.esEstudiante() ? TipoPersona.ESTUDIANTE : TipoPersona.INVITADO;
+        log.info("{} de {} completada. Total: {}, Exitosos: {}, Fallidos: {}",
+                simular ? "Simulación" : "Importación", unidad.getNombre(),
+                result.getTotalRegistros(), result.getExitosos(), result.getFallidos());
+
+        return result;
+    }
+
+    private TipoPersona tipoPersonaPorDefecto(ImportFilterDTO filtros) {
         if (filtros.getTipoPersona() != null) {
-            tipoPersona = filtros.getTipoPersona();
+            return filtros.getTipoPersona();
         }
+        return filtros.esEstudiante() ? TipoPersona.ESTUDIANTE : TipoPersona.INVITADO;
+    }
 
-        try (InputStream is = file.getInputStream();
-             Workbook workbook = new XSSFWorkbook(is)) {
+    private VistaPreviaImportacionDTO previsualizar(UnidadImportacion unidad, ImportFilterDTO filtros, int filas) throws Exception {
+        VistaPreviaImportacionDTO vista = new VistaPreviaImportacionDTO();
+        vista.setNombreArchivo(unidad.getNombre());
+
+        try (LectorFilas lector = unidad.abrir(umbralTextosEnDisco)) {
+            EsquemaImportacion esquema = EsquemaImportacion.compilar(lector.encabezado());
+            vista.setPosicional(esquema.isPosicional());
+
+            ColumnaMatricula[] asignadas = new ColumnaMatricula[esquema.getEncabezados().size()];
+            esquema.getMapeo().forEach((columna, indice) -> {
+                if (indice < asignadas.length) asignadas[indice] = columna;
+            });
+            for (int i = 0; i < asignadas.length; i++) {
+                ColumnaMatricula columna = asignadas[i];
+                vista.getColumnas().add(new ColumnaVistaPreviaDTO(i, esquema.getEncabezados().get(i),
+                        columna != null ? columna.getEncabezado() : null,
+                        columna != null ? columna.getTipo().name() : null));
+            }
+            esquema.getFaltantesObligatorias().forEach(c -> vista.getFaltantesObligatorias().add(c.getEncabezado()));
+            if (esquema.isPosicional()) {
+                vista.getWarnings().add("Encabezado no reconocido - se usó el orden de columnas por defecto");
+            } else if (!esquema.getEncabezadosIgnorados().isEmpty()) {
+                vista.getWarnings().add("Columnas ignoradas: " + esquema.getEncabezadosIgnorados());
+            }
+            if (!vista.getFaltantesObligatorias().isEmpty()) {
+                return vista;
+            }
 
-            Sheet sheet = workbook.getSheetAt(0);
-            if (sheet == null || sheet.getPhysicalNumberOfRows() <= 1) {
-                result.getErrores().add("El archivo Excel está vacío o sin datos");
-                return result;
+            ValidadorFila validador = crearValidador(filtros, tipoPersonaPorDefecto(filtros));
+            while (vista.getFilas().size() < filas && lector.siguiente()) {
+                MatriculaExcelDTO datos = esquema.extraer(lector.fila());
+                vista.getFilas().add(filaVistaPrevia(lector.numeroFila(), datos, validador));
             }
-            int totalRows = sheet.getPhysicalNumberOfRows();
-            result.setTotalRegistros(totalRows - 1);
+            // Basta con leer una fila más: el resto del archivo no se recorre
+            vista.setHayMasFilas(vista.getFilas().size() == filas && lector.siguiente());
+        }
+        return vista;
+    }
 
-            log.info("Iniciando importación con filtros: Sede={}, Facultad={}, Programa={}, TipoPersona={}",
-                    filtros.getSedeId(), filtros.getFacultadId(), filtros.getProgramaId(), tipoPersona);
+    /**
+     * Mismas validaciones sin base de datos que la importación (campos y filtros)
+     */
+    private FilaVistaPreviaDTO filaVistaPrevia(int numeroFila, MatriculaExcelDTO datos, ValidadorFila validador) {
+        ValidadorFila.Resultado validacion = validador.validarCampos(datos);
+        CodigoErrorImportacion error = validacion.getError();
+        if (error == null && validacion.getTipoPersona() == TipoPersona.ESTUDIANTE) {
+            error = validador.validarFiltros(datos);
+        }
+        return new FilaVistaPreviaDTO(numeroFila, validacion.getTipoPersona(),
+                error != null ? error.name() : null, error != null ? error.getMensaje() : null, datos);
+    }
 
-            for (int i = 1; i < totalRows; i++) {
-                Row row = sheet.getRow(i);
-                if (row == null) continue;
+    /**
+     * Cada hoja del libro (o cada archivo del zip) se procesa como unidad independiente en el pool
+     * de unidades; cada una confirma sus propios bloques. Los totales se suman y el detalle
+     * queda por unidad.
+     */
+    private ImportResultDTO procesarUnidades(Path temporal, String nombreArchivo, ImportFilterDTO filtros, boolean simular,
+                                             String clave, String hash, ImportacionEnCurso importacion) throws Exception {
+        Path directorio = Files.createTempDirectory("importacion-unidades-");
+        try {
+            List<UnidadImportacion> unidades = UnidadImportacion.listar(temporal, nombreArchivo, directorio,
+                    maxBytesZip, maxEntradasZip);
+
+            List<Future<ImportResultDTO>> futuros = new ArrayList<>(unidades.size());
+            for (UnidadImportacion unidad : unidades) {
+                futuros.add(poolUnidades.submit(() -> procesarUnidad(unidad, filtros, simular, clave, hash, importacion)));
+            }
 
+            ImportResultDTO result = new ImportResultDTO();
+            result.setSimulacion(simular);
+            for (int i = 0; i < unidades.size(); i++) {
+                ImportResultDTO parcial;
                 try {
-                    procesarFila(row, i + 1, filtros, tipoPersona, result);
-                    result.setExitosos(result.getExitosos() + 1);
-                } catch (Exception e) {
-                    result.setFallidos(result.getFallidos() + 1);
-                    result.getErrores().add("Fila " + (i + 1) + ": " + e.getMessage());
-                    log.error("Error procesando fila {}: {}", i + 1, e.getMessage());
+                    parcial = futuros.get(i).get();
+                } catch (ExecutionException e) {
+                    parcial = new ImportResultDTO();
+                    parcial.setSimulacion(simular);
+                    parcial.getErrores().add("Error al procesar la unidad: " + e.getCause().getMessage());
+                    log.error("Error procesando {}: {}", unidades.get(i).getNombre(), e.getCause().getMessage());
                 }
+                parcial.setUnidad(unidades.get(i).getNombre());
+                result.agregarUnidad(parcial);
             }
 
-            log.info("Importación completada. Total: {}, Exitosos: {}, Fallidos: {}",
-                    result.getTotalRegistros(), result.getExitosos(), result.getFallidos());
+            if (unidades.isEmpty()) {
+                result.getErrores().add("El archivo no contiene hojas ni archivos soportados (.xlsx, .xls, .csv, .tsv)");
+            } else {
+                result.getWarnings().add("Se procesaron " + unidades.size() + " unidades (hojas/archivos) de forma independiente");
+            }
+            return result;
+        } finally {
+            eliminarDirectorio(directorio);
+        }
+    }
 
-        } catch (Exception e) {
-            throw new Exception("Error al procesar el archivo Excel: " + e.getMessage());
+    /**
+     * Compila el mapeo de columnas a partir del encabezado (una sola vez).
+     * Devuelve null si faltan columnas obligatorias.
+     */
+    private EsquemaImportacion compilarEsquema(LectorFilas lector, ImportResultDTO result) throws IOException {
+        EsquemaImportacion esquema = EsquemaImportacion.compilar(lector.encabezado());
+        if (!esquema.getFaltantesObligatorias().isEmpty()) {
+            result.getErrores().add("Faltan columnas obligatorias en el encabezado: " +
+                    esquema.getFaltantesObligatorias().stream().map(ColumnaMatricula::getEncabezado).toList());
+            return null;
+        }
+        if (esquema.isPosicional()) {
+            result.getWarnings().add("Encabezado no reconocido - se usó el orden de columnas por defecto");
+        } else if (!esquema.getEncabezadosIgnorados().isEmpty()) {
+            result.getWarnings().add("Columnas ignoradas: " + esquema.getEncabezadosIgnorados());
         }
+        return esquema;
+    }
 
-        return result;
+    /**
+     * Resuelve una sola vez las entidades de los filtros (antes se consultaban por cada fila)
+     */
+    private ValidadorFila crearValidador(ImportFilterDTO filtros, TipoPersona tipoPersona) {
+        return new ValidadorFila(filtros, tipoPersona,
+                filtros.getSedeId() != null ? sedeService.findById(filtros.getSedeId()) : null,
+                filtros.getFacultadId() != null ? facultadService.findById(filtros.getFacultadId()) : null,
+                filtros.getProgramaId() != null ? programaService.findById(filtros.getProgramaId()) : null);
+    }
+
+    private void importarFilas(LectorFilas lector, EsquemaImportacion esquema, ValidadorFila validador,
+                               ImportResultDTO result, String clave, String hash, String nombreArchivo,
+                               ImportacionEnCurso importacion) throws IOException {
+        ImportacionCheckpoint checkpoint = iniciarCheckpoint(lector, result, clave, hash, nombreArchivo);
+
+        // Los errores se agrupan por código en todo el archivo; se escriben en result al final
+        ResultadoBloque acumulado = new ResultadoBloque();
+        ReporteErrores.Hoja hojaErrores = importacion.getReporteErrores().hoja(nombreArchivo, esquema.getEncabezados());
+        List<FilaLeida> bloque = new ArrayList<>(tamanoBloque);
+        List<EventoImportacion> eventos = new ArrayList<>(tamanoBloque);
+        boolean hayMas = true;
+        while (hayMas) {
+            // El control de carga ajusta el tamaño según la congestión de la base de datos
+            int tamano = controlCarga.tamanoBloque();
+            bloque.clear();
+            while (bloque.size() < tamano && (hayMas = lector.siguiente())) {
+                FilaFuente fila = lector.fila();
+                FilaLeida leida = new FilaLeida(lector.numeroFila(), esquema.extraer(fila), esquema.original(fila));
+                validador.registrarLeida(leida.getNumeroFila(), leida.getDatos());
+                bloque.add(leida);
+            }
+            if (bloque.isEmpty()) break;
+
+            eventos.clear();
+            ResultadoBloque parcial = importarBloque(bloque, validador, checkpoint, lector.posicion(),
+                    result, acumulado, eventos);
+            acumulado.combinar(parcial);
+            importacion.avanzar(parcial);
+            // Las filas confirmadas van a la auditoría y las fallidas al reporte de errores,
+            // mientras el bloque aún está en memoria: no hace falta otra pasada sobre el archivo
+            auditoria.filas(importacion.getId(), eventos);
+            hojaErrores.agregar(bloque, eventos);
+        }
+        acumulado.aplicarA(result);
+
+        checkpoint.setEstado(ImportacionCheckpoint.COMPLETADO);
+        checkpoint.setFechaActualizacion(LocalDateTime.now());
+        transactionTemplate.executeWithoutResult(status -> checkpointRepository.save(checkpoint));
+
+        if (result.getTotalRegistros() == 0) {
+            result.getErrores().add("El archivo está vacío o sin datos");
+        }
+    }
+
+    /**
+     * Busca un checkpoint EN_PROCESO del mismo archivo y filtros; si existe, restaura los contadores
+     * y posiciona el lector después de la última fila confirmada. Si no, registra uno nuevo.
+     */
+    private ImportacionCheckpoint iniciarCheckpoint(LectorFilas lector, ImportResultDTO result,
+                                                    String clave, String hash, String nombreArchivo) throws IOException {
+        ImportacionCheckpoint checkpoint = checkpointRepository.findByClave(clave).orElse(null);
+
+        if (checkpoint != null && ImportacionCheckpoint.EN_PROCESO.equals(checkpoint.getEstado())) {
+            lector.reanudar(checkpoint.getPosicion(), checkpoint.getUltimaFila());
+            result.setTotalRegistros(checkpoint.getTotalRegistros());
+            result.setExitosos(checkpoint.getExitosos());
+            result.setFallidos(checkpoint.getFallidos());
+            result.setActualizados(checkpoint.getActualizados());
+            result.setSinCambios(checkpoint.getSinCambios());
+            if (checkpoint.getUltimaFila() > 1) {
+                result.getWarnings().add("Importación reanudada desde la fila " + (checkpoint.getUltimaFila() + 1)
+                        + " - los errores de la ejecución anterior no se repiten");
+                log.info("Reanudando importación de {} desde la fila {}", nombreArchivo, checkpoint.getUltimaFila() + 1);
+            }
+            return checkpoint;
+        }
+
+        if (checkpoint == null) {
+            checkpoint = ImportacionCheckpoint.builder().clave(clave).hashArchivo(hash).build();
+        }
+        checkpoint.setNombreArchivo(nombreArchivo);
+        checkpoint.setUltimaFila(lector.numeroFila());
+        checkpoint.setPosicion(lector.posicion());
+        checkpoint.setTotalRegistros(0);
+        checkpoint.setExitosos(0);
+        checkpoint.setFallidos(0);
+        checkpoint.setActualizados(0);
+        checkpoint.setSinCambios(0);
+        checkpoint.setEstado(ImportacionCheckpoint.EN_PROCESO);
+        checkpoint.setFechaActualizacion(LocalDateTime.now());
+
+        ImportacionCheckpoint nuevo = checkpoint;
+        transactionTemplate.executeWithoutResult(status -> checkpointRepository.save(nuevo));
+        return nuevo;
     }
 
-    private void procesarFila(Row row, int rowNum, ImportFilterDTO filtros, TipoPersona tipoPersona, ImportResultDTO result) throws Exception {
+    /**
+     * Ejecuta un bloque dentro de un cupo del control de carga y le informa cuánto esperó
+     * la conexión y cuánto tardó; si hay congestión, pausa antes de devolver.
+     * En eventos quedan las filas confirmadas.
+     */
+    private ResultadoBloque importarBloque(List<FilaLeida> bloque, ValidadorFila validador,
+                                           ImportacionCheckpoint checkpoint, long posicion, ImportResultDTO result,
+                                           ResultadoBloque acumulado, List<EventoImportacion> eventos) throws IOException {
+        long pausaMs;
+        ResultadoBloque parcial;
         try {
-            // Leer datos del Excel
-            String modoContrato = getCellValueAsString(row.getCell(0));
-            String modalidadEstudio = getCellValueAsString(row.getCell(1));
-            String sedeNombre = getCellValueAsString(row.getCell(2));
-            String facultadNombre = getCellValueAsString(row.getCell(3));
-            String programaNombre = getCellValueAsString(row.getCell(4));
-
-            // ✅ DETECCIÓN MEJORADA CON VALIDACIÓN DE FILTROS
-            boolean tieneDatosAcademicos = (modoContrato != null && !modoContrato.trim().isEmpty()) &&
-                    (modalidadEstudio != null && !modalidadEstudio.trim().isEmpty()) &&
-                    (sedeNombre != null && !sedeNombre.trim().isEmpty()) &&
-                    (programaNombre != null && !programaNombre.trim().isEmpty());
-
-            // Validar coherencia entre datos y filtros
-            if (tieneDatosAcademicos) {
-                if (filtros.getTipoPersona() != null && filtros.getTipoPersona() != TipoPersona.ESTUDIANTE) {
-                    throw new Exception("Registro tiene datos académicos pero filtro especifica " + filtros.getTipoPersona());
-                }
-                tipoPersona = TipoPersona.ESTUDIANTE;
-                log.info("Fila {} detectada como ESTUDIANTE por tener datos académicos completos", rowNum);
-            } else {
-                if (filtros.getTipoPersona() == TipoPersona.ESTUDIANTE) {
-                    throw new Exception("Filtro es ESTUDIANTE pero registro no tiene datos académicos completos");
+            controlCarga.adquirir();
+            try {
+                long inicio = System.nanoTime();
+                AtomicLong esperaConexion = new AtomicLong();
+                parcial = ejecutarBloque(bloque, validador, checkpoint, posicion, result, acumulado,
+                        eventos, inicio, esperaConexion);
+                pausaMs = controlCarga.registrarBloque(bloque.size(), esperaConexion.get(), System.nanoTime() - inicio);
+            } finally {
+                controlCarga.liberar();
+            }
+            if (pausaMs > 0) {
+                Thread.sleep(pausaMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Importación interrumpida");
+        }
+        return parcial;
+    }
+
+    /**
+     * Importa un bloque en una sola transacción que también guarda el checkpoint.
+     * Si la transacción falla, se reintenta fila por fila para no perder las filas válidas.
+     * La conexión se obtiene al iniciar la transacción: lo que tarda en entrar al callback
+     * es la espera por el pool. En eventos quedan solo las filas de transacciones confirmadas.
+     */
+    private ResultadoBloque ejecutarBloque(List<FilaLeida> bloque, ValidadorFila validador,
+                                           ImportacionCheckpoint checkpoint, long posicion,
+                                           ImportResultDTO result, ResultadoBloque acumulado,
+                                           List<EventoImportacion> eventos, long inicio, AtomicLong esperaConexion) {
+        int ultimaFila = bloque.get(bloque.size() - 1).getNumeroFila();
+        Map<String, HuellaPersonaDTO> existentes = validador.getFiltros().esUpsert() ? cargarHuellas(bloque) : null;
+        Set<String> codigosExistentes = cargarCodigos(bloque);
+        try {
+            return transactionTemplate.execute(status -> {
+                esperaConexion.set(System.nanoTime() - inicio);
+                ResultadoBloque parcial = new ResultadoBloque();
+                List<EventoImportacion> eventosBloque = new ArrayList<>(bloque.size());
+                for (FilaLeida fila : bloque) {
+                    importarFila(fila, validador, existentes, codigosExistentes, parcial, eventosBloque);
                 }
-                if (filtros.getTipoPersona() == null) {
-                    tipoPersona = TipoPersona.INVITADO;
+                if (status.isRollbackOnly()) {
+                    throw new IllegalStateException("La transacción del bloque quedó marcada para rollback");
                 }
-            }
+                guardarCheckpoint(checkpoint, ultimaFila, posicion, result, acumulado, parcial);
+                eventos.addAll(eventosBloque);
+                return parcial;
+            });
+        } catch (RuntimeException e) {
+            log.warn("Bloque de filas {}-{} revertido ({}); se reintenta fila por fila",
+                    bloque.get(0).getNumeroFila(), ultimaFila, e.getMessage());
+        }
 
-            String ciclo = getCellValueAsString(row.getCell(5));
-            String grupo = getCellValueAsString(row.getCell(6));
-            String idPersonaStr = getCellValueAsString(row.getCell(7));
-            String codigoEstudiante = getCellValueAsString(row.getCell(8));
-            String nombreCompleto = getCellValueAsString(row.getCell(9));
-            String documento = getCellValueAsString(row.getCell(10));
-
-            // ✅ CORREGIDO: Manejar correos vacíos o null
-            String correo = getCellValueAsString(row.getCell(11));
-            if (correo != null) correo = correo.trim();
-
-            String usuario = getCellValueAsString(row.getCell(12));
-            if (usuario != null) usuario = usuario.trim();
-
-            String correoInstitucional = getCellValueAsString(row.getCell(13));
-            if (correoInstitucional != null) correoInstitucional = correoInstitucional.trim();
-
-            String celular = getCellValueAsString(row.getCell(14));
-            String pais = getCellValueAsString(row.getCell(15));
-            String foto = getCellValueAsString(row.getCell(16));
-            String religion = getCellValueAsString(row.getCell(17));
-            LocalDate fechaNacimiento = parseFechaNacimiento(row.getCell(18));
-            LocalDateTime fechaMatriculaConHora = parseFechaMatriculaConHora(row.getCell(19));
-
-            // Validaciones básicas - SOLO documento es obligatorio
-            if (documento == null || documento.trim().isEmpty()) {
-                throw new Exception("Documento vacío - registro omitido");
+        ResultadoBloque parcial = new ResultadoBloque();
+        for (FilaLeida fila : bloque) {
+            ResultadoBloque resultadoFila = new ResultadoBloque();
+            List<EventoImportacion> eventosFila = new ArrayList<>(1);
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        importarFila(fila, validador, existentes, codigosExistentes, resultadoFila, eventosFila));
+                parcial.combinar(resultadoFila);
+                eventos.addAll(eventosFila);
+            } catch (RuntimeException e) {
+                parcial.fallo(fila.getNumeroFila(), CodigoErrorImportacion.ERROR_PROCESAMIENTO, e.getMessage());
+                eventos.add(EventoImportacion.error(fila.getNumeroFila(), CodigoErrorImportacion.ERROR_PROCESAMIENTO,
+                        fila.getDatos().getDocumento(), e.getMessage()));
             }
+        }
+        transactionTemplate.executeWithoutResult(status ->
+                guardarCheckpoint(checkpoint, ultimaFila, posicion, result, acumulado, parcial));
+        return parcial;
+    }
 
-            // Validar que nombreCompleto no esté vacío
-            if (nombreCompleto == null || nombreCompleto.trim().isEmpty()) {
-                throw new Exception("Nombre completo vacío - registro omitido");
-            }
+    /**
+     * Modo UPSERT: ids y hashes guardados de los documentos del bloque, en una sola consulta
+     */
+    private Map<String, HuellaPersonaDTO> cargarHuellas(List<FilaLeida> bloque) {
+        List<String> documentos = bloque.stream()
+                .map(fila -> fila.getDatos().getDocumento())
+                .filter(documento -> documento != null)
+                .distinct()
+                .toList();
+        Map<String, HuellaPersonaDTO> existentes = new HashMap<>();
+        if (documentos.isEmpty()) return existentes;
+        for (HuellaPersonaDTO huella : personaService.findHuellasPorDocumento(documentos)) {
+            existentes.put(huella.getDocumento(), huella);
+        }
+        return existentes;
+    }
+
+    /**
+     * Códigos del bloque que ya están registrados, en una sola consulta. Los repetidos dentro
+     * del archivo los detecta el validador (incluidos los de filas anteriores del mismo bloque).
+     */
+    private Set<String> cargarCodigos(List<FilaLeida> bloque) {
+        List<String> codigos = bloque.stream()
+                .map(fila -> fila.getDatos().getCodigoEstudiante())
+                .filter(codigo -> codigo != null)
+                .distinct()
+                .toList();
+        if (codigos.isEmpty()) return Set.of();
+        return new HashSet<>(personaService.findCodigosExistentes(codigos));
+    }
+
+    private void importarFila(FilaLeida fila, ValidadorFila validador, Map<String, HuellaPersonaDTO> existentes,
+                              Set<String> codigosExistentes, ResultadoBloque parcial, List<EventoImportacion> eventos) {
+        int rowNum = fila.getNumeroFila();
+        String documento = fila.getDatos().getDocumento();
+        try {
+            ResultadoFila resultado = procesarFila(fila.getDatos(), rowNum, validador, existentes, codigosExistentes);
+            parcial.registrar(rowNum, resultado);
+            eventos.add(EventoImportacion.de(rowNum, resultado, documento));
+        } catch (Exception e) {
+            // Solo errores inesperados (BD, datos corruptos); las validaciones devuelven un código
+            parcial.fallo(rowNum, CodigoErrorImportacion.ERROR_PROCESAMIENTO, e.getMessage());
+            eventos.add(EventoImportacion.error(rowNum, CodigoErrorImportacion.ERROR_PROCESAMIENTO, documento, e.getMessage()));
+            log.error("Error procesando fila {}: {}", rowNum, e.getMessage());
+        }
+    }
+
+    /**
+     * Guarda el avance dentro de la transacción del bloque y libera las entidades del bloque
+     * (con open-in-view el contexto de persistencia dura toda la petición)
+     */
+    private void guardarCheckpoint(ImportacionCheckpoint checkpoint, int ultimaFila, long posicion,
+                                   ImportResultDTO result, ResultadoBloque acumulado, ResultadoBloque parcial) {
+        checkpoint.setUltimaFila(ultimaFila);
+        checkpoint.setPosicion(posicion);
+        checkpoint.setTotalRegistros(result.getTotalRegistros() + acumulado.getTotal() + parcial.getTotal());
+        checkpoint.setExitosos(result.getExitosos() + acumulado.getExitosos() + parcial.getExitosos());
+        checkpoint.setFallidos(result.getFallidos() + acumulado.getFallidos() + parcial.getFallidos());
+        checkpoint.setActualizados(result.getActualizados() + acumulado.getActualizados() + parcial.getActualizados());
+        checkpoint.setSinCambios(result.getSinCambios() + acumulado.getSinCambios() + parcial.getSinCambios());
+        checkpoint.setFechaActualizacion(LocalDateTime.now());
+        checkpointRepository.save(checkpoint);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private String extensionTemporal(String filename) {
+        if (UnidadImportacion.esZip(filename)) return ".zip";
+        return UnidadImportacion.esTextoDelimitado(filename) ? ".csv" : ".xlsx";
+    }
+
+    private void eliminarTemporal(Path temporal) {
+        if (temporal == null) return;
+        try {
+            Files.deleteIfExists(temporal);
+        } catch (IOException e) {
+            log.warn("No se pudo eliminar el archivo temporal {}: {}", temporal, e.getMessage());
+        }
+    }
+
+    private void eliminarDirectorio(Path directorio) {
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            archivos.forEach(this::eliminarTemporal);
+        } catch (IOException e) {
+            log.warn("No se pudo limpiar el directorio temporal {}: {}", directorio, e.getMessage());
+        }
+        eliminarTemporal(directorio);
+    }
+
+    /**
+     * Procesa una fila con las mismas reglas, en el mismo orden, que la simulación.
+     * existentes es null en modo INSERTAR; en modo UPSERT contiene las
+     * personas del bloque que ya existen, que se actualizan en vez de rechazarse.
+     * Las filas rechazadas devuelven un resultado con código; solo los errores inesperados lanzan excepción.
+     */
+    private ResultadoFila procesarFila(MatriculaExcelDTO datos, int rowNum, ValidadorFila validador,
+                                       Map<String, HuellaPersonaDTO> existentes,
+                                       Set<String> codigosExistentes) throws Exception {
+        ValidadorFila.Resultado validacion = validador.validarCampos(datos);
+        if (!validacion.esValido()) {
+            return ResultadoFila.error(validacion.getError());
+        }
+        TipoPersona tipoPersona = validacion.getTipoPersona();
 
-            // Verificar si la persona ya existe
-            Optional<Persona> personaExistente = personaService.findByDocumento(documento);
-            if (personaExistente.isPresent()) {
-                result.getWarnings().add("Fila " + rowNum + ": Persona con documento " + documento + " ya existe - registro omitido");
-                throw new Exception("Documento duplicado");
+        CodigoErrorImportacion repetido = validador.validarRepetido(rowNum, datos);
+        if (repetido != null) {
+            return ResultadoFila.error(repetido);
+        }
+
+        String documento = datos.getDocumento();
+
+        if (existentes != null && existentes.containsKey(documento)) {
+            return actualizarFila(datos, rowNum, tipoPersona, existentes.get(documento), validador);
+        }
+
+        // Verificar si la persona ya existe
+        Optional<Persona> personaExistente = personaService.findByDocumento(documento);
+        if (personaExistente.isPresent()) {
+            return ResultadoFila.error(CodigoErrorImportacion.DOCUMENTO_DUPLICADO);
+        }
+
+        // Verificar entidades relacionadas (solo para estudiantes)
+        Sede sede = null;
+        Facultad facultad = null;
+        ProgramaEstudio programa = null;
+
+        if (tipoPersona == TipoPersona.ESTUDIANTE) {
+            CodigoErrorImportacion errorFiltros = validador.validarFiltros(datos);
+            if (errorFiltros != null) {
+                log.debug("Fila {}: {} (sede '{}', facultad '{}', programa '{}')", rowNum, errorFiltros,
+                        datos.getSede(), datos.getUnidadAcademica(), datos.getProgramaEstudio());
+                return ResultadoFila.error(errorFiltros);
             }
+        }
 
-            // Verificar entidades relacionadas (solo para estudiantes)
-            Sede sede = null;
-            Facultad facultad = null;
-            ProgramaEstudio programa = null;
+        CodigoErrorImportacion errorCodigo = validador.validarCodigo(rowNum, datos, codigosExistentes);
+        if (errorCodigo != null) {
+            return ResultadoFila.error(errorCodigo);
+        }
 
-            if (tipoPersona == TipoPersona.ESTUDIANTE) {
-                sede = obtenerOValidarSede(sedeNombre, filtros);
-                if (sede == null) throw new Exception("Sede no coincide con filtros");
+        if (tipoPersona == TipoPersona.ESTUDIANTE) {
+            sede = validador.getSedeFiltro() != null ? validador.getSedeFiltro() : obtenerOCrearSede(datos.getSede());
+            facultad = validador.getFacultadFiltro() != null ? validador.getFacultadFiltro() : obtenerOCrearFacultad(datos.getUnidadAcademica());
+            programa = validador.getProgramaFiltro() != null ? validador.getProgramaFiltro() : obtenerOCrearPrograma(datos.getProgramaEstudio(), facultad);
+        }
 
-                facultad = obtenerOValidarFacultad(facultadNombre, filtros);
-                if (facultad == null) throw new Exception("Facultad no coincide con filtros");
+        // ✅ Crear usuario automáticamente (ahora acepta correos null/vacíos)
+        Usuario usuarioCreado = crearUsuario(datos.getCorreo(), documento, datos.getUsuario());
+
+        // Crear Persona y asignar usuario
+        Persona persona = new Persona();
+        copiarDatosPersona(persona, datos, tipoPersona);
+        persona.setUsuario(usuarioCreado);
+        persona = personaService.save(persona);
+
+        // ✅ CREAR MATRÍCULA SOLO PARA ESTUDIANTES
+        if (tipoPersona == TipoPersona.ESTUDIANTE) {
+            Matricula matricula = new Matricula();
+            matricula.setPersona(persona);
+            copiarDatosMatricula(matricula, datos, sede, facultad, programa);
+            matricula.setEstado("ACTIVO");
+            repo.save(matricula);
+        }
+        log.debug("Fila {} creada como {}: {} - Usuario: {}", rowNum, tipoPersona, documento, usuarioCreado.getUser());
+        return ResultadoFila.CREADO;
+    }
 
-                programa = obtenerOValidarPrograma(programaNombre, facultad, filtros);
-                if (programa == null) throw new Exception("Programa no coincide con filtros");
+    /**
+     * Modo UPSERT: compara los hashes de la fila con los guardados y solo escribe lo que cambió.
+     * Si nada cambió no se carga ninguna entidad.
+     */
+    private ResultadoFila actualizarFila(MatriculaExcelDTO datos, int rowNum, TipoPersona tipoPersona,
+                                         HuellaPersonaDTO huella, ValidadorFila validador) throws Exception {
+        boolean estudiante = tipoPersona == TipoPersona.ESTUDIANTE;
+        if (estudiante) {
+            CodigoErrorImportacion errorFiltros = validador.validarFiltros(datos);
+            if (errorFiltros != null) {
+                return ResultadoFila.error(errorFiltros);
             }
+        }
 
-            // ✅ Crear usuario automáticamente (ahora acepta correos null/vacíos)
-            Usuario usuarioCreado = crearUsuario(correo, documento, usuario);
-
-            // Crear Persona y asignar usuario
-            Persona persona = new Persona();
-            persona.setCodigoEstudiante(codigoEstudiante);
-            persona.setNombreCompleto(nombreCompleto);
-            persona.setDocumento(documento);
-            persona.setCorreo(correo);  // Puede ser null
-            persona.setCorreoInstitucional(correoInstitucional);  // Puede ser null
-            persona.setCelular(celular);
-            persona.setPais(pais);
-            persona.setFoto(foto);
-            persona.setReligion(religion);
-            persona.setFechaNacimiento(fechaNacimiento);
-            persona.setTipoPersona(tipoPersona);
-            persona.setUsuario(usuarioCreado);
+        String hashPersona = HuellaFila.persona(datos, tipoPersona);
+        String hashMatricula = estudiante ? HuellaFila.matricula(datos) : null;
+        boolean personaCambio = !hashPersona.equals(huella.getHashPersona());
+        boolean matriculaCambio = estudiante && !hashMatricula.equals(huella.getHashMatricula());
+        if (!personaCambio && !matriculaCambio) {
+            return ResultadoFila.SIN_CAMBIOS;
+        }
+
+        Persona persona = personaService.findById(huella.getIdPersona());
+        if (personaCambio) {
+            copiarDatosPersona(persona, datos, tipoPersona);
             persona = personaService.save(persona);
+        }
 
-            // ✅ CREAR MATRÍCULA SOLO PARA ESTUDIANTES
-            if (tipoPersona == TipoPersona.ESTUDIANTE) {
-                Matricula matricula = new Matricula();
-                matricula.setPersona(persona);
-                matricula.setSede(sede);
-                matricula.setFacultad(facultad);
-                matricula.setProgramaEstudio(programa);
-                matricula.setModoContrato(modoContrato);
-                matricula.setModalidadEstudio(modalidadEstudio);
-                matricula.setCiclo(ciclo);
-                matricula.setGrupo(grupo);
-                matricula.setFechaMatricula(fechaMatriculaConHora != null ?
-                        fechaMatriculaConHora : LocalDateTime.now());
-                matricula.setEstado("ACTIVO");
-                repo.save(matricula);
-
-                log.info("✅ Fila {} procesada como ESTUDIANTE: {} - Usuario: {} - Programa: {}",
-                        rowNum, documento, usuarioCreado.getUser(), programaNombre);
-            } else {
-                log.info("✅ Fila {} procesada como INVITADO: {} - Usuario: {}",
-                        rowNum, documento, usuarioCreado.getUser());
-            }
+        if (matriculaCambio) {
+            Matricula matricula = huella.getIdMatricula() != null
+                    ? repo.findById(huella.getIdMatricula()).orElseGet(Matricula::new)
+                    : new Matricula();
+            Sede sede = validador.getSedeFiltro() != null ? validador.getSedeFiltro() : obtenerOCrearSede(datos.getSede());
+            Facultad facultad = validador.getFacultadFiltro() != null ? validador.getFacultadFiltro() : obtenerOCrearFacultad(datos.getUnidadAcademica());
+            ProgramaEstudio programa = validador.getProgramaFiltro() != null ? validador.getProgramaFiltro() : obtenerOCrearPrograma(datos.getProgramaEstudio(), facultad);
+            matricula.setPersona(persona);
+            copiarDatosMatricula(matricula, datos, sede, facultad, programa);
+            if (matricula.getEstado() == null) matricula.setEstado("ACTIVO");
+            repo.save(matricula);
+        }
 
-        } catch (Exception e) {
-            throw new Exception(e.getMessage());
+        log.debug("Fila {} actualizada: {} (persona: {}, matrícula: {})",
+                rowNum, datos.getDocumento(), personaCambio, matriculaCambio);
+        return ResultadoFila.ACTUALIZADO;
+    }
+
+    private void copiarDatosPersona(Persona persona, MatriculaExcelDTO datos, TipoPersona tipoPersona) {
+        persona.setCodigoEstudiante(datos.getCodigoEstudiante());
+        persona.setNombreCompleto(datos.getEstudiante());
+        persona.setDocumento(datos.getDocumento());
+        persona.setCorreo(datos.getCorreo());  // Puede ser null
+        persona.setCorreoInstitucional(datos.getCorreoInstitucional());  // Puede ser null
+        persona.setCelular(datos.getCelular());
+        persona.setPais(datos.getPais());
+        persona.setFoto(datos.getFoto());
+        persona.setReligion(datos.getReligion());
+        persona.setFechaNacimiento(datos.getFechaNacimiento());
+        persona.setTipoPersona(tipoPersona);
+        persona.setHashFila(HuellaFila.persona(datos, tipoPersona));
+    }
+
+    private void copiarDatosMatricula(Matricula matricula, MatriculaExcelDTO datos,
+                                      Sede sede, Facultad facultad, ProgramaEstudio programa) {
+        matricula.setSede(sede);
+        matricula.setFacultad(facultad);
+        matricula.setProgramaEstudio(programa);
+        matricula.setModoContrato(datos.getModoContrato());
+        matricula.setModalidadEstudio(datos.getModalidadEstudio());
+        matricula.setCiclo(datos.getCiclo());
+        matricula.setGrupo(datos.getGrupo());
+        if (datos.getFechaMatricula() != null) {
+            matricula.setFechaMatricula(datos.getFechaMatricula());
+        } else if (matricula.getFechaMatricula() == null) {
+            matricula.setFechaMatricula(LocalDateTime.now());
         }
+        matricula.setHashFila(HuellaFila.matricula(datos));
     }
 
     /**
@@ -288,12 +867,10 @@ public class MatriculaServiceImp extends CrudGenericoServiceImp<Matricula, Long>
             username = documento.trim();
         }
 
-        log.info("Creando usuario con username: {}", username);
-
         // Verificar si el usuario ya existe
         Optional<Usuario> usuarioExistente = usuarioRepository.findOneByUser(username);
         if (usuarioExistente.isPresent()) {
-            log.warn("Usuario {} ya existe, reutilizando", username);
+            log.debug("Usuario {} ya existe, reutilizando", username);
             return usuarioExistente.get();
         }
 
@@ -313,192 +890,176 @@ public class MatriculaServiceImp extends CrudGenericoServiceImp<Matricula, Long>
                 .rol(rolIntegrante)
                 .build();
         usuarioRolService.save(usuarioRol);
-
-        log.info("✅ Usuario creado: {} con contraseña: {}", username, documento);
         return nuevoUsuario;
     }
 
+    private Sede obtenerOCrearSede(String sedeNombre) {
+        return obtenerOCrear(() -> sedeService.findByNombre(sedeNombre), () -> {
+            Sede nuevaSede = new Sede();
+            nuevaSede.setNombre(sedeNombre);
+            nuevaSede.setDescripcion("Creada automáticamente desde importación");
+            return sedeService.save(nuevaSede);
+        });
+    }
+
+    private Facultad obtenerOCrearFacultad(String facultadNombre) {
+        return obtenerOCrear(() -> facultadService.findByNombre(facultadNombre), () -> {
+            Facultad nuevaFacultad = new Facultad();
+            nuevaFacultad.setNombre(facultadNombre);
+            nuevaFacultad.setDescripcion("Creada automáticamente desde importación");
+            return facultadService.save(nuevaFacultad);
+        });
+    }
+
+    private ProgramaEstudio obtenerOCrearPrograma(String programaNombre, Facultad facultad) {
+        return obtenerOCrear(() -> programaService.findByNombre(programaNombre), () -> {
+            ProgramaEstudio nuevoPrograma = new ProgramaEstudio();
+            nuevoPrograma.setNombre(programaNombre);
+            nuevoPrograma.setFacultad(facultad);
+            nuevoPrograma.setDescripcion("Creado automáticamente desde importación");
+            return programaService.save(nuevoPrograma);
+        });
+    }
+
     /**
-     * ✅ CORREGIDO: Parsear fecha de nacimiento con múltiples formatos
+     * Si no existe, se crea bajo un bloqueo y en su propia transacción ya confirmada, para que las
+     * unidades concurrentes la vean y no choquen con el nombre único. Requiere que
+     * importacion.unidades.paralelismo sea menor que el pool de conexiones (usa una segunda conexión).
      */
-    private LocalDate parseFechaNacimiento(Cell cell) {
-        if (cell == null) return null;
-
-        try {
-            // Si es una celda con formato de fecha de Excel
-            if (cell.getCellType() == CellType.NUMERIC && DateUtil.isCellDateFormatted(cell)) {
-                Date date = cell.getDateCellValue();
-                return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-            }
+    private <T> T obtenerOCrear(Supplier<Optional<T>> buscar, Supplier<T> crear) {
+        Optional<T> existente = buscar.get();
+        if (existente.isPresent()) return existente.get();
+        synchronized (bloqueoReferencias) {
+            return transaccionNueva.execute(status -> buscar.get().orElseGet(crear));
+        }
+    }
 
-            // Si es texto, intentar parsear con diferentes formatos
-            if (cell.getCellType() == CellType.STRING) {
-                String dateStr = cell.getStringCellValue().trim();
+    @Autowired
+    private ExcelExportService excelExportService;
 
-                for (DateTimeFormatter formatter : DATE_FORMATTERS) {
-                    try {
-                        return LocalDate.parse(dateStr, formatter);
-                    } catch (DateTimeParseException e) {
-                        // Intentar con el siguiente formato
-                    }
-                }
+    @Autowired
+    private CsvExportService csvExportService;
 
-                log.warn("No se pudo parsear la fecha de nacimiento: {}", dateStr);
-            }
-        } catch (Exception e) {
-            log.error("Error parseando fecha de nacimiento: {}", e.getMessage());
-        }
+    @Autowired
+    private ArrowExportService arrowExportService;
 
-        return null;
-    }
+    @Autowired
+    private NdjsonExportService ndjsonExportService;
 
-    /**
-     * ✅ NUEVO: Parsear fecha de matrícula CON HORA
-     * Formatos soportados:
-     * - "07/08/2025 2:15 p. m."
-     * - "07/08/2025 14:15"
-     * - "07/08/2025" (solo fecha)
-     */
-    private LocalDateTime parseFechaMatriculaConHora(Cell cell) {
-        if (cell == null) return LocalDateTime.now();
+    @Autowired
+    private CacheExportacionService cacheExportaciones;
 
-        try {
-            // Si es una celda con formato de fecha/hora de Excel
-            if (cell.getCellType() == CellType.NUMERIC && DateUtil.isCellDateFormatted(cell)) {
-                Date date = cell.getDateCellValue();
-                return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime();
-            }
+    @Autowired
+    private ExportacionParticionadaService exportacionParticionada;
 
-            // Si es texto, intentar parsear con diferentes formatos
-            if (cell.getCellType() == CellType.STRING) {
-                String dateTimeStr = cell.getStringCellValue().trim();
-
-                // Normalizar el texto (quitar espacios múltiples, estandarizar am/pm)
-                dateTimeStr = dateTimeStr.replaceAll("\\s+", " ");
-                dateTimeStr = dateTimeStr.replace("p. m.", "PM")
-                        .replace("a. m.", "AM")
-                        .replace("p.m.", "PM")
-                        .replace("a.m.", "AM");
-
-                // Intentar parsear con formatos de fecha+hora
-                for (DateTimeFormatter formatter : DATE_TIME_FORMATTERS) {
-                    try {
-                        return LocalDateTime.parse(dateTimeStr, formatter);
-                    } catch (DateTimeParseException e) {
-                        // Intentar con el siguiente formato
-                    }
-                }
+    @Autowired
+    private SimulacionImportacionService simulacionService;
 
-                // Si no tiene hora, intentar parsear solo la fecha
-                for (DateTimeFormatter formatter : DATE_FORMATTERS) {
-                    try {
-                        LocalDate date = LocalDate.parse(dateTimeStr, formatter);
-                        return date.atStartOfDay(); // Convertir a LocalDateTime a las 00:00
-                    } catch (DateTimeParseException e) {
-                        // Intentar con el siguiente formato
-                    }
-                }
+    @Autowired
+    private ResultadoImportacionCacheService resultadosImportacion;
 
-                log.warn("No se pudo parsear la fecha de matrícula: {}", dateTimeStr);
-            }
-        } catch (Exception e) {
-            log.error("Error parseando fecha de matrícula: {}", e.getMessage());
-        }
+    @Autowired
+    private RegistroImportacionesService registroImportaciones;
 
-        return LocalDateTime.now();
-    }
+    @Autowired
+    private ControlCargaImportacion controlCarga;
 
-    private Sede obtenerOValidarSede(String sedeNombre, ImportFilterDTO filtros) {
-        if (filtros.getSedeId() != null) {
-            Sede sedeFiltro = sedeService.findById(filtros.getSedeId());
-            if (!sedeFiltro.getNombre().equalsIgnoreCase(sedeNombre)) {
-                log.warn("Sede '{}' no coincide con filtro '{}'", sedeNombre, sedeFiltro.getNombre());
-                return null;
-            }
-            return sedeFiltro;
-        }
+    @Autowired
+    private AuditoriaImportacionService auditoria;
 
-        return sedeService.findByNombre(sedeNombre)
-                .orElseGet(() -> {
-                    Sede nuevaSede = new Sede();
-                    nuevaSede.setNombre(sedeNombre);
-                    nuevaSede.setDescripcion("Creada automáticamente desde importación");
-                    return sedeService.save(nuevaSede);
-                });
+    @Override
+    public String etagExportacionExcel(Long sedeId, Long facultadId, Long programaId, TipoPersona tipoPersona) {
+        return cacheExportaciones.etag(claveExportacion("xlsx", sedeId, facultadId, programaId, tipoPersona));
     }
 
-    private Facultad obtenerOValidarFacultad(String facultadNombre, ImportFilterDTO filtros) {
-        if (filtros.getFacultadId() != null) {
-            Facultad facultadFiltro = facultadService.findById(filtros.getFacultadId());
-            if (!facultadFiltro.getNombre().equalsIgnoreCase(facultadNombre)) {
-                log.warn("Facultad '{}' no coincide con filtro '{}'", facultadNombre, facultadFiltro.getNombre());
-                return null;
+    /**
+     * Las exportaciones leen con el cursor del repositorio, que usa su propia conexión;
+     * sin transacción aquí no se retiene una segunda conexión mientras dura la descarga.
+     * El Excel se guarda en la caché de exportaciones hasta el próximo cambio de datos.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ArchivoExportacion exportarMatriculasAExcel(Long sedeId, Long facultadId, Long programaId,
+                                                       TipoPersona tipoPersona) throws Exception {
+        String clave = claveExportacion("xlsx", sedeId, facultadId, programaId, tipoPersona);
+        return cacheExportaciones.obtenerOGenerar(clave, ".xlsx", out -> {
+            try (Stream<Matricula> matriculas = repo.streamByFiltros(sedeId, facultadId, programaId, tipoPersona)) {
+                Iterator<Matricula> it = matriculas.iterator();
+                if (!it.hasNext()) {
+                    throw new Exception("No hay registros para exportar con los filtros aplicados");
+                }
+                excelExportService.exportarMatriculasAExcel(it, out);
             }
-            return facultadFiltro;
-        }
+        });
+    }
 
-        return facultadService.findByNombre(facultadNombre)
-                .orElseGet(() -> {
-                    Facultad nuevaFacultad = new Facultad();
-                    nuevaFacultad.setNombre(facultadNombre);
-                    nuevaFacultad.setDescripcion("Creada automáticamente desde importación");
-                    return facultadService.save(nuevaFacultad);
-                });
+    @Override
+    public String etagExportacionPadron(TipoPersona tipoPersona) {
+        return cacheExportaciones.etag(claveExportacion("padron-xlsx", null, null, null, tipoPersona));
     }
 
-    private ProgramaEstudio obtenerOValidarPrograma(String programaNombre, Facultad facultad, ImportFilterDTO filtros) {
-        if (filtros.getProgramaId() != null) {
-            ProgramaEstudio programaFiltro = programaService.findById(filtros.getProgramaId());
-            if (!programaFiltro.getNombre().equalsIgnoreCase(programaNombre)) {
-                log.warn("Programa '{}' no coincide con filtro '{}'", programaNombre, programaFiltro.getNombre());
-                return null;
+    /**
+     * Como exportarMatriculasAExcel pero desde upeu_persona: las personas sin matrícula (invitados)
+     * salen con las columnas de la matrícula vacías.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ArchivoExportacion exportarPadronAExcel(TipoPersona tipoPersona) throws Exception {
+        String clave = claveExportacion("padron-xlsx", null, null, null, tipoPersona);
+        return cacheExportaciones.obtenerOGenerar(clave, ".xlsx", out -> {
+            try (Stream<Matricula> padron = repo.streamPadron(tipoPersona)) {
+                Iterator<Matricula> it = padron.iterator();
+                if (!it.hasNext()) {
+                    throw new Exception("No hay personas para exportar con los filtros aplicados");
+                }
+                excelExportService.exportarMatriculasAExcel(it, out);
             }
-            return programaFiltro;
-        }
+        });
+    }
 
-        return programaService.findByNombre(programaNombre)
-                .orElseGet(() -> {
-                    ProgramaEstudio nuevoPrograma = new ProgramaEstudio();
-                    nuevoPrograma.setNombre(programaNombre);
-                    nuevoPrograma.setFacultad(facultad);
-                    nuevoPrograma.setDescripcion("Creado automáticamente desde importación");
-                    return programaService.save(nuevoPrograma);
-                });
+    @Override
+    public String etagExportacionPorParticion(ParticionExportacion particion, Long sedeId, Long facultadId,
+                                              Long programaId, TipoPersona tipoPersona) {
+        return cacheExportaciones.etag(claveExportacion("zip-" + particion, sedeId, facultadId, programaId, tipoPersona));
     }
 
-    private String getCellValueAsString(Cell cell) {
-        if (cell == null) return null;
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ArchivoExportacion exportarMatriculasPorParticion(ParticionExportacion particion, Long sedeId, Long facultadId,
+                                                             Long programaId, TipoPersona tipoPersona) throws Exception {
+        String clave = claveExportacion("zip-" + particion, sedeId, facultadId, programaId, tipoPersona);
+        return cacheExportaciones.obtenerOGenerar(clave, ".zip", out ->
+                exportacionParticionada.exportarZip(particion, sedeId, facultadId, programaId, tipoPersona, out));
+    }
 
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue().trim();
-            case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return cell.getLocalDateTimeCellValue().toLocalDate().toString();
-                }
-                return String.valueOf((long) cell.getNumericCellValue());
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            case FORMULA:
-                return cell.getCellFormula();
-            default:
-                return null;
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int exportarMatriculasACsv(Long sedeId, Long facultadId, Long programaId, TipoPersona tipoPersona,
+                                      OutputStream out) throws IOException {
+        try (Stream<Matricula> matriculas = repo.streamByFiltros(sedeId, facultadId, programaId, tipoPersona)) {
+            return csvExportService.exportar(matriculas, out);
         }
     }
 
-    @Autowired
-    private ExcelExportService excelExportService;
-
     @Override
-    public byte[] exportarMatriculasAExcel(Long sedeId, Long facultadId, Long programaId, TipoPersona tipoPersona) throws Exception {
-        // Obtener matrículas filtradas
-        List<Matricula> matriculas = findByFiltros(sedeId, facultadId, programaId, tipoPersona);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long exportarMatriculasAArrow(Long sedeId, Long facultadId, Long programaId, TipoPersona tipoPersona,
+                                         OutputStream out) throws IOException {
+        return arrowExportService.exportar(
+                () -> repo.streamByFiltros(sedeId, facultadId, programaId, tipoPersona), out);
+    }
 
-        if (matriculas.isEmpty()) {
-            throw new Exception("No hay registros para exportar con los filtros aplicados");
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long exportarMatriculasANdjson(Long sedeId, Long facultadId, Long programaId, TipoPersona tipoPersona,
+                                          OutputStream out) throws IOException {
+        try (Stream<Matricula> matriculas = repo.streamByFiltros(sedeId, facultadId, programaId, tipoPersona)) {
+            return ndjsonExportService.exportar(matriculas, out);
         }
+    }
 
-        log.info("Exportando {} matrículas a Excel", matriculas.size());
-        return excelExportService.exportarMatriculasAExcel(matriculas);
+    private static String claveExportacion(String formato, Long sedeId, Long facultadId, Long programaId,
+                                           TipoPersona tipoPersona) {
+        return formato + "|" + sedeId + "|" + facultadId + "|" + programaId + "|" + tipoPersona;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,69 @@
+package pe.edu.upeu.sysasistencia.servicio.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import pe.edu.upeu.sysasistencia.dtos.MatriculaDTO;
+import pe.edu.upeu.sysasistencia.mappers.MatriculaMapper;
+import pe.edu.upeu.sysasistencia.modelo.Matricula;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Escribe matrículas como NDJSON (un MatriculaDTO por línea) a medida que llegan del cursor.
+ * Se envía la primera fila apenas se lee y luego cada FILAS_POR_ENVIO filas o cada segundo,
+ * así el cliente empieza a recibir enseguida y el servidor no acumula la respuesta.
+ */
+@Slf4j
+@Service
+public class NdjsonExportService {
+    static final int FILAS_POR_ENVIO = 1000;
+    private static final long NANOS_POR_ENVIO = TimeUnit.SECONDS.toNanos(1);
+
+    private final MatriculaMapper matriculaMapper;
+    private final ObjectWriter writer;
+
+    public NdjsonExportService(MatriculaMapper matriculaMapper, ObjectMapper objectMapper) {
+        this.matriculaMapper = matriculaMapper;
+        // El mismo formato de fechas que el resto de la API, sin flush por cada objeto
+        this.writer = objectMapper.writerFor(MatriculaDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * No cierra out ni el stream de matrículas.
+     */
+    public long exportar(Stream<Matricula> matriculas, OutputStream out) throws IOException {
+        long filas = 0;
+        try (JsonGenerator json = writer.createGenerator(out)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // El salto de línea lo escribimos nosotros después de cada objeto
+            json.setRootValueSeparator(null);
+
+            long ultimoEnvio = System.nanoTime();
+            int pendientes = 0;
+            Iterator<Matricula> it = matriculas.iterator();
+            while (it.hasNext()) {
+                writer.writeValue(json, matriculaMapper.toDTO(it.next()));
+                json.writeRaw('\n');
+                filas++;
+                pendientes++;
+                if (filas == 1 || pendientes >= FILAS_POR_ENVIO || System.nanoTime() - ultimoEnvio >= NANOS_POR_ENVIO) {
+                    json.flush();
+                    ultimoEnvio = System.nanoTime();
+                    pendientes = 0;
+                }
+            }
+            json.flush();
+        }
+        log.info("NDJSON generado con {} registros", filas);
+        return filas;
+    }
+}
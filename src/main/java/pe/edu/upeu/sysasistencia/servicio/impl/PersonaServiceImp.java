@@ -3,10 +3,13 @@ package pe.edu.upeu.sysasistencia.servicio.impl;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import pe.edu.upeu.sysasistencia.dtos.HuellaPersonaDTO;
 import pe.edu.upeu.sysasistencia.modelo.Persona;
 import pe.edu.upeu.sysasistencia.repositorio.ICrudGenericoRepository;
 import pe.edu.upeu.sysasistencia.repositorio.IPersonaRepository;
 import pe.edu.upeu.sysasistencia.servicio.IPersonaService;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -29,4 +32,19 @@ public class PersonaServiceImp extends CrudGenericoServiceImp<Persona, Long> imp
     public Optional<Persona> findByDocumento(String documento) {
         return repo.findByDocumento(documento);
     }
+
+    @Override
+    public List<String> findDocumentosExistentes(Collection<String> documentos) {
+        return repo.findDocumentosExistentes(documentos);
+    }
+
+    @Override
+    public List<String> findCodigosExistentes(Collection<String> codigos) {
+        return repo.findCodigosExistentes(codigos);
+    }
+
+    @Override
+    public List<HuellaPersonaDTO> findHuellasPorDocumento(Collection<String> documentos) {
+        return repo.findHuellasPorDocumento(documentos);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,132 @@
+package pe.edu.upeu.sysasistencia.servicio.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import pe.edu.upeu.sysasistencia.dtos.EstadoImportacionDTO;
+import pe.edu.upeu.sysasistencia.dtos.ImportResultDTO;
+import pe.edu.upeu.sysasistencia.excepciones.ModelNotFoundException;
+import pe.edu.upeu.sysasistencia.servicio.impl.importacion.ImportacionEnCurso;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Importaciones en curso y las últimas terminadas, para consultar su avance por id
+ * y descargar su reporte de errores
+ */
+@Slf4j
+@Service
+public class RegistroImportacionesService {
+    private final Map<String, ImportacionEnCurso> importaciones = new ConcurrentHashMap<>();
+    private final ControlCargaImportacion controlCarga;
+    private final AuditoriaImportacionService auditoria;
+    private final int maxTerminadas;
+
+    public RegistroImportacionesService(
+            ControlCargaImportacion controlCarga,
+            AuditoriaImportacionService auditoria,
+            @Value("${importacion.registro.max-terminadas:100}") int maxTerminadas) {
+        this.controlCarga = controlCarga;
+        this.auditoria = auditoria;
+        this.maxTerminadas = maxTerminadas;
+    }
+
+    public ImportacionEnCurso iniciar(String nombreArchivo) {
+        ImportacionEnCurso importacion = new ImportacionEnCurso(UUID.randomUUID().toString(), nombreArchivo);
+        importaciones.put(importacion.getId(), importacion);
+        auditoria.inicio(importacion.getId(), nombreArchivo);
+        return importacion;
+    }
+
+    public void completar(ImportacionEnCurso importacion, ImportResultDTO result) {
+        result.setIdImportacion(importacion.getId());
+        if (guardarReporteErrores(importacion)) {
+            result.setReporteErrores("/matriculas/importaciones/" + importacion.getId() + "/errores.xlsx");
+        }
+        importacion.terminar(ImportacionEnCurso.COMPLETADO, null);
+        auditoria.fin(importacion.getId(), ImportacionEnCurso.COMPLETADO, "total=" + result.getTotalRegistros()
+                + " exitosos=" + result.getExitosos() + " fallidos=" + result.getFallidos());
+        depurar();
+    }
+
+    public void fallar(ImportacionEnCurso importacion, Exception e) {
+        guardarReporteErrores(importacion);
+        importacion.terminar(ImportacionEnCurso.ERROR, e.getMessage());
+        auditoria.fin(importacion.getId(), ImportacionEnCurso.ERROR, e.getMessage());
+        depurar();
+    }
+
+    public ImportacionEnCurso obtener(String id) {
+        ImportacionEnCurso importacion = importaciones.get(id);
+        if (importacion == null) {
+            throw new ModelNotFoundException("Importación no encontrada: " + id);
+        }
+        return importacion;
+    }
+
+    public Path archivoErrores(String id) {
+        Path archivo = obtener(id).getArchivoErrores();
+        if (archivo == null || !Files.exists(archivo)) {
+            throw new ModelNotFoundException("La importación " + id + " no tiene reporte de errores");
+        }
+        return archivo;
+    }
+
+    public EstadoImportacionDTO estado(String id) {
+        return estado(obtener(id));
+    }
+
+    /**
+     * Más recientes primero
+     */
+    public List<EstadoImportacionDTO> listar() {
+        return importaciones.values().stream()
+                .sorted(Comparator.comparing(ImportacionEnCurso::getInicio).reversed())
+                .map(this::estado)
+                .toList();
+    }
+
+    private EstadoImportacionDTO estado(ImportacionEnCurso importacion) {
+        return importacion.estado(importacion.enProceso() ? controlCarga.estado() : null);
+    }
+
+    /**
+     * Devuelve true si hubo filas con error y el reporte quedó en disco
+     */
+    private boolean guardarReporteErrores(ImportacionEnCurso importacion) {
+        try {
+            importacion.setArchivoErrores(importacion.getReporteErrores().guardar());
+        } catch (IOException e) {
+            log.error("No se pudo guardar el reporte de errores de la importación {}: {}",
+                    importacion.getId(), e.getMessage());
+        }
+        return importacion.getArchivoErrores() != null;
+    }
+
+    /**
+     * Conserva solo las últimas maxTerminadas importaciones terminadas; borra sus reportes de errores
+     */
+    private void depurar() {
+        List<ImportacionEnCurso> terminadas = importaciones.values().stream()
+                .filter(importacion -> !importacion.enProceso())
+                .sorted(Comparator.comparing(ImportacionEnCurso::getFin))
+                .toList();
+        for (int i = 0; i < terminadas.size() - maxTerminadas; i++) {
+            ImportacionEnCurso eliminada = importaciones.remove(terminadas.get(i).getId());
+            if (eliminada != null && eliminada.getArchivoErrores() != null) {
+                try {
+                    Files.deleteIfExists(eliminada.getArchivoErrores());
+                } catch (IOException e) {
+                    log.warn("No se pudo borrar {}: {}", eliminada.getArchivoErrores(), e.getMessage());
+                }
+            }
+        }
+    }
+}
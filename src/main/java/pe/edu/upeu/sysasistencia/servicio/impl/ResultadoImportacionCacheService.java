@@ -0,0 +1,81 @@
+package pe.edu.upeu.sysasistencia.servicio.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import pe.edu.upeu.sysasistencia.dtos.ImportResultDTO;
+import pe.edu.upeu.sysasistencia.utils.SingleFlight;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Deduplicación de importaciones por contenido: la clave es el SHA-256 del archivo más los filtros.
+ * Un reenvío idéntico devuelve el resultado guardado, o espera a la importación en curso,
+ * sin volver a leer el archivo ni consultar la base de datos.
+ */
+@Slf4j
+@Service
+public class ResultadoImportacionCacheService {
+    private final SingleFlight<String, ImportResultDTO> enCurso = new SingleFlight<>();
+    private final Map<String, Entrada> resultados;
+    private final Duration vigencia;
+
+    public ResultadoImportacionCacheService(
+            @Value("${importacion.cache.max-entradas:200}") int maxEntradas,
+            @Value("${importacion.cache.vigencia-minutos:60}") long vigenciaMinutos) {
+        this.vigencia = Duration.ofMinutes(vigenciaMinutos);
+        // LRU por orden de acceso
+        this.resultados = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> eldest) {
+                return size() > maxEntradas;
+            }
+        };
+    }
+
+    /**
+     * Devuelve siempre una copia: el llamador puede agregar warnings sin afectar lo guardado
+     */
+    public ImportResultDTO obtenerOEjecutar(String clave, boolean forzar, Callable<ImportResultDTO> importacion) throws Exception {
+        if (!forzar) {
+            Entrada guardada = obtener(clave);
+            if (guardada != null) {
+                log.info("Importación repetida ({}): se devuelve el resultado guardado", clave);
+                ImportResultDTO copia = guardada.resultado.copia();
+                copia.getWarnings().add("Archivo idéntico ya importado el " + guardada.fecha.withNano(0)
+                        + " - se devuelve el resultado anterior (use forzar=true para reimportar)");
+                return copia;
+            }
+            if (enCurso.estaEnCurso(clave)) {
+                log.info("Importación idéntica en curso ({}): esperando su resultado", clave);
+            }
+        }
+
+        ImportResultDTO resultado = enCurso.ejecutar(clave, () -> {
+            ImportResultDTO nuevo = importacion.call();
+            guardar(clave, nuevo.copia());
+            return nuevo;
+        });
+        return resultado.copia();
+    }
+
+    private synchronized Entrada obtener(String clave) {
+        Entrada entrada = resultados.get(clave);
+        if (entrada != null && entrada.fecha.plus(vigencia).isBefore(LocalDateTime.now())) {
+            resultados.remove(clave);
+            return null;
+        }
+        return entrada;
+    }
+
+    private synchronized void guardar(String clave, ImportResultDTO resultado) {
+        resultados.put(clave, new Entrada(resultado, LocalDateTime.now()));
+    }
+
+    private record Entrada(ImportResultDTO resultado, LocalDateTime fecha) {
+    }
+}
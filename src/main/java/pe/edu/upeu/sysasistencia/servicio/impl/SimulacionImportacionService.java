@@ -0,0 +1,226 @@
+package pe.edu.upeu.sysasistencia.servicio.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import pe.edu.upeu.sysasistencia.dtos.HuellaPersonaDTO;
+import pe.edu.upeu.sysasistencia.dtos.ImportResultDTO;
+import pe.edu.upeu.sysasistencia.dtos.MatriculaExcelDTO;
+import pe.edu.upeu.sysasistencia.modelo.TipoPersona;
+import pe.edu.upeu.sysasistencia.servicio.IPersonaService;
+import pe.edu.upeu.sysasistencia.servicio.impl.importacion.EsquemaImportacion;
+import pe.edu.upeu.sysasistencia.servicio.impl.importacion.FilaLeida;
+import pe.edu.upeu.sysasistencia.servicio.impl.importacion.HuellaFila;
+import pe.edu.upeu.sysasistencia.servicio.impl.importacion.LectorFilas;
+import pe.edu.upeu.sysasistencia.servicio.impl.importacion.CodigoErrorImportacion;
+import pe.edu.upeu.sysasistencia.servicio.impl.importacion.ResultadoBloque;
+import pe.edu.upeu.sysasistencia.servicio.impl.importacion.ResultadoFila;
+import pe.edu.upeu.sysasistencia.servicio.impl.importacion.ValidadorFila;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+
+/**
+ * Simulación (dry-run) de la importación: valida todas las filas sin escribir en la base de datos.
+ * Las filas se validan en paralelo, por bloques, sobre una foto de solo lectura de los
+ * documentos y códigos que ya existen.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SimulacionImportacionService {
+    private static final int LOTE_CONSULTA = 1000;
+
+    private final IPersonaService personaService;
+
+    @Value("${importacion.simulacion.tamano-bloque:2000}")
+    private int tamanoBloque;
+
+    @Value("${importacion.simulacion.paralelismo:0}")
+    private int paralelismo;
+
+    private ForkJoinPool pool;
+
+    @PostConstruct
+    public void iniciar() {
+        // Con 0 o negativo un rango de una fila se dividiría sin fin
+        tamanoBloque = Math.max(1, tamanoBloque);
+        pool = new ForkJoinPool(paralelismo > 0 ? paralelismo : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void detener() {
+        pool.shutdown();
+    }
+
+    /**
+     * Lee todas las filas, arma la foto de datos existentes y valida en paralelo
+     */
+    public void simular(LectorFilas lector, EsquemaImportacion esquema, ValidadorFila validador,
+                        ImportResultDTO result) throws IOException {
+        List<FilaLeida> filas = new ArrayList<>();
+
+        while (lector.siguiente()) {
+            MatriculaExcelDTO datos = esquema.extraer(lector.fila());
+            int numeroFila = lector.numeroFila();
+            filas.add(new FilaLeida(numeroFila, datos));
+            validador.registrarLeida(numeroFila, datos);
+        }
+
+        if (filas.isEmpty()) {
+            result.getErrores().add("El archivo está vacío o sin datos");
+            return;
+        }
+
+        // En modo UPSERT se traen también los hashes guardados para distinguir actualizados de sin cambios
+        Map<String, HuellaPersonaDTO> huellas = new HashMap<>();
+        Set<String> documentosExistentes;
+        if (validador.getFiltros().esUpsert()) {
+            for (HuellaPersonaDTO huella : consultarEnLotes(validador.documentosLeidos(), personaService::findHuellasPorDocumento)) {
+                huellas.put(huella.getDocumento(), huella);
+            }
+            documentosExistentes = huellas.keySet();
+        } else {
+            documentosExistentes = consultarEnLotes(validador.documentosLeidos(), personaService::findDocumentosExistentes);
+        }
+
+        Foto foto = new Foto(
+                documentosExistentes,
+                consultarEnLotes(validador.codigosLeidos(), personaService::findCodigosExistentes),
+                huellas);
+
+        ResultadoBloque total = pool.invoke(new TareaValidacion(filas, 0, filas.size(), validador, foto));
+
+        total.aplicarA(result);
+        result.getWarnings().add("Simulación: no se guardó ningún registro");
+    }
+
+    private <T> Set<T> consultarEnLotes(Collection<String> valores, Function<Collection<String>, List<T>> consulta) {
+        Set<T> existentes = new HashSet<>();
+        List<String> lote = new ArrayList<>(LOTE_CONSULTA);
+        for (String valor : valores) {
+            lote.add(valor);
+            if (lote.size() == LOTE_CONSULTA) {
+                existentes.addAll(consulta.apply(lote));
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) existentes.addAll(consulta.apply(lote));
+        return existentes;
+    }
+
+    /**
+     * Valida una fila con las mismas reglas y códigos de error que la importación real
+     */
+    private static ResultadoFila validarFila(FilaLeida fila, ValidadorFila validador, Foto foto) {
+        MatriculaExcelDTO datos = fila.getDatos();
+        int rowNum = fila.getNumeroFila();
+
+        ValidadorFila.Resultado validacion = validador.validarCampos(datos);
+        if (!validacion.esValido()) {
+            return ResultadoFila.error(validacion.getError());
+        }
+
+        CodigoErrorImportacion repetido = validador.validarRepetido(rowNum, datos);
+        if (repetido != null) {
+            return ResultadoFila.error(repetido);
+        }
+
+        String documento = datos.getDocumento();
+        HuellaPersonaDTO huella = foto.huellas.get(documento);
+        if (huella != null) {
+            if (validacion.getTipoPersona() == TipoPersona.ESTUDIANTE) {
+                CodigoErrorImportacion errorFiltros = validador.validarFiltros(datos);
+                if (errorFiltros != null) {
+                    return ResultadoFila.error(errorFiltros);
+                }
+            }
+            return compararHuella(datos, validacion.getTipoPersona(), huella);
+        }
+        if (foto.documentosExistentes.contains(documento)) {
+            return ResultadoFila.error(CodigoErrorImportacion.DOCUMENTO_DUPLICADO);
+        }
+
+        if (validacion.getTipoPersona() == TipoPersona.ESTUDIANTE) {
+            CodigoErrorImportacion errorFiltros = validador.validarFiltros(datos);
+            if (errorFiltros != null) {
+                return ResultadoFila.error(errorFiltros);
+            }
+        }
+
+        CodigoErrorImportacion errorCodigo = validador.validarCodigo(rowNum, datos, foto.codigosExistentes);
+        if (errorCodigo != null) {
+            return ResultadoFila.error(errorCodigo);
+        }
+
+        return ResultadoFila.CREADO;
+    }
+
+    private static ResultadoFila compararHuella(MatriculaExcelDTO datos, TipoPersona tipoPersona, HuellaPersonaDTO huella) {
+        boolean personaCambio = !HuellaFila.persona(datos, tipoPersona).equals(huella.getHashPersona());
+        boolean matriculaCambio = tipoPersona == TipoPersona.ESTUDIANTE
+                && !HuellaFila.matricula(datos).equals(huella.getHashMatricula());
+        return personaCambio || matriculaCambio ? ResultadoFila.ACTUALIZADO : ResultadoFila.SIN_CAMBIOS;
+    }
+
+    /**
+     * Foto de solo lectura de los datos existentes; se comparte entre los hilos sin sincronizar
+     */
+    private static class Foto {
+        final Set<String> documentosExistentes;
+        final Set<String> codigosExistentes;
+        final Map<String, HuellaPersonaDTO> huellas;
+
+        Foto(Set<String> documentosExistentes, Set<String> codigosExistentes,
+             Map<String, HuellaPersonaDTO> huellas) {
+            this.documentosExistentes = Set.copyOf(documentosExistentes);
+            this.codigosExistentes = Set.copyOf(codigosExistentes);
+            this.huellas = Map.copyOf(huellas);
+        }
+    }
+
+    private class TareaValidacion extends RecursiveTask<ResultadoBloque> {
+        private final List<FilaLeida> filas;
+        private final int desde;
+        private final int hasta;
+        private final ValidadorFila validador;
+        private final Foto foto;
+
+        TareaValidacion(List<FilaLeida> filas, int desde, int hasta, ValidadorFila validador, Foto foto) {
+            this.filas = filas;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.validador = validador;
+            this.foto = foto;
+        }
+
+        @Override
+        protected ResultadoBloque compute() {
+            if (hasta - desde <= tamanoBloque) {
+                ResultadoBloque parcial = new ResultadoBloque();
+                for (int i = desde; i < hasta; i++) {
+                    FilaLeida fila = filas.get(i);
+                    parcial.registrar(fila.getNumeroFila(), validarFila(fila, validador, foto));
+                }
+                return parcial;
+            }
+            int medio = (desde + hasta) >>> 1;
+            TareaValidacion izquierda = new TareaValidacion(filas, desde, medio, validador, foto);
+            TareaValidacion derecha = new TareaValidacion(filas, medio, hasta, validador, foto);
+            invokeAll(izquierda, derecha);
+            return izquierda.join().combinar(derecha.join());
+        }
+    }
+}
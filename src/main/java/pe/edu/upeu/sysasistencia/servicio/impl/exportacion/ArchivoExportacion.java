@@ -0,0 +1,60 @@
+package pe.edu.upeu.sysasistencia.servicio.impl.exportacion;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.time.LocalDateTime;
+
+/**
+ * Archivo de exportación guardado, ya abierto: si la caché lo desaloja mientras se descarga,
+ * la lectura continúa sobre el canal abierto.
+ */
+public class ArchivoExportacion implements Closeable {
+    private final FileChannel canal;
+    private final String etag;
+    private final long tamano;
+    private final LocalDateTime generado;
+
+    public ArchivoExportacion(FileChannel canal, String etag, long tamano, LocalDateTime generado) {
+        this.canal = canal;
+        this.etag = etag;
+        this.tamano = tamano;
+        this.generado = generado;
+    }
+
+    /**
+     * Copia el archivo con FileChannel.transferTo, sin pasar los bytes por buffers del heap
+     */
+    public void transferirA(OutputStream out) throws IOException {
+        WritableByteChannel destino = Channels.newChannel(out);
+        long posicion = 0;
+        while (posicion < tamano) {
+            long copiados = canal.transferTo(posicion, tamano - posicion, destino);
+            if (copiados == 0 && posicion >= canal.size()) {
+                throw new IOException("El archivo de exportación está incompleto");
+            }
+            posicion += copiados;
+        }
+        out.flush();
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public long getTamano() {
+        return tamano;
+    }
+
+    public LocalDateTime getGenerado() {
+        return generado;
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+}
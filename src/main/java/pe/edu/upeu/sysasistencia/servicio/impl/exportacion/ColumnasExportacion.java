@@ -0,0 +1,75 @@
+package pe.edu.upeu.sysasistencia.servicio.impl.exportacion;
+
+import pe.edu.upeu.sysasistencia.modelo.Matricula;
+import pe.edu.upeu.sysasistencia.modelo.Persona;
+import pe.edu.upeu.sysasistencia.servicio.impl.importacion.ColumnaMatricula;
+
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Las 20 columnas del padrón exportado (mismo orden y encabezados que la importación) y el texto
+ * de cada una. Lo comparten el Excel y el CSV, así ambos formatos exportan exactamente lo mismo.
+ */
+public final class ColumnasExportacion {
+    public static final int TOTAL = ColumnaMatricula.values().length;
+    public static final int ID_PERSONA = ColumnaMatricula.ID_PERSONA.ordinal();
+    public static final int FECHA_NACIMIENTO = ColumnaMatricula.FECHA_NACIMIENTO.ordinal();
+    public static final int FECHA_MATRICULA = ColumnaMatricula.FECHA_MATRICULA.ordinal();
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy h:mm a");
+
+    private ColumnasExportacion() {
+    }
+
+    public static String[] encabezados() {
+        ColumnaMatricula[] columnas = ColumnaMatricula.values();
+        String[] encabezados = new String[TOTAL];
+        for (int i = 0; i < TOTAL; i++) {
+            encabezados[i] = columnas[i].getEncabezado();
+        }
+        return encabezados;
+    }
+
+    /**
+     * Escribe en destino (20 posiciones, reutilizable entre filas) el texto de cada columna;
+     * los valores ausentes quedan como ""
+     */
+    public static void valores(Matricula m, String[] destino) {
+        textos(m, destino);
+        Persona p = m.getPersona();
+        destino[ID_PERSONA] = p != null ? p.getIdPersona().toString() : "";
+        destino[FECHA_NACIMIENTO] = p != null && p.getFechaNacimiento() != null
+                ? p.getFechaNacimiento().format(DATE_FORMATTER) : "";
+        destino[FECHA_MATRICULA] = m.getFechaMatricula() != null ? m.getFechaMatricula().format(DATETIME_FORMATTER) : "";
+    }
+
+    /**
+     * Como valores, pero solo las columnas de texto: ID_PERSONA, FECHA_NACIMIENTO y
+     * FECHA_MATRICULA quedan sin tocar para que el Excel las escriba con su tipo
+     */
+    public static void textos(Matricula m, String[] destino) {
+        Persona p = m.getPersona();
+        destino[0] = texto(m.getModoContrato());
+        destino[1] = texto(m.getModalidadEstudio());
+        destino[2] = m.getSede() != null ? texto(m.getSede().getNombre()) : "";
+        destino[3] = m.getFacultad() != null ? texto(m.getFacultad().getNombre()) : "";
+        destino[4] = m.getProgramaEstudio() != null ? texto(m.getProgramaEstudio().getNombre()) : "";
+        destino[5] = texto(m.getCiclo());
+        destino[6] = texto(m.getGrupo());
+        destino[8] = p != null ? texto(p.getCodigoEstudiante()) : "";
+        destino[9] = p != null ? texto(p.getNombreCompleto()) : "";
+        destino[10] = p != null ? texto(p.getDocumento()) : "";
+        destino[11] = p != null ? texto(p.getCorreo()) : "";
+        destino[12] = p != null && p.getUsuario() != null ? texto(p.getUsuario().getUser()) : "";
+        destino[13] = p != null ? texto(p.getCorreoInstitucional()) : "";
+        destino[14] = p != null ? texto(p.getCelular()) : "";
+        destino[15] = p != null ? texto(p.getPais()) : "";
+        destino[16] = p != null ? texto(p.getFoto()) : "";
+        destino[17] = p != null ? texto(p.getReligion()) : "";
+    }
+
+    private static String texto(String valor) {
+        return valor != null ? valor : "";
+    }
+}
@@ -0,0 +1,279 @@
+package pe.edu.upeu.sysasistencia.servicio.impl.exportacion;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampMilliVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.dictionary.Dictionary;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.DictionaryEncoding;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import pe.edu.upeu.sysasistencia.modelo.Matricula;
+import pe.edu.upeu.sysasistencia.modelo.Persona;
+import pe.edu.upeu.sysasistencia.modelo.TipoPersona;
+
+import java.io.Closeable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Escribe matrículas en formato Arrow IPC (stream) en lotes de FILAS_POR_LOTE filas: un vector por
+ * columna que se reutiliza entre lotes. Sede, facultad, programa, modalidad, ciclo y tipo de persona
+ * van codificados con diccionario (el texto se envía una vez y cada fila lleva un índice int32).
+ * Los diccionarios se escriben antes del primer lote, así que deben conocerse al crear el escritor;
+ * un valor que no esté en ellos se escribe como nulo y se cuenta en getSinDiccionario.
+ */
+public class EscritorArrow implements Closeable {
+    public static final int FILAS_POR_LOTE = 8192;
+
+    private final BufferAllocator allocator;
+    private final List<FieldVector> vectores = new ArrayList<>();
+    private final List<Columna> columnas = new ArrayList<>();
+    private final DictionaryProvider.MapDictionaryProvider diccionarios = new DictionaryProvider.MapDictionaryProvider();
+    private Salida salida;
+    private VectorSchemaRoot root;
+    private ArrowStreamWriter writer;
+    private boolean terminado;
+    private int filaLote;
+    private long filas;
+    private long sinDiccionario;
+
+    /**
+     * valoresDiccionario: valores conocidos de "sede", "facultad", "programa", "modalidad" y "ciclo"
+     */
+    public EscritorArrow(OutputStream out, BufferAllocator allocator, Map<String, List<String>> valoresDiccionario)
+            throws IOException {
+        this.allocator = allocator;
+        try {
+            entero("id_matricula", Matricula::getIdMatricula);
+            entero("id_persona", m -> persona(m, Persona::getIdPersona));
+            texto("codigo_estudiante", m -> persona(m, Persona::getCodigoEstudiante));
+            texto("nombre_completo", m -> persona(m, Persona::getNombreCompleto));
+            texto("documento", m -> persona(m, Persona::getDocumento));
+            texto("correo", m -> persona(m, Persona::getCorreo));
+            texto("correo_institucional", m -> persona(m, Persona::getCorreoInstitucional));
+            texto("celular", m -> persona(m, Persona::getCelular));
+            texto("usuario", m -> persona(m, p -> p.getUsuario() != null ? p.getUsuario().getUser() : null));
+            texto("pais", m -> persona(m, Persona::getPais));
+            texto("religion", m -> persona(m, Persona::getReligion));
+            texto("foto", m -> persona(m, Persona::getFoto));
+            fecha("fecha_nacimiento", m -> persona(m, Persona::getFechaNacimiento));
+            diccionario("tipo_persona", Arrays.stream(TipoPersona.values()).map(Enum::name).toList(),
+                    m -> persona(m, p -> p.getTipoPersona() != null ? p.getTipoPersona().name() : null));
+            diccionario("sede", valores(valoresDiccionario, "sede"),
+                    m -> m.getSede() != null ? m.getSede().getNombre() : null);
+            diccionario("facultad", valores(valoresDiccionario, "facultad"),
+                    m -> m.getFacultad() != null ? m.getFacultad().getNombre() : null);
+            diccionario("programa", valores(valoresDiccionario, "programa"),
+                    m -> m.getProgramaEstudio() != null ? m.getProgramaEstudio().getNombre() : null);
+            texto("modo_contrato", Matricula::getModoContrato);
+            diccionario("modalidad", valores(valoresDiccionario, "modalidad"), Matricula::getModalidadEstudio);
+            diccionario("ciclo", valores(valoresDiccionario, "ciclo"), Matricula::getCiclo);
+            texto("grupo", Matricula::getGrupo);
+            fechaHora("fecha_matricula", Matricula::getFechaMatricula);
+            texto("estado", Matricula::getEstado);
+
+            root = new VectorSchemaRoot(vectores);
+            root.allocateNew();
+            salida = new Salida(out);
+            writer = new ArrowStreamWriter(root, diccionarios, Channels.newChannel(salida));
+            writer.start();
+        } catch (IOException | RuntimeException e) {
+            liberar();
+            throw e;
+        }
+    }
+
+    public void fila(Matricula m) throws IOException {
+        for (Columna columna : columnas) {
+            columna.escribir(filaLote, m);
+        }
+        filas++;
+        if (++filaLote == FILAS_POR_LOTE) {
+            escribirLote();
+        }
+    }
+
+    /**
+     * Escribe el último lote y el fin del stream
+     */
+    public void terminar() throws IOException {
+        if (filaLote > 0) escribirLote();
+        writer.end();
+        terminado = true;
+    }
+
+    public long getFilas() {
+        return filas;
+    }
+
+    public long getSinDiccionario() {
+        return sinDiccionario;
+    }
+
+    @Override
+    public void close() {
+        liberar();
+    }
+
+    private void escribirLote() throws IOException {
+        root.setRowCount(filaLote);
+        writer.writeBatch();
+        // Conserva la capacidad ya reservada para el siguiente lote
+        for (FieldVector vector : vectores) {
+            vector.reset();
+        }
+        filaLote = 0;
+    }
+
+    private void liberar() {
+        if (writer != null) {
+            // close() escribe el fin del stream (si falta) y libera las copias de los diccionarios.
+            // Si no se terminó, el fin se descarta para que el cliente no tome por completo un stream cortado
+            if (!terminado) salida.descartar();
+            writer.close();
+        }
+        vectores.forEach(FieldVector::close);
+        for (long id : diccionarios.getDictionaryIds()) {
+            diccionarios.lookup(id).getVector().close();
+        }
+    }
+
+    private void entero(String nombre, Function<Matricula, Long> valor) {
+        BigIntVector vector = new BigIntVector(nombre, allocator);
+        agregar(vector, (fila, m) -> {
+            Long v = valor.apply(m);
+            if (v != null) vector.setSafe(fila, v); else vector.setNull(fila);
+        });
+    }
+
+    private void texto(String nombre, Function<Matricula, String> valor) {
+        VarCharVector vector = new VarCharVector(nombre, allocator);
+        agregar(vector, (fila, m) -> {
+            String v = valor.apply(m);
+            if (v != null) vector.setSafe(fila, v.getBytes(StandardCharsets.UTF_8)); else vector.setNull(fila);
+        });
+    }
+
+    private void fecha(String nombre, Function<Matricula, LocalDate> valor) {
+        DateDayVector vector = new DateDayVector(nombre, allocator);
+        agregar(vector, (fila, m) -> {
+            LocalDate v = valor.apply(m);
+            if (v != null) vector.setSafe(fila, (int) v.toEpochDay()); else vector.setNull(fila);
+        });
+    }
+
+    /**
+     * Timestamp sin zona: la hora local registrada, como milisegundos desde 1970-01-01T00:00
+     */
+    private void fechaHora(String nombre, Function<Matricula, LocalDateTime> valor) {
+        TimeStampMilliVector vector = new TimeStampMilliVector(nombre, allocator);
+        agregar(vector, (fila, m) -> {
+            LocalDateTime v = valor.apply(m);
+            if (v != null) vector.setSafe(fila, v.toInstant(ZoneOffset.UTC).toEpochMilli()); else vector.setNull(fila);
+        });
+    }
+
+    private void diccionario(String nombre, List<String> valores, Function<Matricula, String> valor) {
+        DictionaryEncoding codificacion = new DictionaryEncoding(diccionarios.getDictionaryIds().size(), false,
+                new ArrowType.Int(32, true));
+        VarCharVector textos = new VarCharVector(nombre, allocator);
+        Map<String, Integer> indices = new HashMap<>();
+        try {
+            textos.allocateNew(valores.size());
+            for (String v : valores) {
+                if (v == null || indices.containsKey(v)) continue;
+                textos.setSafe(indices.size(), v.getBytes(StandardCharsets.UTF_8));
+                indices.put(v, indices.size());
+            }
+            textos.setValueCount(indices.size());
+        } catch (RuntimeException e) {
+            textos.close();
+            throw e;
+        }
+        diccionarios.put(new Dictionary(textos, codificacion));
+
+        IntVector vector = new IntVector(nombre, new FieldType(true, new ArrowType.Int(32, true), codificacion), allocator);
+        agregar(vector, (fila, m) -> {
+            String v = valor.apply(m);
+            Integer indice = v != null ? indices.get(v) : null;
+            if (indice != null) {
+                vector.setSafe(fila, indice);
+            } else {
+                if (v != null) sinDiccionario++;
+                vector.setNull(fila);
+            }
+        });
+    }
+
+    private void agregar(FieldVector vector, Columna columna) {
+        vectores.add(vector);
+        columnas.add(columna);
+    }
+
+    private static <T> T persona(Matricula m, Function<Persona, T> valor) {
+        return m.getPersona() != null ? valor.apply(m.getPersona()) : null;
+    }
+
+    private static List<String> valores(Map<String, List<String>> valoresDiccionario, String columna) {
+        return valoresDiccionario.getOrDefault(columna, List.of());
+    }
+
+    /**
+     * Salida que no cierra el stream del llamador y que, tras descartar(), ignora lo que se escriba
+     */
+    private static class Salida extends FilterOutputStream {
+        private boolean descartada;
+
+        Salida(OutputStream out) {
+            super(out);
+        }
+
+        void descartar() {
+            descartada = true;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (!descartada) out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (!descartada) out.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (!descartada) out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Columna {
+        void escribir(int fila, Matricula m);
+    }
+}
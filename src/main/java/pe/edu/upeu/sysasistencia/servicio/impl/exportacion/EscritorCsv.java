@@ -0,0 +1,93 @@
+package pe.edu.upeu.sysasistencia.servicio.impl.exportacion;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Escritor CSV (RFC 4180) con un único buffer de caracteres reutilizado: los campos se copian
+ * al buffer con getChars y solo se entrega al OutputStream cuando se llena. Los campos con
+ * coma, comillas o saltos de línea van entre comillas dobles ("" como escape).
+ */
+public class EscritorCsv implements Flushable {
+    private static final char SEPARADOR = ',';
+
+    private final Writer salida;
+    private final char[] buffer;
+    private int posicion;
+
+    public EscritorCsv(OutputStream out, int tamanoBuffer) {
+        this.salida = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        this.buffer = new char[tamanoBuffer];
+    }
+
+    public void fila(String[] campos) throws IOException {
+        for (int i = 0; i < campos.length; i++) {
+            if (i > 0) escribir(SEPARADOR);
+            campo(campos[i]);
+        }
+        escribir('\r');
+        escribir('\n');
+    }
+
+    private void campo(String valor) throws IOException {
+        if (valor == null || valor.isEmpty()) return;
+        if (!requiereComillas(valor)) {
+            escribir(valor);
+            return;
+        }
+        escribir('"');
+        int inicio = 0;
+        for (int i = valor.indexOf('"'); i >= 0; i = valor.indexOf('"', i + 1)) {
+            escribir(valor, inicio, i + 1);
+            escribir('"');
+            inicio = i + 1;
+        }
+        escribir(valor, inicio, valor.length());
+        escribir('"');
+    }
+
+    private static boolean requiereComillas(String valor) {
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == SEPARADOR || c == '"' || c == '\n' || c == '\r') return true;
+        }
+        return false;
+    }
+
+    private void escribir(char c) throws IOException {
+        if (posicion == buffer.length) vaciar();
+        buffer[posicion++] = c;
+    }
+
+    private void escribir(String valor) throws IOException {
+        escribir(valor, 0, valor.length());
+    }
+
+    private void escribir(String valor, int desde, int hasta) throws IOException {
+        while (desde < hasta) {
+            if (posicion == buffer.length) vaciar();
+            int n = Math.min(hasta - desde, buffer.length - posicion);
+            valor.getChars(desde, desde + n, buffer, posicion);
+            posicion += n;
+            desde += n;
+        }
+    }
+
+    private void vaciar() throws IOException {
+        salida.write(buffer, 0, posicion);
+        posicion = 0;
+    }
+
+    /**
+     * Entrega lo pendiente al OutputStream (sin cerrarlo)
+     */
+    @Override
+    public void flush() throws IOException {
+        vaciar();
+        salida.flush();
+    }
+}
@@ -0,0 +1,103 @@
+package pe.edu.upeu.sysasistencia.servicio.impl.exportacion;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Escribe celdas con su tipo nativo: texto, número y fecha (serial de Excel con formato),
+ * en lugar de convertir todo a texto. Los vacíos quedan como celdas en blanco con borde.
+ * Lleva el largo máximo de cada columna para fijar el ancho al final sin autoSizeColumn,
+ * que mide cada celda con las fuentes de AWT.
+ */
+public class EscritorExcel {
+    public static final String FORMATO_FECHA = "dd/mm/yyyy";
+    public static final String FORMATO_FECHA_HORA = "dd/mm/yyyy h:mm AM/PM";
+
+    // Unidades de ancho de columna (1/256 de carácter) y margen que se agregaba a autoSizeColumn
+    private static final int UNIDADES_POR_CARACTER = 256;
+    private static final int MARGEN = 1000;
+    private static final int ANCHO_MAXIMO = 255 * 256;
+
+    private final Sheet sheet;
+    private final CellStyle texto;
+    private final CellStyle fecha;
+    private final CellStyle fechaHora;
+    private final int[] caracteres;
+    private Row fila;
+
+    public EscritorExcel(Sheet sheet, EstilosExcel estilos, int columnas) {
+        this.sheet = sheet;
+        this.texto = estilos.celda(null);
+        this.fecha = estilos.celda(FORMATO_FECHA);
+        this.fechaHora = estilos.celda(FORMATO_FECHA_HORA);
+        this.caracteres = new int[columnas];
+    }
+
+    public void fila(int indice) {
+        fila = sheet.createRow(indice);
+    }
+
+    public void texto(int columna, String valor) {
+        Cell cell = celda(columna, texto);
+        if (valor != null && !valor.isEmpty()) {
+            cell.setCellValue(valor);
+            medir(columna, valor.length());
+        }
+    }
+
+    public void numero(int columna, Long valor) {
+        Cell cell = celda(columna, texto);
+        if (valor != null) {
+            cell.setCellValue(valor);
+            medir(columna, Long.toString(valor).length());
+        }
+    }
+
+    public void fecha(int columna, LocalDate valor) {
+        Cell cell = celda(columna, fecha);
+        if (valor != null) {
+            cell.setCellValue(valor);
+            medir(columna, FORMATO_FECHA.length());
+        }
+    }
+
+    public void fechaHora(int columna, LocalDateTime valor) {
+        Cell cell = celda(columna, fechaHora);
+        if (valor != null) {
+            cell.setCellValue(valor);
+            medir(columna, FORMATO_FECHA_HORA.length());
+        }
+    }
+
+    /**
+     * Encabezado en la fila 0; también cuenta para el ancho
+     */
+    public void encabezado(String[] textos, CellStyle estilo) {
+        fila(0);
+        for (int i = 0; i < textos.length; i++) {
+            celda(i, estilo).setCellValue(textos[i]);
+            medir(i, textos[i].length());
+        }
+    }
+
+    public void ajustarAnchos() {
+        for (int i = 0; i < caracteres.length; i++) {
+            sheet.setColumnWidth(i, Math.min(ANCHO_MAXIMO, caracteres[i] * UNIDADES_POR_CARACTER + MARGEN));
+        }
+    }
+
+    private Cell celda(int columna, CellStyle estilo) {
+        Cell cell = fila.createCell(columna);
+        cell.setCellStyle(estilo);
+        return cell;
+    }
+
+    private void medir(int columna, int largo) {
+        if (largo > caracteres[columna]) caracteres[columna] = largo;
+    }
+}
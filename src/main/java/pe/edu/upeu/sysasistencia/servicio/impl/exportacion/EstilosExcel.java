@@ -0,0 +1,58 @@
+package pe.edu.upeu.sysasistencia.servicio.impl.exportacion;
+
+import org.apache.poi.ss.usermodel.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Estilos de un libro exportado, creados una sola vez por formato de número: todas las celdas
+ * del mismo tipo comparten el mismo CellStyle (un solo xf en styles.xml).
+ */
+public class EstilosExcel {
+    private final Workbook libro;
+    private final DataFormat formatos;
+    private final Map<String, CellStyle> celdas = new HashMap<>();
+    private CellStyle encabezado;
+
+    public EstilosExcel(Workbook libro) {
+        this.libro = libro;
+        this.formatos = libro.createDataFormat();
+    }
+
+    /**
+     * Celda con borde y el formato de número dado (null para General)
+     */
+    public CellStyle celda(String formato) {
+        return celdas.computeIfAbsent(formato == null ? "" : formato, f -> {
+            CellStyle style = conBorde(libro.createCellStyle());
+            style.setVerticalAlignment(VerticalAlignment.CENTER);
+            if (!f.isEmpty()) style.setDataFormat(formatos.getFormat(f));
+            return style;
+        });
+    }
+
+    public CellStyle encabezado() {
+        if (encabezado == null) {
+            encabezado = conBorde(libro.createCellStyle());
+            Font font = libro.createFont();
+            font.setBold(true);
+            font.setFontHeightInPoints((short) 11);
+            font.setColor(IndexedColors.WHITE.getIndex());
+            encabezado.setFont(font);
+            encabezado.setFillForegroundColor(IndexedColors.DARK_BLUE.getIndex());
+            encabezado.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+            encabezado.setAlignment(HorizontalAlignment.CENTER);
+            encabezado.setVerticalAlignment(VerticalAlignment.CENTER);
+        }
+        return encabezado;
+    }
+
+    private static CellStyle conBorde(CellStyle style) {
+        style.setBorderBottom(BorderStyle.THIN);
+        style.setBorderTop(BorderStyle.THIN);
+        style.setBorderLeft(BorderStyle.THIN);
+        style.setBorderRight(BorderStyle.THIN);
+        return style;
+    }
+}
@@ -0,0 +1,90 @@
+package pe.edu.upeu.sysasistencia.servicio.impl.exportacion;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceUnit;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import pe.edu.upeu.sysasistencia.modelo.*;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versión de los datos que entran en las exportaciones. Sube cada vez que se confirma
+ * (post-commit) una escritura de matrícula, persona o de las tablas cuyos nombres se exportan;
+ * un archivo generado con una versión anterior ya no se sirve.
+ * Empieza en la hora de arranque para que los ETag no se repitan entre reinicios.
+ */
+@Component
+public class VersionDatosExportacion implements PostCommitInsertEventListener,
+        PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+    private static final Set<Class<?>> EXPORTADAS = Set.of(
+            Matricula.class, Persona.class, Usuario.class, Sede.class, Facultad.class, ProgramaEstudio.class);
+
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void registrar() {
+        EventListenerRegistry registro = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registro.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registro.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registro.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    public long actual() {
+        return version.get();
+    }
+
+    public void cambio() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * Solo las entidades exportadas quedan pendientes hasta el commit
+     */
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return EXPORTADAS.contains(persister.getMappedClass());
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        cambio();
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        cambio();
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        cambio();
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+}
@@ -0,0 +1,28 @@
+package pe.edu.upeu.sysasistencia.servicio.impl.importacion;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Motivos por los que una fila no se importa. Los errores se agrupan por código
+ * (con los rangos de filas) en lugar de un mensaje por fila.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum CodigoErrorImportacion {
+    DATOS_ACADEMICOS_NO_ESPERADOS("Registro tiene datos académicos pero el filtro no es ESTUDIANTE", ResultadoFila.Tipo.CAMPO_INVALIDO),
+    DATOS_ACADEMICOS_INCOMPLETOS("Filtro es ESTUDIANTE pero registro no tiene datos académicos completos", ResultadoFila.Tipo.CAMPO_INVALIDO),
+    DOCUMENTO_VACIO("Documento vacío - registro omitido", ResultadoFila.Tipo.CAMPO_INVALIDO),
+    NOMBRE_VACIO("Nombre completo vacío - registro omitido", ResultadoFila.Tipo.CAMPO_INVALIDO),
+    UNIDAD_ACADEMICA_VACIA("Unidad académica vacía - registro omitido", ResultadoFila.Tipo.CAMPO_INVALIDO),
+    SEDE_NO_COINCIDE("Sede no coincide con filtros", ResultadoFila.Tipo.CAMPO_INVALIDO),
+    FACULTAD_NO_COINCIDE("Facultad no coincide con filtros", ResultadoFila.Tipo.CAMPO_INVALIDO),
+    PROGRAMA_NO_COINCIDE("Programa no coincide con filtros", ResultadoFila.Tipo.CAMPO_INVALIDO),
+    DOCUMENTO_DUPLICADO("Persona con el documento ya existe - registro omitido", ResultadoFila.Tipo.OMITIDO_DUPLICADO),
+    DOCUMENTO_REPETIDO_EN_ARCHIVO("Documento repetido en el archivo - registro omitido", ResultadoFila.Tipo.OMITIDO_DUPLICADO),
+    CODIGO_DUPLICADO("Código estudiante ya registrado", ResultadoFila.Tipo.OMITIDO_DUPLICADO),
+    ERROR_PROCESAMIENTO("Error al guardar el registro", ResultadoFila.Tipo.ERROR);
+
+    private final String mensaje;
+    private final ResultadoFila.Tipo tipo;
+}
@@ -0,0 +1,73 @@
+package pe.edu.upeu.sysasistencia.servicio.impl.importacion;
+
+import lombok.Getter;
+
+import java.text.Normalizer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnas conocidas del padrón de matrículas (importación y exportación).
+ * El orden del enum es el layout histórico de 20 columnas del Excel.
+ */
+@Getter
+public enum ColumnaMatricula {
+    MODO_CONTRATO("Modo contrato", TipoDato.TEXTO, "modo de contrato", "contrato"),
+    MODALIDAD_ESTUDIO("Modalidad estudio", TipoDato.TEXTO, "modalidad", "modalidad de estudio"),
+    SEDE("Sede", TipoDato.TEXTO, "filial", "campus"),
+    FACULTAD("Unidad académica", TipoDato.TEXTO, "facultad", "unidad academica"),
+    PROGRAMA("Programa estudio", TipoDato.TEXTO, "programa", "programa de estudio", "programa de estudios", "escuela", "carrera"),
+    CICLO("Ciclo", TipoDato.TEXTO),
+    GRUPO("Grupo", TipoDato.TEXTO),
+    ID_PERSONA("id_persona", TipoDato.TEXTO, "id persona"),
+    CODIGO_ESTUDIANTE("Código estudiante", TipoDato.TEXTO, "codigo", "codigo de estudiante", "codigo universitario"),
+    NOMBRE_COMPLETO("Estudiante", TipoDato.TEXTO, "nombre completo", "nombres y apellidos", "apellidos y nombres", "nombre"),
+    DOCUMENTO("Documento", TipoDato.TEXTO, "dni", "nro documento", "numero de documento", "documento de identidad"),
+    CORREO("Correo", TipoDato.TEXTO, "email", "correo personal"),
+    USUARIO("Usuario", TipoDato.TEXTO, "username"),
+    CORREO_INSTITUCIONAL("Correo Institucional", TipoDato.TEXTO, "email institucional"),
+    CELULAR("Celular", TipoDato.TEXTO, "telefono", "movil"),
+    PAIS("Pais", TipoDato.TEXTO, "nacionalidad"),
+    FOTO("Foto", TipoDato.TEXTO),
+    RELIGION("Religión", TipoDato.TEXTO),
+    FECHA_NACIMIENTO("Fecha de nacimiento", TipoDato.FECHA, "fecha nacimiento"),
+    FECHA_MATRICULA("Fecha de matrícula", TipoDato.FECHA_HORA, "fecha matricula");
+
+    public enum TipoDato { TEXTO, FECHA, FECHA_HORA }
+
+    private static final Map<String, ColumnaMatricula> POR_ALIAS = new HashMap<>();
+
+    static {
+        for (ColumnaMatricula columna : values()) {
+            POR_ALIAS.put(normalizar(columna.encabezado), columna);
+            for (String alias : columna.aliases) {
+                POR_ALIAS.putIfAbsent(normalizar(alias), columna);
+            }
+        }
+    }
+
+    private final String encabezado;
+    private final TipoDato tipo;
+    private final List<String> aliases;
+
+    ColumnaMatricula(String encabezado, TipoDato tipo, String... aliases) {
+        this.encabezado = encabezado;
+        this.tipo = tipo;
+        this.aliases = List.of(aliases);
+    }
+
+    /**
+     * Busca la columna que corresponde a un encabezado del archivo.
+     * Ignora mayúsculas, tildes, signos y espacios repetidos.
+     */
+    public static ColumnaMatricula desdeEncabezado(String encabezado) {
+        if (encabezado == null) return null;
+        return POR_ALIAS.get(normalizar(encabezado));
+    }
+
+    static String normalizar(String texto) {
+        String sinTildes = Normalizer.normalize(texto, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return sinTildes.toLowerCase().replaceAll("[^a-z0-9]+", " ").trim();
+    }
+}
@@ -0,0 +1,95 @@
+package pe.edu.upeu.sysasistencia.servicio.impl.importacion;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * Conversión de textos de fecha del padrón (Excel/CSV) a tipos java.time
+ */
+@Slf4j
+public final class ConversorFechas {
+
+    // Formateadores para parsear fechas con hora.
+    // AM/PM se normaliza antes de parsear, por eso se usa Locale.ENGLISH
+    private static final DateTimeFormatter[] DATE_TIME_FORMATTERS = {
+            DateTimeFormatter.ofPattern("dd/MM/yyyy h:mm a", Locale.ENGLISH),
+            DateTimeFormatter.ofPattern("dd/MM/yyyy hh:mm a", Locale.ENGLISH),
+            DateTimeFormatter.ofPattern("dd/MM/yyyy H:mm", Locale.ENGLISH),
+            DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm", Locale.ENGLISH),
+            DateTimeFormatter.ofPattern("dd-MM-yyyy h:mm a", Locale.ENGLISH),
+            DateTimeFormatter.ofPattern("dd-MM-yyyy H:mm", Locale.ENGLISH),
+            DateTimeFormatter.ISO_LOCAL_DATE_TIME
+    };
+
+    // Formateadores para parsear solo fechas
+    private static final DateTimeFormatter[] DATE_FORMATTERS = {
+            DateTimeFormatter.ofPattern("dd/MM/yyyy"),
+            DateTimeFormatter.ofPattern("dd-MM-yyyy"),
+            DateTimeFormatter.ofPattern("yyyy-MM-dd")
+    };
+
+    private ConversorFechas() {
+    }
+
+    /**
+     * Parsear fecha (sin hora) con múltiples formatos
+     */
+    public static LocalDate parseFecha(String texto) {
+        if (texto == null || texto.isBlank()) return null;
+        String dateStr = texto.trim();
+
+        for (DateTimeFormatter formatter : DATE_FORMATTERS) {
+            try {
+                return LocalDate.parse(dateStr, formatter);
+            } catch (DateTimeParseException e) {
+                // Intentar con el siguiente formato
+            }
+        }
+
+        log.warn("No se pudo parsear la fecha: {}", dateStr);
+        return null;
+    }
+
+    /**
+     * Parsear fecha CON HORA
+     * Formatos soportados:
+     * - "07/08/2025 2:15 p. m."
+     * - "07/08/2025 14:15"
+     * - "07/08/2025" (solo fecha, a las 00:00)
+     */
+    public static LocalDateTime parseFechaHora(String texto) {
+        if (texto == null || texto.isBlank()) return null;
+
+        // Normalizar el texto (quitar espacios múltiples, estandarizar am/pm)
+        String dateTimeStr = texto.trim().replaceAll("\\s+", " ")
+                .replace("p. m.", "PM")
+                .replace("a. m.", "AM")
+                .replace("p.m.", "PM")
+                .replace("a.m.", "AM");
+
+        for (DateTimeFormatter formatter : DATE_TIME_FORMATTERS) {
+            try {
+                return LocalDateTime.parse(dateTimeStr, formatter);
+            } catch (DateTimeParseException e) {
+                // Intentar con el siguiente formato
+            }
+        }
+
+        // Si no tiene hora, intentar parsear solo la fecha
+        for (DateTimeFormatter formatter : DATE_FORMATTERS) {
+            try {
+                return LocalDate.parse(dateTimeStr, formatter).atStartOfDay();
+            } catch (DateTimeParseException e) {
+                // Intentar con el siguiente formato
+            }
+        }
+
+        log.warn("No se pudo parsear la fecha con hora: {}", dateTimeStr);
+        return null;
+    }
+}
@@ -0,0 +1,189 @@
+package pe.edu.upeu.sysasistencia.servicio.impl.importacion;
+
+import lombok.Getter;
+import pe.edu.upeu.sysasistencia.dtos.MatriculaExcelDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Plan de extracción de filas compilado a partir del encabezado del archivo.
+ * El encabezado se lee una sola vez; luego cada fila se extrae con una lista fija
+ * de pasos tipados que solo tocan las columnas que la importación utiliza.
+ */
+public class EsquemaImportacion {
+
+    /**
+     * Columnas que la importación necesita (id_persona se genera en BD, no se lee)
+     */
+    public static final Set<ColumnaMatricula> COLUMNAS_IMPORTADAS =
+            Collections.unmodifiableSet(EnumSet.complementOf(EnumSet.of(ColumnaMatricula.ID_PERSONA)));
+
+    public static final Set<ColumnaMatricula> COLUMNAS_OBLIGATORIAS =
+            Collections.unmodifiableSet(EnumSet.of(ColumnaMatricula.DOCUMENTO, ColumnaMatricula.NOMBRE_COMPLETO));
+
+    @FunctionalInterface
+    private interface Paso {
+        void aplicar(FilaFuente fila, MatriculaExcelDTO destino);
+    }
+
+    private final int[] indices;
+    private final Paso[] pasos;
+    @Getter
+    private final List<String> encabezadosIgnorados;
+    @Getter
+    private final boolean posicional;
+    // Encabezados de todas las columnas del archivo, para reproducir filas originales
+    @Getter
+    private final List<String> encabezados;
+
+    private EsquemaImportacion(int[] indices, List<String> encabezadosIgnorados, boolean posicional, List<String> encabezados) {
+        this.indices = indices;
+        this.encabezadosIgnorados = encabezadosIgnorados;
+        this.posicional = posicional;
+        this.encabezados = encabezados;
+
+        List<Paso> lista = new ArrayList<>();
+        for (ColumnaMatricula columna : COLUMNAS_IMPORTADAS) {
+            int indice = indices[columna.ordinal()];
+            if (indice >= 0) {
+                lista.add(paso(columna, indice));
+            }
+        }
+        this.pasos = lista.toArray(new Paso[0]);
+    }
+
+    /**
+     * Compila el esquema a partir de los textos del encabezado.
+     * Si ningún encabezado es reconocido se asume el layout histórico de 20 columnas.
+     */
+    public static EsquemaImportacion compilar(List<String> encabezados) {
+        int[] indices = new int[ColumnaMatricula.values().length];
+        Arrays.fill(indices, -1);
+        List<String> ignorados = new ArrayList<>();
+        boolean reconocido = false;
+
+        for (int i = 0; i < encabezados.size(); i++) {
+            String encabezado = encabezados.get(i);
+            if (encabezado == null || encabezado.isBlank()) continue;
+
+            ColumnaMatricula columna = ColumnaMatricula.desdeEncabezado(encabezado);
+            if (columna == null || indices[columna.ordinal()] >= 0) {
+                // Columna desconocida o repetida: se ignora (gana la primera aparición)
+                ignorados.add(encabezado.trim());
+                continue;
+            }
+            indices[columna.ordinal()] = i;
+            reconocido = true;
+        }
+
+        if (!reconocido) {
+            return posicional(encabezados);
+        }
+        List<String> textos = new ArrayList<>(encabezados.size());
+        for (String encabezado : encabezados) {
+            textos.add(encabezado != null ? encabezado.trim() : "");
+        }
+        return new EsquemaImportacion(indices, ignorados, false, textos);
+    }
+
+    /**
+     * Layout histórico: columnas 0-19 en el orden de {@link ColumnaMatricula}
+     */
+    private static EsquemaImportacion posicional(List<String> encabezadosArchivo) {
+        ColumnaMatricula[] columnas = ColumnaMatricula.values();
+        int[] indices = new int[columnas.length];
+        List<String> textos = new ArrayList<>();
+        for (int i = 0; i < Math.max(columnas.length, encabezadosArchivo.size()); i++) {
+            if (i < columnas.length) indices[i] = i;
+            String encabezado = i < encabezadosArchivo.size() ? encabezadosArchivo.get(i) : null;
+            textos.add(encabezado != null && !encabezado.isBlank() ? encabezado.trim()
+                    : i < columnas.length ? columnas[i].getEncabezado() : "");
+        }
+        return new EsquemaImportacion(indices, List.of(), true, textos);
+    }
+
+    /**
+     * Extrae los valores tipados de una fila según el plan compilado
+     */
+    public MatriculaExcelDTO extraer(FilaFuente fila) {
+        MatriculaExcelDTO destino = new MatriculaExcelDTO();
+        for (Paso paso : pasos) {
+            paso.aplicar(fila, destino);
+        }
+        return destino;
+    }
+
+    /**
+     * Textos de todas las celdas de la fila, tal como se leyeron (para el reporte de errores)
+     */
+    public String[] original(FilaFuente fila) {
+        String[] valores = new String[encabezados.size()];
+        for (int i = 0; i < valores.length; i++) {
+            valores[i] = fila.texto(i);
+        }
+        return valores;
+    }
+
+    /**
+     * Índice de la columna en el archivo, o -1 si no está presente
+     */
+    public int indice(ColumnaMatricula columna) {
+        return indices[columna.ordinal()];
+    }
+
+    public Map<ColumnaMatricula, Integer> getMapeo() {
+        Map<ColumnaMatricula, Integer> mapeo = new EnumMap<>(ColumnaMatricula.class);
+        for (ColumnaMatricula columna : ColumnaMatricula.values()) {
+            if (indices[columna.ordinal()] >= 0) {
+                mapeo.put(columna, indices[columna.ordinal()]);
+            }
+        }
+        return mapeo;
+    }
+
+    public List<ColumnaMatricula> getFaltantesObligatorias() {
+        List<ColumnaMatricula> faltantes = new ArrayList<>();
+        for (ColumnaMatricula columna : COLUMNAS_OBLIGATORIAS) {
+            if (indices[columna.ordinal()] < 0) faltantes.add(columna);
+        }
+        return faltantes;
+    }
+
+    private static Paso paso(ColumnaMatricula columna, int i) {
+        switch (columna) {
+            case MODO_CONTRATO: return texto(i, MatriculaExcelDTO::setModoContrato);
+            case MODALIDAD_ESTUDIO: return texto(i, MatriculaExcelDTO::setModalidadEstudio);
+            case SEDE: return texto(i, MatriculaExcelDTO::setSede);
+            case FACULTAD: return texto(i, MatriculaExcelDTO::setUnidadAcademica);
+            case PROGRAMA: return texto(i, MatriculaExcelDTO::setProgramaEstudio);
+            case CICLO: return texto(i, MatriculaExcelDTO::setCiclo);
+            case GRUPO: return texto(i, MatriculaExcelDTO::setGrupo);
+            case ID_PERSONA: return texto(i, MatriculaExcelDTO::setIdPersona);
+            case CODIGO_ESTUDIANTE: return texto(i, MatriculaExcelDTO::setCodigoEstudiante);
+            case NOMBRE_COMPLETO: return texto(i, MatriculaExcelDTO::setEstudiante);
+            case DOCUMENTO: return texto(i, MatriculaExcelDTO::setDocumento);
+            case CORREO: return texto(i, MatriculaExcelDTO::setCorreo);
+            case USUARIO: return texto(i, MatriculaExcelDTO::setUsuario);
+            case CORREO_INSTITUCIONAL: return texto(i, MatriculaExcelDTO::setCorreoInstitucional);
+            case CELULAR: return texto(i, MatriculaExcelDTO::setCelular);
+            case PAIS: return texto(i, MatriculaExcelDTO::setPais);
+            case FOTO: return texto(i, MatriculaExcelDTO::setFoto);
+            case RELIGION: return texto(i, MatriculaExcelDTO::setReligion);
+            case FECHA_NACIMIENTO: return (fila, d) -> d.setFechaNacimiento(fila.fecha(i));
+            case FECHA_MATRICULA: return (fila, d) -> d.setFechaMatricula(fila.fechaHora(i));
+            default: throw new IllegalArgumentException("Columna sin paso de extracción: " + columna);
+        }
+    }
+
+    private static Paso texto(int i, BiConsumer<MatriculaExcelDTO, String> setter) {
+        return (fila, destino) -> setter.accept(destino, fila.texto(i));
+    }
+}
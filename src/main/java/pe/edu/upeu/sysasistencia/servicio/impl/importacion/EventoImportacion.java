@@ -0,0 +1,33 @@
+package pe.edu.upeu.sysasistencia.servicio.impl.importacion;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Resultado de una fila para la auditoría y el reporte de errores. Se acumula por bloque y
+ * se envía solo cuando el bloque se confirma, así un bloque revertido no deja registros falsos.
+ */
+@Getter
+@RequiredArgsConstructor
+public class EventoImportacion {
+    private final int fila;
+    // CREADO, ACTUALIZADO, SIN_CAMBIOS o el código de error
+    private final String evento;
+    // null si la fila se importó
+    private final CodigoErrorImportacion codigo;
+    private final String documento;
+    // Mensaje de los errores inesperados; null en el resto
+    private final String detalle;
+
+    public static EventoImportacion de(int fila, ResultadoFila resultado, String documento) {
+        return new EventoImportacion(fila, resultado.getNombre(), resultado.getCodigo(), documento, null);
+    }
+
+    public static EventoImportacion error(int fila, CodigoErrorImportacion codigo, String documento, String detalle) {
+        return new EventoImportacion(fila, codigo.name(), codigo, documento, detalle);
+    }
+
+    public boolean esError() {
+        return codigo != null;
+    }
+}
@@ -0,0 +1,26 @@
+package pe.edu.upeu.sysasistencia.servicio.impl.importacion;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Acceso tipado a las celdas de una fila, independiente del formato de origen.
+ * Cada implementación lee la celda directamente en el tipo pedido.
+ */
+public interface FilaFuente {
+
+    /**
+     * Texto de la celda (sin espacios al inicio/fin) o null si está vacía
+     */
+    String texto(int columna);
+
+    /**
+     * Fecha de la celda o null si está vacía o no se puede interpretar
+     */
+    LocalDate fecha(int columna);
+
+    /**
+     * Fecha con hora de la celda o null si está vacía o no se puede interpretar
+     */
+    LocalDateTime fechaHora(int columna);
+}
@@ -0,0 +1,25 @@
+package pe.edu.upeu.sysasistencia.servicio.impl.importacion;
+
+import lombok.Getter;
+import pe.edu.upeu.sysasistencia.dtos.MatriculaExcelDTO;
+
+/**
+ * Fila ya extraída del archivo junto con su número de fila original
+ */
+@Getter
+public class FilaLeida {
+    private final int numeroFila;
+    private final MatriculaExcelDTO datos;
+    // Textos de las celdas tal como venían, para el reporte de errores (null al simular)
+    private final String[] original;
+
+    public FilaLeida(int numeroFila, MatriculaExcelDTO datos) {
+        this(numeroFila, datos, null);
+    }
+
+    public FilaLeida(int numeroFila, MatriculaExcelDTO datos, String[] original) {
+        this.numeroFila = numeroFila;
+        this.datos = datos;
+        this.original = original;
+    }
+}
@@ -0,0 +1,79 @@
+package pe.edu.upeu.sysasistencia.servicio.impl.importacion;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * FilaFuente sobre una fila de POI (usermodel). Se reutiliza fila a fila con {@link #sobre(Row)}.
+ */
+public class FilaPoi implements FilaFuente {
+    private Row row;
+
+    public FilaPoi sobre(Row row) {
+        this.row = row;
+        return this;
+    }
+
+    @Override
+    public String texto(int columna) {
+        Cell cell = celda(columna);
+        if (cell == null) return null;
+
+        CellType tipo = cell.getCellType() == CellType.FORMULA ? cell.getCachedFormulaResultType() : cell.getCellType();
+        switch (tipo) {
+            case STRING:
+                return cell.getStringCellValue().trim();
+            case NUMERIC:
+                if (DateUtil.isCellDateFormatted(cell)) {
+                    return cell.getLocalDateTimeCellValue().toLocalDate().toString();
+                }
+                return numeroComoTexto(cell.getNumericCellValue());
+            case BOOLEAN:
+                return String.valueOf(cell.getBooleanCellValue());
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public LocalDate fecha(int columna) {
+        LocalDateTime valor = fechaHora(columna);
+        return valor != null ? valor.toLocalDate() : null;
+    }
+
+    @Override
+    public LocalDateTime fechaHora(int columna) {
+        Cell cell = celda(columna);
+        if (cell == null) return null;
+
+        // Celda con formato de fecha/hora de Excel
+        if (cell.getCellType() == CellType.NUMERIC && DateUtil.isCellDateFormatted(cell)) {
+            return cell.getLocalDateTimeCellValue();
+        }
+        // Texto: intentar con los formatos conocidos
+        if (cell.getCellType() == CellType.STRING) {
+            return ConversorFechas.parseFechaHora(cell.getStringCellValue());
+        }
+        return null;
+    }
+
+    private Cell celda(int columna) {
+        return columna < 0 ? null : row.getCell(columna);
+    }
+
+    /**
+     * Documentos y códigos llegan como números; se escriben sin decimales ni notación científica
+     */
+    static String numeroComoTexto(double valor) {
+        if (valor == Math.rint(valor) && Math.abs(valor) < 1e15) {
+            return String.valueOf((long) valor);
+        }
+        return BigDecimal.valueOf(valor).stripTrailingZeros().toPlainString();
+    }
+}
@@ -0,0 +1,51 @@
+package pe.edu.upeu.sysasistencia.servicio.impl.importacion;
+
+import pe.edu.upeu.sysasistencia.dtos.ImportFilterDTO;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Huella (SHA-256) de los archivos subidos, usada como identidad de una importación
+ */
+public final class HuellaArchivo {
+
+    private HuellaArchivo() {
+    }
+
+    public static String sha256(Path archivo) throws IOException {
+        MessageDigest digest = nuevoDigest();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        try (FileChannel channel = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Clave de la importación: mismo archivo con los mismos filtros y modo
+     */
+    public static String clave(String hashArchivo, ImportFilterDTO filtros) {
+        return hashArchivo + "|" + filtros.getSedeId() + "|" + filtros.getFacultadId() + "|"
+                + filtros.getProgramaId() + "|" + filtros.getTipoPersona() + "|" + filtros.getModo()
+                + (filtros.isMultiple() ? "|multiple" : "");
+    }
+
+    private static MessageDigest nuevoDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
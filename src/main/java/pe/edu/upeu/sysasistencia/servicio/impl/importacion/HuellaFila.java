@@ -0,0 +1,59 @@
+package pe.edu.upeu.sysasistencia.servicio.impl.importacion;
+
+import pe.edu.upeu.sysasistencia.dtos.MatriculaExcelDTO;
+import pe.edu.upeu.sysasistencia.modelo.TipoPersona;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Hash estable (SHA-256) de los campos de una fila que se guardan en Persona y en Matricula.
+ * Se compara con el hash guardado para saber si una fila reimportada cambió.
+ */
+public final class HuellaFila {
+    private static final char SEPARADOR = '\u001F';
+
+    private HuellaFila() {
+    }
+
+    public static String persona(MatriculaExcelDTO datos, TipoPersona tipoPersona) {
+        return sha256(tipoPersona,
+                datos.getCodigoEstudiante(),
+                datos.getEstudiante(),
+                datos.getDocumento(),
+                datos.getCorreo(),
+                datos.getCorreoInstitucional(),
+                datos.getCelular(),
+                datos.getPais(),
+                datos.getFoto(),
+                datos.getReligion(),
+                datos.getFechaNacimiento());
+    }
+
+    public static String matricula(MatriculaExcelDTO datos) {
+        return sha256(datos.getSede(),
+                datos.getUnidadAcademica(),
+                datos.getProgramaEstudio(),
+                datos.getModoContrato(),
+                datos.getModalidadEstudio(),
+                datos.getCiclo(),
+                datos.getGrupo(),
+                datos.getFechaMatricula());
+    }
+
+    private static String sha256(Object... campos) {
+        StringBuilder sb = new StringBuilder(256);
+        for (Object campo : campos) {
+            if (campo != null) sb.append(campo);
+            sb.append(SEPARADOR);
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(sb.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package pe.edu.upeu.sysasistencia.servicio.impl.importacion;
+
+import lombok.Getter;
+import pe.edu.upeu.sysasistencia.dtos.EstadoControlDTO;
+import pe.edu.upeu.sysasistencia.dtos.EstadoImportacionDTO;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Importación registrada: el avance se actualiza por bloque confirmado, desde uno o
+ * varios hilos (unidades concurrentes)
+ */
+@Getter
+public class ImportacionEnCurso {
+    public static final String EN_PROCESO = "EN_PROCESO";
+    public static final String COMPLETADO = "COMPLETADO";
+    public static final String ERROR = "ERROR";
+
+    private final String id;
+    private final String nombreArchivo;
+    private final LocalDateTime inicio = LocalDateTime.now();
+    private final AtomicInteger procesadas = new AtomicInteger();
+    private final AtomicInteger exitosos = new AtomicInteger();
+    private final AtomicInteger fallidos = new AtomicInteger();
+    private volatile String estado = EN_PROCESO;
+    private volatile LocalDateTime fin;
+    private volatile String error;
+    // Filas fallidas, escritas mientras avanza; al terminar se guarda en archivoErrores
+    private final ReporteErrores reporteErrores = new ReporteErrores();
+    private volatile Path archivoErrores;
+
+    public ImportacionEnCurso(String id, String nombreArchivo) {
+        this.id = id;
+        this.nombreArchivo = nombreArchivo;
+    }
+
+    public void avanzar(ResultadoBloque bloque) {
+        procesadas.addAndGet(bloque.getTotal());
+        exitosos.addAndGet(bloque.getExitosos());
+        fallidos.addAndGet(bloque.getFallidos());
+    }
+
+    public void terminar(String estado, String error) {
+        this.error = error;
+        this.fin = LocalDateTime.now();
+        this.estado = estado;
+    }
+
+    public void setArchivoErrores(Path archivoErrores) {
+        this.archivoErrores = archivoErrores;
+    }
+
+    public boolean enProceso() {
+        return EN_PROCESO.equals(estado);
+    }
+
+    public EstadoImportacionDTO estado(EstadoControlDTO control) {
+        return new EstadoImportacionDTO(id, nombreArchivo, estado, inicio, fin,
+                procesadas.get(), exitosos.get(), fallidos.get(), error, control);
+    }
+}
@@ -0,0 +1,305 @@
+package pe.edu.upeu.sysasistencia.servicio.impl.importacion;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Lector CSV/TSV que lee el archivo por ventanas con lecturas posicionales del FileChannel.
+ * Cada registro solo guarda los límites de sus campos dentro de la ventana; el texto UTF-8
+ * se decodifica únicamente cuando se pide un campo, así las columnas no usadas no se copian.
+ * Si un registro queda cortado al final de la ventana, la ventana se desplaza hasta su inicio
+ * (o crece si el registro no entra) y se vuelve a leer. No se mapea el archivo: close() libera
+ * el canal y el temporal se puede borrar también en Windows, y no hay límite de 2 GB.
+ * Soporta comillas dobles ("" como escape), saltos de línea dentro de comillas, BOM y
+ * delimitador ',', ';' o tabulación (detectado en el encabezado).
+ */
+public class LectorCsv implements LectorFilas {
+    private static final byte COMILLA = '"';
+    private static final byte[] DELIMITADORES = {',', ';', '\t'};
+    private static final int TAMANO_VENTANA = 256 * 1024;
+
+    private final FileChannel canal;
+    private final long tamano;
+    private final byte delimitador;
+    private final Registro registro = new Registro();
+
+    private byte[] ventana;
+    // Desplazamiento en el archivo de ventana[0] y bytes válidos en la ventana
+    private long base;
+    private int llenos;
+    private boolean faltanDatos;
+
+    private int posicion;
+    private int numeroFila = 0;
+    private int[] inicios = new int[32];
+    private int[] fines = new int[32];
+    private boolean[] escapados = new boolean[32];
+    private int campos;
+    private byte[] auxiliar = new byte[256];
+
+    public LectorCsv(Path archivo) throws IOException {
+        this(archivo, TAMANO_VENTANA);
+    }
+
+    LectorCsv(Path archivo, int tamanoVentana) throws IOException {
+        this.ventana = new byte[tamanoVentana];
+        this.canal = FileChannel.open(archivo, StandardOpenOption.READ);
+        try {
+            this.tamano = canal.size();
+            cargar(0);
+            this.posicion = tieneBom() ? 3 : 0;
+            this.delimitador = detectarDelimitador();
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public List<String> encabezado() throws IOException {
+        List<String> encabezados = new ArrayList<>();
+        if (numeroFila == 0 && leerRegistro()) {
+            for (int i = 0; i < campos; i++) {
+                encabezados.add(registro.texto(i));
+            }
+        }
+        return encabezados;
+    }
+
+    @Override
+    public boolean siguiente() throws IOException {
+        if (numeroFila == 0) encabezado();
+        while (leerRegistro()) {
+            if (!registroVacio()) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public FilaFuente fila() {
+        return registro;
+    }
+
+    @Override
+    public int numeroFila() {
+        return numeroFila;
+    }
+
+    /**
+     * Desplazamiento en bytes del inicio del siguiente registro
+     */
+    @Override
+    public long posicion() {
+        return base + posicion;
+    }
+
+    @Override
+    public void reanudar(long posicion, int numeroFila) throws IOException {
+        if (posicion < 0 || posicion > tamano) {
+            throw new IOException("Posición de reanudación fuera del archivo: " + posicion);
+        }
+        // Salta directo al byte guardado: el prefijo ya procesado no se vuelve a leer
+        this.base = posicion;
+        this.llenos = 0;
+        this.posicion = 0;
+        this.numeroFila = numeroFila;
+        cargar(0);
+    }
+
+    public char getDelimitador() {
+        return (char) delimitador;
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    /**
+     * Lee un registro completo; si la ventana lo corta, la recarga desde su inicio y lo vuelve a leer
+     */
+    private boolean leerRegistro() throws IOException {
+        int inicioRegistro = posicion;
+        while (true) {
+            faltanDatos = false;
+            boolean leido = intentarRegistro();
+            if (!faltanDatos) return leido;
+            posicion = 0;
+            cargar(inicioRegistro);
+            inicioRegistro = 0;
+        }
+    }
+
+    /**
+     * Descarta la ventana antes de desde y completa el resto con el archivo; si desde es 0 y la
+     * ventana está llena, el registro no entra y la ventana se duplica
+     */
+    private void cargar(int desde) throws IOException {
+        if (desde == 0 && llenos == ventana.length) {
+            ventana = Arrays.copyOf(ventana, ventana.length * 2);
+        } else if (desde > 0) {
+            System.arraycopy(ventana, desde, ventana, 0, llenos - desde);
+            llenos -= desde;
+            base += desde;
+        }
+        ByteBuffer destino = ByteBuffer.wrap(ventana, llenos, ventana.length - llenos);
+        while (destino.hasRemaining() && base + llenos < tamano) {
+            int leidos = canal.read(destino, base + llenos);
+            if (leidos < 0) break;
+            llenos += leidos;
+        }
+    }
+
+    /**
+     * Si i está en la ventana; fuera de ella marca faltanDatos cuando el archivo sigue
+     */
+    private boolean hay(int i) {
+        if (i < llenos) return true;
+        if (base + llenos < tamano) faltanDatos = true;
+        return false;
+    }
+
+    private boolean intentarRegistro() {
+        if (!hay(posicion)) return false;
+        campos = 0;
+
+        while (true) {
+            int inicio;
+            int fin;
+            boolean escapado = false;
+
+            if (hay(posicion) && ventana[posicion] == COMILLA) {
+                inicio = ++posicion;
+                while (true) {
+                    if (!hay(posicion)) {
+                        fin = posicion;
+                        break;
+                    }
+                    if (ventana[posicion] == COMILLA) {
+                        if (hay(posicion + 1) && ventana[posicion + 1] == COMILLA) {
+                            escapado = true;
+                            posicion += 2;
+                            continue;
+                        }
+                        fin = posicion++;
+                        break;
+                    }
+                    posicion++;
+                }
+                // Descartar lo que haya entre la comilla de cierre y el delimitador
+                while (hay(posicion) && !finDeCampo(ventana[posicion])) posicion++;
+            } else {
+                inicio = posicion;
+                while (hay(posicion) && !finDeCampo(ventana[posicion])) posicion++;
+                fin = posicion;
+            }
+            agregarCampo(inicio, fin, escapado);
+
+            if (!hay(posicion)) break;
+            byte b = ventana[posicion++];
+            if (b == delimitador) continue;
+            if (b == '\r' && hay(posicion) && ventana[posicion] == '\n') posicion++;
+            break;
+        }
+        if (faltanDatos) return false;
+        numeroFila++;
+        return true;
+    }
+
+    private boolean finDeCampo(byte b) {
+        return b == delimitador || b == '\n' || b == '\r';
+    }
+
+    private boolean registroVacio() {
+        return campos == 1 && inicios[0] == fines[0];
+    }
+
+    private void agregarCampo(int inicio, int fin, boolean escapado) {
+        if (campos == inicios.length) {
+            inicios = Arrays.copyOf(inicios, campos * 2);
+            fines = Arrays.copyOf(fines, campos * 2);
+            escapados = Arrays.copyOf(escapados, campos * 2);
+        }
+        inicios[campos] = inicio;
+        fines[campos] = fin;
+        escapados[campos] = escapado;
+        campos++;
+    }
+
+    private boolean tieneBom() {
+        return llenos >= 3 && (ventana[0] & 0xFF) == 0xEF
+                && (ventana[1] & 0xFF) == 0xBB && (ventana[2] & 0xFF) == 0xBF;
+    }
+
+    /**
+     * Elige el delimitador más frecuente fuera de comillas en la primera línea (dentro de la primera ventana)
+     */
+    private byte detectarDelimitador() {
+        int[] conteo = new int[DELIMITADORES.length];
+        boolean enComillas = false;
+        for (int i = posicion; i < llenos; i++) {
+            byte b = ventana[i];
+            if (b == COMILLA) enComillas = !enComillas;
+            if (enComillas) continue;
+            if (b == '\n' || b == '\r') break;
+            for (int d = 0; d < DELIMITADORES.length; d++) {
+                if (b == DELIMITADORES[d]) conteo[d]++;
+            }
+        }
+        int mejor = 0;
+        for (int d = 1; d < DELIMITADORES.length; d++) {
+            if (conteo[d] > conteo[mejor]) mejor = d;
+        }
+        return DELIMITADORES[mejor];
+    }
+
+    /**
+     * Vista del registro actual; decodifica cada campo bajo demanda
+     */
+    private class Registro implements FilaFuente {
+
+        @Override
+        public String texto(int columna) {
+            if (columna < 0 || columna >= campos) return null;
+            int inicio = inicios[columna];
+            int longitud = fines[columna] - inicio;
+            if (longitud == 0) return null;
+            if (auxiliar.length < longitud) auxiliar = new byte[Math.max(longitud, auxiliar.length * 2)];
+
+            System.arraycopy(ventana, inicio, auxiliar, 0, longitud);
+            if (escapados[columna]) {
+                longitud = quitarEscapes(longitud);
+            }
+            String valor = new String(auxiliar, 0, longitud, StandardCharsets.UTF_8).trim();
+            return valor.isEmpty() ? null : valor;
+        }
+
+        @Override
+        public LocalDate fecha(int columna) {
+            return ConversorFechas.parseFecha(texto(columna));
+        }
+
+        @Override
+        public LocalDateTime fechaHora(int columna) {
+            return ConversorFechas.parseFechaHora(texto(columna));
+        }
+
+        private int quitarEscapes(int longitud) {
+            int j = 0;
+            for (int i = 0; i < longitud; i++) {
+                auxiliar[j++] = auxiliar[i];
+                if (auxiliar[i] == COMILLA && i + 1 < longitud && auxiliar[i + 1] == COMILLA) i++;
+            }
+            return j;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package pe.edu.upeu.sysasistencia.servicio.impl.importacion;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Lector secuencial de filas de un archivo de importación (Excel, CSV...).
+ * La primera fila del archivo es el encabezado; luego se avanza fila a fila con {@link #siguiente()}.
+ */
+public interface LectorFilas extends Closeable {
+
+    /**
+     * Textos del encabezado (primera fila del archivo)
+     */
+    List<String> encabezado() throws IOException;
+
+    /**
+     * Avanza a la siguiente fila de datos. Devuelve false al llegar al final.
+     */
+    boolean siguiente() throws IOException;
+
+    /**
+     * Fila actual; la instancia puede reutilizarse entre llamadas a {@link #siguiente()}
+     */
+    FilaFuente fila();
+
+    /**
+     * Número de la fila actual en el archivo (1 = encabezado)
+     */
+    int numeroFila();
+
+    /**
+     * Posición opaca justo después de la fila actual, para reanudar una importación
+     */
+    long posicion();
+
+    /**
+     * Continúa la lectura desde una posición obtenida con {@link #posicion()}, sin volver
+     * a leer las filas anteriores. Debe llamarse después de {@link #encabezado()}.
+     */
+    void reanudar(long posicion, int numeroFila) throws IOException;
+}
@@ -0,0 +1,372 @@
+package pe.edu.upeu.sysasistencia.servicio.impl.importacion;
+
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.CellValueRecordInterface;
+import org.apache.poi.hssf.record.DateWindow1904Record;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.ExtendedFormatRecord;
+import org.apache.poi.hssf.record.FormatRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.RecordFactoryInputStream;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.poifs.filesystem.DirectoryNode;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lector .xls (Excel 97-2003) en streaming: recorre los registros BIFF del libro con
+ * RecordFactoryInputStream, la misma capa de registros que usa HSSFEventFactory, pero en modo pull.
+ * No se construye el HSSFWorkbook: en memoria quedan la fila actual, los formatos y la tabla
+ * de textos compartidos (SST), igual que en {@link LectorXlsx}.
+ */
+public class LectorXls implements LectorFilas {
+    private final POIFSFileSystem fs;
+    private final InputStream flujo;
+    private final RecordFactoryInputStream registros;
+    private final Celdas fila = new Celdas();
+
+    // Datos globales del libro (antes de la primera hoja)
+    private SSTRecord textos;
+    private final List<Short> formatoPorXf = new ArrayList<>();
+    private final Map<Integer, String> formatos = new HashMap<>();
+    private boolean fecha1904;
+    private Boolean[] xfEsFecha = new Boolean[64];
+
+    private Record pendiente;
+    private int profundidad;
+    private boolean finHoja;
+    private int columnaFormulaTexto = -1;
+    private int indice = -1;
+    private int saltarHasta = -1;
+    private boolean filaPendiente;
+    private boolean encabezadoLeido;
+
+    public LectorXls(Path archivo, int hoja) throws IOException {
+        POIFSFileSystem abierto = new POIFSFileSystem(archivo.toFile(), true);
+        try {
+            this.flujo = abierto.createDocumentInputStream(flujoLibro(abierto.getRoot()));
+            this.registros = new RecordFactoryInputStream(flujo, false);
+            this.fs = abierto;
+            posicionarEnHoja(hoja);
+        } catch (IOException e) {
+            abierto.close();
+            throw e;
+        } catch (RuntimeException e) {
+            abierto.close();
+            throw new IOException("No se pudo leer el libro Excel 97-2003: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Nombres de las hojas en el orden en que aparecen en el archivo, leyendo solo los datos globales
+     */
+    public static List<String> nombresHojas(Path archivo) throws IOException {
+        try (POIFSFileSystem fs = new POIFSFileSystem(archivo.toFile(), true);
+             InputStream is = fs.createDocumentInputStream(flujoLibro(fs.getRoot()))) {
+            RecordFactoryInputStream registros = new RecordFactoryInputStream(is, false);
+            List<BoundSheetRecord> hojas = new ArrayList<>();
+            for (Record registro = registros.nextRecord(); registro != null && !(registro instanceof EOFRecord);
+                 registro = registros.nextRecord()) {
+                if (registro instanceof BoundSheetRecord) hojas.add((BoundSheetRecord) registro);
+            }
+            List<String> nombres = new ArrayList<>(hojas.size());
+            for (BoundSheetRecord hoja : BoundSheetRecord.orderByBofPosition(hojas)) {
+                nombres.add(hoja.getSheetname());
+            }
+            return nombres;
+        } catch (RuntimeException e) {
+            throw new IOException("No se pudo leer el libro Excel 97-2003: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<String> encabezado() throws IOException {
+        List<String> encabezados = new ArrayList<>();
+        if (encabezadoLeido) return encabezados;
+        encabezadoLeido = true;
+        if (!leerFila()) return encabezados;
+        if (indice != 0) {
+            // La hoja no tiene fila 1: la primera fila leída es de datos
+            filaPendiente = true;
+            return encabezados;
+        }
+        for (int i = 0; i <= fila.ultimaColumna; i++) {
+            encabezados.add(fila.texto(i));
+        }
+        return encabezados;
+    }
+
+    @Override
+    public boolean siguiente() throws IOException {
+        if (!encabezadoLeido) encabezado();
+        if (filaPendiente) {
+            filaPendiente = false;
+            if (indice > saltarHasta) return true;
+        }
+        return leerFila();
+    }
+
+    @Override
+    public FilaFuente fila() {
+        return fila;
+    }
+
+    @Override
+    public int numeroFila() {
+        return indice + 1;
+    }
+
+    /**
+     * Índice (base 0) de la fila actual, igual que en LectorXlsx
+     */
+    @Override
+    public long posicion() {
+        return indice;
+    }
+
+    /**
+     * Los registros no permiten saltar a una fila: las anteriores se recorren sin cargar sus celdas
+     */
+    @Override
+    public void reanudar(long posicion, int numeroFila) {
+        this.saltarHasta = (int) posicion;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flujo.close();
+        } finally {
+            fs.close();
+        }
+    }
+
+    /**
+     * Lee los registros globales (textos compartidos, formatos, sistema de fechas) y avanza hasta
+     * el inicio de la hoja pedida. Las hojas se cuentan en el orden del archivo, como en nombresHojas.
+     */
+    private void posicionarEnHoja(int hoja) throws IOException {
+        int hojaActual = -1;
+        Record registro;
+        while ((registro = registros.nextRecord()) != null) {
+            if (registro instanceof BOFRecord) {
+                if (profundidad++ == 0 && ((BOFRecord) registro).getType() != BOFRecord.TYPE_WORKBOOK
+                        && ++hojaActual == hoja) {
+                    return;
+                }
+            } else if (registro instanceof EOFRecord) {
+                profundidad--;
+            } else if (registro instanceof SSTRecord) {
+                textos = (SSTRecord) registro;
+            } else if (registro instanceof ExtendedFormatRecord) {
+                formatoPorXf.add(((ExtendedFormatRecord) registro).getFormatIndex());
+            } else if (registro instanceof FormatRecord) {
+                FormatRecord formato = (FormatRecord) registro;
+                formatos.put(formato.getIndexCode(), formato.getFormatString());
+            } else if (registro instanceof DateWindow1904Record) {
+                fecha1904 = ((DateWindow1904Record) registro).getWindowing() == 1;
+            }
+        }
+        throw new IOException("El libro no tiene la hoja " + hoja);
+    }
+
+    /**
+     * Agrupa los registros de celda consecutivos de una misma fila. El primer registro de la fila
+     * siguiente queda pendiente para la próxima llamada.
+     */
+    private boolean leerFila() {
+        fila.limpiar();
+        int actual = -1;
+        while (!finHoja) {
+            Record registro = pendiente != null ? pendiente : registros.nextRecord();
+            pendiente = null;
+            if (registro == null) {
+                finHoja = true;
+            } else if (registro instanceof BOFRecord) {
+                // Subflujo incrustado (gráfico) dentro de la hoja
+                profundidad++;
+            } else if (registro instanceof EOFRecord) {
+                finHoja = --profundidad == 0;
+            } else if (profundidad == 1 && registro instanceof StringRecord) {
+                // Resultado de texto de la fórmula anterior
+                if (columnaFormulaTexto >= 0) fila.ponerTexto(columnaFormulaTexto, ((StringRecord) registro).getString());
+                columnaFormulaTexto = -1;
+            } else if (profundidad == 1 && registro instanceof CellValueRecordInterface) {
+                int numero = ((CellValueRecordInterface) registro).getRow();
+                if (numero <= saltarHasta) continue;
+                if (actual >= 0 && numero != actual) {
+                    pendiente = registro;
+                    break;
+                }
+                if (poner((CellValueRecordInterface) registro)) actual = numero;
+            }
+        }
+        if (actual < 0) return false;
+        indice = actual;
+        return true;
+    }
+
+    /**
+     * Carga el valor de la celda; devuelve false si no tiene valor (en blanco o error)
+     */
+    private boolean poner(CellValueRecordInterface celda) {
+        int columna = celda.getColumn();
+        if (celda instanceof LabelSSTRecord) {
+            fila.ponerTexto(columna, textos.getString(((LabelSSTRecord) celda).getSSTIndex()).getString());
+        } else if (celda instanceof NumberRecord) {
+            fila.ponerNumero(columna, ((NumberRecord) celda).getValue(), celda.getXFIndex());
+        } else if (celda instanceof LabelRecord) {
+            fila.ponerTexto(columna, ((LabelRecord) celda).getValue());
+        } else if (celda instanceof BoolErrRecord) {
+            BoolErrRecord valor = (BoolErrRecord) celda;
+            if (!valor.isBoolean()) return false;
+            fila.ponerBooleano(columna, valor.getBooleanValue());
+        } else if (celda instanceof FormulaRecord) {
+            // Se usa el valor en caché de la fórmula
+            FormulaRecord formula = (FormulaRecord) celda;
+            CellType tipo = formula.getCachedResultTypeEnum();
+            if (tipo == CellType.NUMERIC) {
+                fila.ponerNumero(columna, formula.getValue(), celda.getXFIndex());
+            } else if (tipo == CellType.BOOLEAN) {
+                fila.ponerBooleano(columna, formula.getCachedBooleanValue());
+            } else if (formula.hasCachedResultString()) {
+                columnaFormulaTexto = columna;
+            } else {
+                return false;
+            }
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private boolean esFecha(int xf) {
+        if (xf >= xfEsFecha.length) xfEsFecha = Arrays.copyOf(xfEsFecha, Math.max(xf + 1, xfEsFecha.length * 2));
+        Boolean esFecha = xfEsFecha[xf];
+        if (esFecha == null) {
+            esFecha = false;
+            if (xf < formatoPorXf.size()) {
+                int indiceFormato = formatoPorXf.get(xf);
+                String formato = formatos.get(indiceFormato);
+                if (formato == null) formato = BuiltinFormats.getBuiltinFormat(indiceFormato);
+                esFecha = DateUtil.isADateFormat(indiceFormato, formato);
+            }
+            xfEsFecha[xf] = esFecha;
+        }
+        return esFecha;
+    }
+
+    private static String flujoLibro(DirectoryNode raiz) throws IOException {
+        if (raiz.hasEntry("Workbook")) return "Workbook";
+        // Excel 5/95
+        if (raiz.hasEntry("Book")) return "Book";
+        throw new IOException("El archivo no es un libro Excel 97-2003 (¿está protegido con contraseña?)");
+    }
+
+    /**
+     * Celdas de la fila actual; se reutiliza entre filas. Mismas conversiones que FilaPoi.
+     */
+    private class Celdas implements FilaFuente {
+        private static final byte TEXTO = 1;
+        private static final byte NUMERO = 2;
+        private static final byte BOOLEANO = 3;
+
+        private byte[] tipos = new byte[32];
+        private String[] textosCelda = new String[32];
+        private double[] numeros = new double[32];
+        private int[] xfs = new int[32];
+        private int ultimaColumna = -1;
+
+        void limpiar() {
+            Arrays.fill(tipos, 0, ultimaColumna + 1, (byte) 0);
+            Arrays.fill(textosCelda, 0, ultimaColumna + 1, null);
+            ultimaColumna = -1;
+        }
+
+        void ponerTexto(int columna, String valor) {
+            reservar(columna);
+            tipos[columna] = TEXTO;
+            textosCelda[columna] = valor;
+        }
+
+        void ponerNumero(int columna, double valor, int xf) {
+            reservar(columna);
+            tipos[columna] = NUMERO;
+            numeros[columna] = valor;
+            xfs[columna] = xf;
+        }
+
+        void ponerBooleano(int columna, boolean valor) {
+            reservar(columna);
+            tipos[columna] = BOOLEANO;
+            numeros[columna] = valor ? 1 : 0;
+        }
+
+        private void reservar(int columna) {
+            if (columna >= tipos.length) {
+                int tamano = Math.max(columna + 1, tipos.length * 2);
+                tipos = Arrays.copyOf(tipos, tamano);
+                textosCelda = Arrays.copyOf(textosCelda, tamano);
+                numeros = Arrays.copyOf(numeros, tamano);
+                xfs = Arrays.copyOf(xfs, tamano);
+            }
+            if (columna > ultimaColumna) ultimaColumna = columna;
+        }
+
+        @Override
+        public String texto(int columna) {
+            if (columna < 0 || columna > ultimaColumna) return null;
+            switch (tipos[columna]) {
+                case TEXTO:
+                    return textosCelda[columna].trim();
+                case NUMERO:
+                    if (esFecha(xfs[columna])) {
+                        return DateUtil.getLocalDateTime(numeros[columna], fecha1904).toLocalDate().toString();
+                    }
+                    return FilaPoi.numeroComoTexto(numeros[columna]);
+                case BOOLEANO:
+                    return String.valueOf(numeros[columna] == 1);
+                default:
+                    return null;
+            }
+        }
+
+        @Override
+        public LocalDate fecha(int columna) {
+            LocalDateTime valor = fechaHora(columna);
+            return valor != null ? valor.toLocalDate() : null;
+        }
+
+        @Override
+        public LocalDateTime fechaHora(int columna) {
+            if (columna < 0 || columna > ultimaColumna) return null;
+            if (tipos[columna] == NUMERO) {
+                return esFecha(xfs[columna]) ? DateUtil.getLocalDateTime(numeros[columna], fecha1904) : null;
+            }
+            if (tipos[columna] == TEXTO) {
+                return ConversorFechas.parseFechaHora(textosCelda[columna]);
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package pe.edu.upeu.sysasistencia.servicio.impl.importacion;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Lector XLSX en streaming: recorre el XML de la hoja con StAX (pull), fila a fila, sin construir
+ * el modelo del libro. El paquete se abre desde el archivo (OPCPackage, acceso aleatorio al zip),
+ * así en memoria solo quedan la fila actual, los estilos y la tabla de textos compartidos.
+ * Si la tabla de textos supera umbralTextosEnDisco se respalda en disco ({@link TextosCompartidosEnDisco}).
+ */
+public class LectorXlsx implements LectorFilas {
+    private static final XMLInputFactory XML_FACTORY = crearFactory();
+    private static final int CACHE_TEXTOS = 4096;
+
+    private final OPCPackage pkg;
+    private final IntFunction<String> textos;
+    private final TextosCompartidosEnDisco textosEnDisco;
+    private final StylesTable estilos;
+    private final InputStream hojaXml;
+    private final XMLStreamReader xml;
+    private final Celdas fila = new Celdas();
+
+    private Boolean[] estiloEsFecha = new Boolean[64];
+    private int indice = -1;
+    private int saltarHasta = -1;
+    private boolean filaPendiente;
+    private boolean encabezadoLeido;
+
+    public LectorXlsx(Path archivo, int hoja) throws IOException {
+        this(archivo, hoja, Long.MAX_VALUE);
+    }
+
+    public LectorXlsx(Path archivo, int hoja, long umbralTextosEnDisco) throws IOException {
+        OPCPackage abierto = null;
+        TextosCompartidosEnDisco enDisco = null;
+        try {
+            abierto = OPCPackage.open(archivo.toFile(), PackageAccess.READ);
+            XSSFReader reader = new XSSFReader(abierto);
+            PackagePart parteTextos = parteTextos(abierto);
+            if (parteTextos != null && parteTextos.getSize() > umbralTextosEnDisco) {
+                try (InputStream is = parteTextos.getInputStream()) {
+                    enDisco = new TextosCompartidosEnDisco(is, XML_FACTORY, CACHE_TEXTOS);
+                }
+                this.textos = enDisco::texto;
+            } else {
+                ReadOnlySharedStringsTable tabla = new ReadOnlySharedStringsTable(abierto, false);
+                this.textos = i -> tabla.getItemAt(i).getString();
+            }
+            this.textosEnDisco = enDisco;
+            this.estilos = reader.getStylesTable();
+            this.hojaXml = abrirHoja(reader, hoja);
+            this.xml = XML_FACTORY.createXMLStreamReader(hojaXml);
+            this.pkg = abierto;
+        } catch (Exception e) {
+            if (enDisco != null) enDisco.close();
+            if (abierto != null) abierto.revert();
+            if (e instanceof IOException) throw (IOException) e;
+            throw new IOException("No se pudo abrir el libro Excel: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<String> encabezado() throws IOException {
+        List<String> encabezados = new ArrayList<>();
+        if (encabezadoLeido) return encabezados;
+        encabezadoLeido = true;
+        if (!leerFila()) return encabezados;
+        if (indice != 0) {
+            // La hoja no tiene fila 1: la primera fila leída es de datos
+            filaPendiente = true;
+            return encabezados;
+        }
+        for (int i = 0; i <= fila.ultimaColumna; i++) {
+            encabezados.add(fila.texto(i));
+        }
+        return encabezados;
+    }
+
+    @Override
+    public boolean siguiente() throws IOException {
+        if (!encabezadoLeido) encabezado();
+        if (filaPendiente) {
+            filaPendiente = false;
+            if (indice > saltarHasta) return true;
+        }
+        return leerFila();
+    }
+
+    @Override
+    public FilaFuente fila() {
+        return fila;
+    }
+
+    @Override
+    public int numeroFila() {
+        return indice + 1;
+    }
+
+    /**
+     * Índice (base 0) de la fila actual; reanudar recorre la hoja hasta pasarlo
+     */
+    @Override
+    public long posicion() {
+        return indice;
+    }
+
+    /**
+     * El XML comprimido no permite saltar a un byte: las filas anteriores se recorren
+     * sin leer sus celdas hasta pasar la posición guardada
+     */
+    @Override
+    public void reanudar(long posicion, int numeroFila) {
+        this.saltarHasta = (int) posicion;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            xml.close();
+        } catch (XMLStreamException e) {
+            // Se cierra igual el flujo de la hoja
+        } finally {
+            hojaXml.close();
+            pkg.revert();
+            if (textosEnDisco != null) textosEnDisco.close();
+        }
+    }
+
+    /**
+     * Avanza hasta el siguiente elemento row (omitiendo las filas ya procesadas) y carga sus celdas
+     */
+    private boolean leerFila() throws IOException {
+        try {
+            while (xml.hasNext()) {
+                if (xml.next() != XMLStreamConstants.START_ELEMENT || !"row".equals(xml.getLocalName())) continue;
+
+                String r = xml.getAttributeValue(null, "r");
+                indice = r != null ? Integer.parseInt(r) - 1 : indice + 1;
+                if (indice <= saltarHasta) {
+                    saltarElemento();
+                    continue;
+                }
+                leerCeldas();
+                return true;
+            }
+            return false;
+        } catch (XMLStreamException e) {
+            throw new IOException("XML de hoja inválido: " + e.getMessage(), e);
+        }
+    }
+
+    private void leerCeldas() throws XMLStreamException {
+        fila.limpiar();
+        int columna = -1;
+        while (xml.hasNext()) {
+            int evento = xml.next();
+            if (evento == XMLStreamConstants.END_ELEMENT && "row".equals(xml.getLocalName())) return;
+            if (evento != XMLStreamConstants.START_ELEMENT || !"c".equals(xml.getLocalName())) continue;
+
+            String ref = xml.getAttributeValue(null, "r");
+            columna = ref != null ? columnaDeReferencia(ref) : columna + 1;
+            String tipo = xml.getAttributeValue(null, "t");
+            String estilo = xml.getAttributeValue(null, "s");
+            fila.poner(columna, tipo, estilo != null ? Integer.parseInt(estilo) : 0, leerValor());
+        }
+    }
+
+    /**
+     * Lee el contenido de una celda (v, o los t de un inlineStr) hasta su cierre
+     */
+    private String leerValor() throws XMLStreamException {
+        StringBuilder valor = null;
+        while (xml.hasNext()) {
+            int evento = xml.next();
+            if (evento == XMLStreamConstants.END_ELEMENT && "c".equals(xml.getLocalName())) break;
+            if (evento == XMLStreamConstants.START_ELEMENT) {
+                String nombre = xml.getLocalName();
+                if ("v".equals(nombre) || "t".equals(nombre)) {
+                    if (valor == null) valor = new StringBuilder();
+                    valor.append(xml.getElementText());
+                } else if ("f".equals(nombre) || "rPh".equals(nombre)) {
+                    // Fórmula (se usa el valor en caché) o guía fonética
+                    saltarElemento();
+                }
+            }
+        }
+        return valor != null ? valor.toString() : null;
+    }
+
+    private void saltarElemento() throws XMLStreamException {
+        int profundidad = 1;
+        while (profundidad > 0 && xml.hasNext()) {
+            int evento = xml.next();
+            if (evento == XMLStreamConstants.START_ELEMENT) profundidad++;
+            else if (evento == XMLStreamConstants.END_ELEMENT) profundidad--;
+        }
+    }
+
+    private boolean esFecha(int estilo) {
+        if (estilo >= estiloEsFecha.length) estiloEsFecha = Arrays.copyOf(estiloEsFecha, estilo * 2);
+        Boolean esFecha = estiloEsFecha[estilo];
+        if (esFecha == null) {
+            esFecha = false;
+            if (estilo < estilos.getNumCellStyles()) {
+                XSSFCellStyle cellStyle = estilos.getStyleAt(estilo);
+                esFecha = DateUtil.isADateFormat(cellStyle.getDataFormat(), cellStyle.getDataFormatString());
+            }
+            estiloEsFecha[estilo] = esFecha;
+        }
+        return esFecha;
+    }
+
+    static int columnaDeReferencia(String ref) {
+        int columna = 0;
+        for (int i = 0; i < ref.length(); i++) {
+            char ch = ref.charAt(i);
+            if (ch < 'A' || ch > 'Z') break;
+            columna = columna * 26 + (ch - 'A' + 1);
+        }
+        return columna - 1;
+    }
+
+    /**
+     * Parte sharedStrings.xml del paquete, o null si el libro no tiene textos compartidos
+     */
+    private static PackagePart parteTextos(OPCPackage pkg) throws Exception {
+        List<PackagePart> partes = pkg.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
+        return partes.isEmpty() ? null : partes.get(0);
+    }
+
+    private static InputStream abrirHoja(XSSFReader reader, int hoja) throws Exception {
+        XSSFReader.SheetIterator it = (XSSFReader.SheetIterator) reader.getSheetsData();
+        for (int i = 0; it.hasNext(); i++) {
+            InputStream is = it.next();
+            if (i == hoja) return is;
+            is.close();
+        }
+        throw new IOException("El libro no tiene la hoja " + hoja);
+    }
+
+    private static XMLInputFactory crearFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    /**
+     * Celdas de la fila actual; se reutiliza entre filas. Mismas conversiones que FilaPoi.
+     */
+    private class Celdas implements FilaFuente {
+        private String[] tipos = new String[32];
+        private int[] estilosCelda = new int[32];
+        private String[] valores = new String[32];
+        private int ultimaColumna = -1;
+
+        void limpiar() {
+            Arrays.fill(valores, 0, ultimaColumna + 1, null);
+            Arrays.fill(tipos, 0, ultimaColumna + 1, null);
+            ultimaColumna = -1;
+        }
+
+        void poner(int columna, String tipo, int estilo, String valor) {
+            if (columna >= valores.length) {
+                int tamano = Math.max(columna + 1, valores.length * 2);
+                tipos = Arrays.copyOf(tipos, tamano);
+                estilosCelda = Arrays.copyOf(estilosCelda, tamano);
+                valores = Arrays.copyOf(valores, tamano);
+            }
+            tipos[columna] = tipo;
+            estilosCelda[columna] = estilo;
+            valores[columna] = valor;
+            if (columna > ultimaColumna) ultimaColumna = columna;
+        }
+
+        @Override
+        public String texto(int columna) {
+            if (columna < 0 || columna > ultimaColumna || valores[columna] == null) return null;
+            String valor = valores[columna];
+            String tipo = tipos[columna];
+            if (tipo == null || "n".equals(tipo)) {
+                double numero = Double.parseDouble(valor);
+                if (esFecha(estilosCelda[columna])) {
+                    return DateUtil.getLocalDateTime(numero).toLocalDate().toString();
+                }
+                return FilaPoi.numeroComoTexto(numero);
+            }
+            switch (tipo) {
+                case "s":
+                    return textos.apply(Integer.parseInt(valor)).trim();
+                case "b":
+                    return String.valueOf("1".equals(valor));
+                case "e":
+                    return null;
+                default:
+                    // str (resultado de fórmula), inlineStr
+                    return valor.trim();
+            }
+        }
+
+        @Override
+        public LocalDate fecha(int columna) {
+            LocalDateTime valor = fechaHora(columna);
+            return valor != null ? valor.toLocalDate() : null;
+        }
+
+        @Override
+        public LocalDateTime fechaHora(int columna) {
+            if (columna < 0 || columna > ultimaColumna || valores[columna] == null) return null;
+            String tipo = tipos[columna];
+            if (tipo == null || "n".equals(tipo)) {
+                return esFecha(estilosCelda[columna]) ? DateUtil.getLocalDateTime(Double.parseDouble(valores[columna])) : null;
+            }
+            if ("b".equals(tipo) || "e".equals(tipo)) return null;
+            return ConversorFechas.parseFechaHora(texto(columna));
+        }
+    }
+}
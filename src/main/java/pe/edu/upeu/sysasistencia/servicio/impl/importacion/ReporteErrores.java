@@ -0,0 +1,156 @@
+package pe.edu.upeu.sysasistencia.servicio.impl.importacion;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.util.WorkbookUtil;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Libro con las filas que fallaron, escrito en streaming (SXSSF) mientras la importación avanza:
+ * solo la ventana de filas recientes queda en memoria, el resto va a un temporal comprimido.
+ * Cada unidad tiene su hoja con las celdas originales y, al final, la fila, el código y el
+ * mensaje de error; así el archivo corregido se puede volver a importar tal cual.
+ * El libro se crea recién con el primer error.
+ */
+public class ReporteErrores implements Closeable {
+    private static final int VENTANA = 100;
+    private static final int MAX_FILAS_HOJA = SpreadsheetVersion.EXCEL2007.getLastRowIndex();
+    private static final String[] COLUMNAS_ERROR = {"Fila", "Código de error", "Error"};
+
+    private SXSSFWorkbook libro;
+    private CellStyle estiloEncabezado;
+    private int filas;
+
+    /**
+     * Hoja de una unidad; se agrega al libro con su primera fila con error
+     */
+    public Hoja hoja(String nombre, List<String> encabezados) {
+        return new Hoja(nombre, encabezados);
+    }
+
+    public synchronized int getFilas() {
+        return filas;
+    }
+
+    /**
+     * Escribe el libro en un archivo temporal y libera los temporales de SXSSF.
+     * Devuelve null si no hubo filas con error.
+     */
+    public synchronized Path guardar() throws IOException {
+        if (libro == null) return null;
+        Path archivo = Files.createTempFile("errores-importacion-", ".xlsx");
+        try (OutputStream out = Files.newOutputStream(archivo)) {
+            libro.write(out);
+        } catch (IOException e) {
+            Files.deleteIfExists(archivo);
+            throw e;
+        } finally {
+            close();
+        }
+        return archivo;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (libro == null) return;
+        libro.dispose();
+        libro.close();
+        libro = null;
+    }
+
+    private SXSSFWorkbook libro() {
+        if (libro == null) {
+            libro = new SXSSFWorkbook(VENTANA);
+            libro.setCompressTempFiles(true);
+            estiloEncabezado = libro.createCellStyle();
+            Font negrita = libro.createFont();
+            negrita.setBold(true);
+            estiloEncabezado.setFont(negrita);
+        }
+        return libro;
+    }
+
+    public class Hoja {
+        private final String nombre;
+        private final List<String> encabezados;
+        private SXSSFSheet sheet;
+        private int siguienteFila;
+        private int partes;
+
+        private Hoja(String nombre, List<String> encabezados) {
+            this.nombre = nombre;
+            this.encabezados = encabezados;
+        }
+
+        /**
+         * Escribe las filas del bloque cuyo evento es un error. Bloque y eventos vienen
+         * ordenados por número de fila.
+         */
+        public void agregar(List<FilaLeida> bloque, List<EventoImportacion> eventos) {
+            synchronized (ReporteErrores.this) {
+                int j = 0;
+                for (EventoImportacion evento : eventos) {
+                    if (!evento.esError()) continue;
+                    while (j < bloque.size() && bloque.get(j).getNumeroFila() < evento.getFila()) j++;
+                    String[] original = j < bloque.size() && bloque.get(j).getNumeroFila() == evento.getFila()
+                            ? bloque.get(j).getOriginal() : null;
+                    escribir(original, evento);
+                }
+            }
+        }
+
+        private void escribir(String[] original, EventoImportacion evento) {
+            if (sheet == null || siguienteFila > MAX_FILAS_HOJA) {
+                nuevaHoja();
+            }
+            Row row = sheet.createRow(siguienteFila++);
+            int columnas = encabezados.size();
+            if (original != null) {
+                for (int i = 0; i < Math.min(columnas, original.length); i++) {
+                    if (original[i] != null) row.createCell(i).setCellValue(original[i]);
+                }
+            }
+            CodigoErrorImportacion codigo = evento.getCodigo();
+            row.createCell(columnas).setCellValue(evento.getFila());
+            row.createCell(columnas + 1).setCellValue(codigo.name());
+            row.createCell(columnas + 2).setCellValue(evento.getDetalle() != null
+                    ? codigo.getMensaje() + ": " + evento.getDetalle() : codigo.getMensaje());
+            filas++;
+        }
+
+        private void nuevaHoja() {
+            SXSSFWorkbook wb = libro();
+            partes++;
+            String base = nombre != null && !nombre.isBlank() ? nombre : "Errores";
+            String nombreHoja = WorkbookUtil.createSafeSheetName(partes > 1 ? base + " (" + partes + ")" : base);
+            for (int n = 2; wb.getSheet(nombreHoja) != null; n++) {
+                String sufijo = " " + n;
+                nombreHoja = WorkbookUtil.createSafeSheetName(
+                        base.substring(0, Math.min(base.length(), 31 - sufijo.length())) + sufijo);
+            }
+            sheet = wb.createSheet(nombreHoja);
+
+            Row encabezado = sheet.createRow(0);
+            for (int i = 0; i < encabezados.size(); i++) {
+                encabezado.createCell(i).setCellValue(encabezados.get(i));
+            }
+            for (int i = 0; i < COLUMNAS_ERROR.length; i++) {
+                encabezado.createCell(encabezados.size() + i).setCellValue(COLUMNAS_ERROR[i]);
+            }
+            for (int i = 0; i < encabezados.size() + COLUMNAS_ERROR.length; i++) {
+                encabezado.getCell(i).setCellStyle(estiloEncabezado);
+            }
+            siguienteFila = 1;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package pe.edu.upeu.sysasistencia.servicio.impl.importacion;
+
+import lombok.Getter;
+import pe.edu.upeu.sysasistencia.dtos.ImportResultDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado parcial de un bloque de filas. Se acumula aparte del ImportResultDTO
+ * para poder descartarlo si la transacción del bloque se revierte.
+ */
+@Getter
+public class ResultadoBloque {
+    private int total;
+    private int exitosos;
+    private int fallidos;
+    private int actualizados;
+    private int sinCambios;
+    private final ResumenErrores errores = new ResumenErrores();
+    private final List<String> warnings = new ArrayList<>();
+
+    public void registrar(int rowNum, ResultadoFila resultado) {
+        if (!resultado.esExito()) {
+            fallo(rowNum, resultado.getCodigo(), null);
+            return;
+        }
+        total++;
+        exitosos++;
+        if (resultado == ResultadoFila.ACTUALIZADO) actualizados++;
+        if (resultado == ResultadoFila.SIN_CAMBIOS) sinCambios++;
+    }
+
+    /**
+     * detalle solo se guarda como ejemplo del código (errores inesperados); puede ser null
+     */
+    public void fallo(int rowNum, CodigoErrorImportacion codigo, String detalle) {
+        total++;
+        fallidos++;
+        errores.agregar(codigo, rowNum, detalle);
+    }
+
+    public void warning(String mensaje) {
+        warnings.add(mensaje);
+    }
+
+    /**
+     * Agrega otro bloque a continuación de este (mantiene el orden de filas)
+     */
+    public ResultadoBloque combinar(ResultadoBloque siguiente) {
+        total += siguiente.total;
+        exitosos += siguiente.exitosos;
+        fallidos += siguiente.fallidos;
+        actualizados += siguiente.actualizados;
+        sinCambios += siguiente.sinCambios;
+        errores.combinar(siguiente.errores);
+        warnings.addAll(siguiente.warnings);
+        return this;
+    }
+
+    /**
+     * Suma los contadores al resultado y escribe el resumen de errores por código
+     */
+    public void aplicarA(ImportResultDTO result) {
+        result.setTotalRegistros(result.getTotalRegistros() + total);
+        result.setExitosos(result.getExitosos() + exitosos);
+        result.setFallidos(result.getFallidos() + fallidos);
+        result.setActualizados(result.getActualizados() + actualizados);
+        result.setSinCambios(result.getSinCambios() + sinCambios);
+        result.getResumenErrores().addAll(errores.resumen());
+        result.getErrores().addAll(errores.lineas());
+        result.getWarnings().addAll(warnings);
+    }
+}
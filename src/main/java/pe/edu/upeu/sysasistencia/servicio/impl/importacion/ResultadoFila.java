@@ -0,0 +1,52 @@
+package pe.edu.upeu.sysasistencia.servicio.impl.importacion;
+
+import lombok.Getter;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Resultado de procesar una fila, sin excepciones: importada (creada, actualizada o sin cambios)
+ * u omitida con un código. Las instancias son constantes, no se crea nada por fila.
+ */
+@Getter
+public final class ResultadoFila {
+
+    public enum Tipo {
+        OK,
+        OMITIDO_DUPLICADO,
+        CAMPO_INVALIDO,
+        ERROR
+    }
+
+    public static final ResultadoFila CREADO = new ResultadoFila("CREADO", Tipo.OK, null);
+    public static final ResultadoFila ACTUALIZADO = new ResultadoFila("ACTUALIZADO", Tipo.OK, null);
+    public static final ResultadoFila SIN_CAMBIOS = new ResultadoFila("SIN_CAMBIOS", Tipo.OK, null);
+
+    private static final Map<CodigoErrorImportacion, ResultadoFila> ERRORES = new EnumMap<>(CodigoErrorImportacion.class);
+
+    static {
+        for (CodigoErrorImportacion codigo : CodigoErrorImportacion.values()) {
+            ERRORES.put(codigo, new ResultadoFila(codigo.name(), codigo.getTipo(), codigo));
+        }
+    }
+
+    // CREADO, ACTUALIZADO, SIN_CAMBIOS o el nombre del código de error
+    private final String nombre;
+    private final Tipo tipo;
+    private final CodigoErrorImportacion codigo;
+
+    private ResultadoFila(String nombre, Tipo tipo, CodigoErrorImportacion codigo) {
+        this.nombre = nombre;
+        this.tipo = tipo;
+        this.codigo = codigo;
+    }
+
+    public static ResultadoFila error(CodigoErrorImportacion codigo) {
+        return ERRORES.get(codigo);
+    }
+
+    public boolean esExito() {
+        return tipo == Tipo.OK;
+    }
+}
@@ -0,0 +1,151 @@
+package pe.edu.upeu.sysasistencia.servicio.impl.importacion;
+
+import pe.edu.upeu.sysasistencia.dtos.ResumenErrorDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Filas omitidas agrupadas por código de error, guardadas como rangos de filas consecutivas.
+ * Mil duplicados seguidos ocupan un solo rango en vez de mil mensajes.
+ */
+public class ResumenErrores {
+    // Rangos que se escriben por código en el texto del resumen
+    private static final int MAX_RANGOS_TEXTO = 50;
+
+    private final Map<CodigoErrorImportacion, Rangos> porCodigo = new EnumMap<>(CodigoErrorImportacion.class);
+
+    public void agregar(CodigoErrorImportacion codigo, int fila, String detalle) {
+        Rangos rangos = porCodigo.computeIfAbsent(codigo, c -> new Rangos());
+        rangos.agregar(fila);
+        if (rangos.ejemplo == null && detalle != null) {
+            rangos.ejemplo = "Fila " + fila + ": " + detalle;
+        }
+    }
+
+    public void combinar(ResumenErrores otro) {
+        otro.porCodigo.forEach((codigo, rangos) -> {
+            Rangos propios = porCodigo.computeIfAbsent(codigo, c -> new Rangos());
+            propios.combinar(rangos);
+            if (propios.ejemplo == null) propios.ejemplo = rangos.ejemplo;
+        });
+    }
+
+    public boolean isEmpty() {
+        return porCodigo.isEmpty();
+    }
+
+    public int cantidad(CodigoErrorImportacion codigo) {
+        Rangos rangos = porCodigo.get(codigo);
+        return rangos != null ? rangos.cantidad() : 0;
+    }
+
+    public List<ResumenErrorDTO> resumen() {
+        List<ResumenErrorDTO> resumen = new ArrayList<>(porCodigo.size());
+        porCodigo.forEach((codigo, rangos) -> resumen.add(new ResumenErrorDTO(
+                codigo.name(), codigo.getMensaje(), rangos.cantidad(), rangos.texto(), rangos.ejemplo)));
+        return resumen;
+    }
+
+    /**
+     * Una línea por código, para ImportResultDTO.errores
+     */
+    public List<String> lineas() {
+        List<String> lineas = new ArrayList<>(porCodigo.size());
+        porCodigo.forEach((codigo, rangos) -> lineas.add(codigo.getMensaje() + " (" + rangos.cantidad()
+                + (rangos.cantidad() == 1 ? " fila" : " filas") + "): " + rangos.texto()));
+        return lineas;
+    }
+
+    /**
+     * Rangos [inicio, fin] ordenados y sin solapamiento. El caso normal (filas en orden)
+     * solo extiende el último rango o agrega uno al final.
+     */
+    static class Rangos {
+        private int[] inicios = new int[8];
+        private int[] fines = new int[8];
+        private int n;
+        private String ejemplo;
+
+        void agregar(int fila) {
+            if (n > 0 && fila == fines[n - 1] + 1) {
+                fines[n - 1] = fila;
+            } else if (n == 0 || fila > fines[n - 1] + 1) {
+                insertarEn(n, fila, fila);
+            } else {
+                agregarDesordenada(fila);
+            }
+        }
+
+        void combinar(Rangos otro) {
+            for (int i = 0; i < otro.n; i++) {
+                int inicio = otro.inicios[i];
+                int fin = otro.fines[i];
+                if (n == 0 || inicio > fines[n - 1] + 1) {
+                    insertarEn(n, inicio, fin);
+                } else if (inicio == fines[n - 1] + 1) {
+                    fines[n - 1] = fin;
+                } else {
+                    for (int fila = inicio; fila <= fin; fila++) agregar(fila);
+                }
+            }
+        }
+
+        int cantidad() {
+            int total = 0;
+            for (int i = 0; i < n; i++) total += fines[i] - inicios[i] + 1;
+            return total;
+        }
+
+        String texto() {
+            StringBuilder sb = new StringBuilder();
+            int limite = Math.min(n, MAX_RANGOS_TEXTO);
+            for (int i = 0; i < limite; i++) {
+                if (i > 0) sb.append(", ");
+                sb.append(inicios[i]);
+                if (fines[i] != inicios[i]) sb.append('-').append(fines[i]);
+            }
+            if (n > limite) sb.append(" … (+").append(n - limite).append(" rangos)");
+            return sb.toString();
+        }
+
+        private void agregarDesordenada(int fila) {
+            // Primer rango que empieza después de la fila
+            int i = Arrays.binarySearch(inicios, 0, n, fila);
+            if (i >= 0) return;
+            i = -i - 1;
+            int anterior = i - 1;
+            if (anterior >= 0 && fila <= fines[anterior]) return;
+
+            boolean unirAnterior = anterior >= 0 && fines[anterior] + 1 == fila;
+            boolean unirSiguiente = i < n && inicios[i] - 1 == fila;
+            if (unirAnterior && unirSiguiente) {
+                fines[anterior] = fines[i];
+                System.arraycopy(inicios, i + 1, inicios, i, n - i - 1);
+                System.arraycopy(fines, i + 1, fines, i, n - i - 1);
+                n--;
+            } else if (unirAnterior) {
+                fines[anterior] = fila;
+            } else if (unirSiguiente) {
+                inicios[i] = fila;
+            } else {
+                insertarEn(i, fila, fila);
+            }
+        }
+
+        private void insertarEn(int i, int inicio, int fin) {
+            if (n == inicios.length) {
+                inicios = Arrays.copyOf(inicios, n * 2);
+                fines = Arrays.copyOf(fines, n * 2);
+            }
+            System.arraycopy(inicios, i, inicios, i + 1, n - i);
+            System.arraycopy(fines, i, fines, i + 1, n - i);
+            inicios[i] = inicio;
+            fines[i] = fin;
+            n++;
+        }
+    }
+}
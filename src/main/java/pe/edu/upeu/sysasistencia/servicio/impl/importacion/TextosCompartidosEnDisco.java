@@ -0,0 +1,174 @@
+package pe.edu.upeu.sysasistencia.servicio.impl.importacion;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tabla de textos compartidos (sharedStrings.xml) respaldada en disco. Los textos se copian una vez
+ * en UTF-8 a un archivo temporal que luego se lee con lecturas posicionales; en el heap quedan solo los
+ * desplazamientos (4 bytes por texto) y un LRU pequeño con los textos más usados.
+ * No se mapea en memoria: en Windows un archivo mapeado no se puede borrar hasta que el GC libere el mapeo.
+ * Así el heap de un padrón con cientos de miles de nombres y correos únicos no crece con el archivo.
+ */
+public class TextosCompartidosEnDisco implements Closeable {
+    private final Path archivo;
+    private final FileChannel canal;
+    private final int[] desplazamientos;
+    private final int cantidad;
+    private final Map<Integer, String> recientes;
+
+    public TextosCompartidosEnDisco(InputStream sharedStringsXml, XMLInputFactory factory, int capacidadCache) throws IOException {
+        Path temporal = Files.createTempFile("textos-xlsx-", ".bin");
+        try {
+            int[] limites = new int[1024];
+            int total = 0;
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temporal), 64 * 1024)) {
+                XMLStreamReader xml = factory.createXMLStreamReader(sharedStringsXml);
+                try {
+                    long escritos = 0;
+                    StringBuilder texto = new StringBuilder();
+                    while (xml.hasNext()) {
+                        if (xml.next() != XMLStreamConstants.START_ELEMENT) continue;
+                        String nombre = xml.getLocalName();
+                        if ("sst".equals(nombre)) {
+                            // uniqueCount es solo una pista para el tamaño inicial
+                            int esperados = entero(xml.getAttributeValue(null, "uniqueCount"));
+                            limites = new int[Math.min(Math.max(1, esperados), 1 << 20) + 1];
+                        } else if ("si".equals(nombre)) {
+                            texto.setLength(0);
+                            leerTexto(xml, texto);
+                            byte[] bytes = texto.toString().getBytes(StandardCharsets.UTF_8);
+                            out.write(bytes);
+                            escritos += bytes.length;
+                            if (escritos > Integer.MAX_VALUE) {
+                                throw new IOException("La tabla de textos compartidos supera 2 GB");
+                            }
+                            if (total + 1 >= limites.length) limites = Arrays.copyOf(limites, limites.length * 2);
+                            limites[++total] = (int) escritos;
+                        }
+                    }
+                } finally {
+                    xml.close();
+                }
+            }
+            this.canal = FileChannel.open(temporal, StandardOpenOption.READ);
+            this.archivo = temporal;
+            this.desplazamientos = limites;
+            this.cantidad = total;
+            this.recientes = new LinkedHashMap<>(capacidadCache * 2, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+                    return size() > capacidadCache;
+                }
+            };
+        } catch (XMLStreamException e) {
+            Files.deleteIfExists(temporal);
+            throw new IOException("XML de textos compartidos inválido: " + e.getMessage(), e);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporal);
+            throw e;
+        }
+    }
+
+    /**
+     * Texto con el índice dado (atributo v de una celda t="s")
+     */
+    public String texto(int indice) {
+        if (indice < 0 || indice >= cantidad) {
+            throw new IllegalArgumentException("Índice de texto compartido fuera de rango: " + indice);
+        }
+        String texto = recientes.get(indice);
+        if (texto == null) {
+            int inicio = desplazamientos[indice];
+            byte[] bytes = new byte[desplazamientos[indice + 1] - inicio];
+            leer(inicio, bytes);
+            texto = new String(bytes, StandardCharsets.UTF_8);
+            recientes.put(indice, texto);
+        }
+        return texto;
+    }
+
+    public int getCantidad() {
+        return cantidad;
+    }
+
+    Path getArchivo() {
+        return archivo;
+    }
+
+    /**
+     * Cierra el canal antes de borrar el temporal, para que el borrado funcione también en Windows
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            canal.close();
+        } finally {
+            Files.deleteIfExists(archivo);
+        }
+    }
+
+    private void leer(long posicion, byte[] destino) {
+        ByteBuffer buffer = ByteBuffer.wrap(destino);
+        try {
+            while (buffer.hasRemaining()) {
+                if (canal.read(buffer, posicion + buffer.position()) < 0) {
+                    throw new IOException("Archivo de textos compartidos incompleto");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Concatena los t de un si (texto simple o runs con formato), sin la guía fonética
+     */
+    private static void leerTexto(XMLStreamReader xml, StringBuilder texto) throws XMLStreamException {
+        int profundidad = 1;
+        boolean fonetica = false;
+        while (profundidad > 0 && xml.hasNext()) {
+            int evento = xml.next();
+            if (evento == XMLStreamConstants.START_ELEMENT) {
+                String nombre = xml.getLocalName();
+                if ("rPh".equals(nombre)) {
+                    fonetica = true;
+                    profundidad++;
+                } else if ("t".equals(nombre) && !fonetica) {
+                    // getElementText consume el cierre de t
+                    texto.append(xml.getElementText());
+                } else {
+                    profundidad++;
+                }
+            } else if (evento == XMLStreamConstants.END_ELEMENT) {
+                if ("rPh".equals(xml.getLocalName())) fonetica = false;
+                profundidad--;
+            }
+        }
+    }
+
+    private static int entero(String valor) {
+        try {
+            return valor != null ? Integer.parseInt(valor) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
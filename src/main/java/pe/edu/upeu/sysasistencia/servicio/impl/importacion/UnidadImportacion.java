@@ -0,0 +1,177 @@
+package pe.edu.upeu.sysasistencia.servicio.impl.importacion;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import pe.edu.upeu.sysasistencia.excepciones.ArchivoDemasiadoGrandeException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Unidad independiente de una importación: una hoja de un libro o un archivo CSV/TSV.
+ * Cada unidad abre su propio lector, así varias unidades pueden procesarse en paralelo.
+ * El formato se detecta por los primeros bytes del archivo, no por la extensión.
+ */
+@Getter
+@RequiredArgsConstructor
+public class UnidadImportacion {
+    private final String nombre;
+    private final Path archivo;
+    private final Formato formato;
+    private final int hoja;
+    // Distingue el checkpoint de la unidad dentro del mismo archivo subido (vacío si es la única)
+    private final String sufijoClave;
+
+    public enum Formato { XLSX, XLS, DELIMITADO }
+
+    public static UnidadImportacion unica(Path archivo, String nombreArchivo) throws IOException {
+        return new UnidadImportacion(nombreArchivo, archivo, detectarFormato(archivo), 0, "");
+    }
+
+    /**
+     * umbralTextosEnDisco: tamaño de sharedStrings.xml (bytes) desde el cual un .xlsx guarda
+     * sus textos compartidos en disco en vez del heap
+     */
+    public LectorFilas abrir(long umbralTextosEnDisco) throws Exception {
+        switch (formato) {
+            case DELIMITADO: return new LectorCsv(archivo);
+            case XLS: return new LectorXls(archivo, hoja);
+            default: return new LectorXlsx(archivo, hoja, umbralTextosEnDisco);
+        }
+    }
+
+    /**
+     * OLE2 es un libro Excel 97-2003 (.xls) y OOXML un .xlsx; cualquier otro contenido se lee
+     * como texto delimitado. Así un CSV guardado como .xls, o un .xls renombrado, se leen bien.
+     */
+    public static Formato detectarFormato(Path archivo) throws IOException {
+        if (Files.size(archivo) < 8) return Formato.DELIMITADO;
+        FileMagic magic = FileMagic.valueOf(archivo.toFile());
+        if (magic == FileMagic.OLE2) return Formato.XLS;
+        if (magic == FileMagic.OOXML) return Formato.XLSX;
+        return Formato.DELIMITADO;
+    }
+
+    public String clave(String claveArchivo) {
+        return sufijoClave.isEmpty() ? claveArchivo : claveArchivo + "|" + sufijoClave;
+    }
+
+    /**
+     * Lista las unidades de un archivo subido: cada hoja de un libro, o cada libro/CSV dentro de un zip.
+     * Los archivos del zip se extraen a directorioTemporal; se corta con ArchivoDemasiadoGrandeException
+     * si el zip tiene más de maxEntradas entradas o si lo extraído supera maxBytes (zip bomb).
+     */
+    public static List<UnidadImportacion> listar(Path archivo, String nombreArchivo, Path directorioTemporal,
+                                                 long maxBytes, int maxEntradas) throws Exception {
+        List<UnidadImportacion> unidades = new ArrayList<>();
+        if (esZip(nombreArchivo)) {
+            try (ZipFile zip = new ZipFile(archivo.toFile())) {
+                Enumeration<? extends ZipEntry> entradas = zip.entries();
+                int indice = 0;
+                long extraidos = 0;
+                while (entradas.hasMoreElements()) {
+                    ZipEntry entrada = entradas.nextElement();
+                    String nombre = entrada.getName();
+                    indice++;
+                    if (indice > maxEntradas) {
+                        throw new ArchivoDemasiadoGrandeException("El zip tiene más de " + maxEntradas + " entradas");
+                    }
+                    if (entrada.isDirectory() || nombre.startsWith("__MACOSX/") || !esSoportado(nombre)) continue;
+
+                    Path destino = directorioTemporal.resolve("entrada-" + indice + extension(nombre));
+                    try (InputStream is = zip.getInputStream(entrada)) {
+                        extraidos = extraer(is, destino, extraidos, maxBytes);
+                    }
+                    agregarUnidades(unidades, destino, nombre, "e" + indice);
+                }
+            }
+        } else {
+            agregarUnidades(unidades, archivo, nombreArchivo, "");
+        }
+        return unidades;
+    }
+
+    /**
+     * Copia la entrada contando lo ya extraído del zip; no confía en el tamaño declarado en la entrada
+     */
+    private static long extraer(InputStream is, Path destino, long extraidos, long maxBytes) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        try (OutputStream out = Files.newOutputStream(destino)) {
+            int leidos;
+            while ((leidos = is.read(buffer)) != -1) {
+                extraidos += leidos;
+                if (extraidos > maxBytes) {
+                    throw new ArchivoDemasiadoGrandeException(
+                            "El contenido del zip supera el tamaño máximo permitido (" + maxBytes + " bytes)");
+                }
+                out.write(buffer, 0, leidos);
+            }
+        }
+        return extraidos;
+    }
+
+    private static void agregarUnidades(List<UnidadImportacion> unidades, Path archivo, String nombreArchivo,
+                                        String prefijo) throws Exception {
+        Formato formato = detectarFormato(archivo);
+        if (formato == Formato.DELIMITADO) {
+            unidades.add(new UnidadImportacion(nombreArchivo, archivo, formato, 0, prefijo));
+            return;
+        }
+        List<String> hojas = formato == Formato.XLS ? LectorXls.nombresHojas(archivo) : nombresHojas(archivo);
+        for (int i = 0; i < hojas.size(); i++) {
+            String sufijo = prefijo.isEmpty() ? "h" + i : prefijo + "h" + i;
+            unidades.add(new UnidadImportacion(nombreArchivo + " / " + hojas.get(i), archivo, formato, i, sufijo));
+        }
+    }
+
+    /**
+     * Nombres de las hojas leyendo solo workbook.xml (sin cargar el libro)
+     */
+    private static List<String> nombresHojas(Path archivo) throws Exception {
+        List<String> hojas = new ArrayList<>();
+        OPCPackage pkg = OPCPackage.open(archivo.toFile(), PackageAccess.READ);
+        try {
+            XSSFReader.SheetIterator it = (XSSFReader.SheetIterator) new XSSFReader(pkg).getSheetsData();
+            while (it.hasNext()) {
+                try (InputStream ignorada = it.next()) {
+                    hojas.add(it.getSheetName());
+                }
+            }
+        } finally {
+            // Solo lectura: revert() cierra sin intentar guardar
+            pkg.revert();
+        }
+        return hojas;
+    }
+
+    public static boolean esZip(String nombreArchivo) {
+        return nombreArchivo != null && nombreArchivo.toLowerCase().endsWith(".zip");
+    }
+
+    public static boolean esTextoDelimitado(String nombreArchivo) {
+        if (nombreArchivo == null) return false;
+        String nombre = nombreArchivo.toLowerCase();
+        return nombre.endsWith(".csv") || nombre.endsWith(".tsv");
+    }
+
+    private static boolean esSoportado(String nombreArchivo) {
+        String nombre = nombreArchivo.toLowerCase();
+        return esTextoDelimitado(nombreArchivo) || nombre.endsWith(".xlsx") || nombre.endsWith(".xls");
+    }
+
+    private static String extension(String nombreArchivo) {
+        return nombreArchivo.substring(nombreArchivo.lastIndexOf('.'));
+    }
+}
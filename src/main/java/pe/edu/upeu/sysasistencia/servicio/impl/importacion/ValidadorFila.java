@@ -0,0 +1,153 @@
+package pe.edu.upeu.sysasistencia.servicio.impl.importacion;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import pe.edu.upeu.sysasistencia.dtos.ImportFilterDTO;
+import pe.edu.upeu.sysasistencia.dtos.MatriculaExcelDTO;
+import pe.edu.upeu.sysasistencia.modelo.Facultad;
+import pe.edu.upeu.sysasistencia.modelo.ProgramaEstudio;
+import pe.edu.upeu.sysasistencia.modelo.Sede;
+import pe.edu.upeu.sysasistencia.modelo.TipoPersona;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reglas de validación de una fila, compartidas por la importación real y la simulación.
+ * Las entidades de los filtros se resuelven una sola vez por importación. La primera fila de
+ * cada documento y código se registra mientras se lee el archivo (un solo hilo); después la
+ * instancia solo se consulta y puede usarse desde varios hilos.
+ */
+@Getter
+@RequiredArgsConstructor
+public class ValidadorFila {
+    private final ImportFilterDTO filtros;
+    private final TipoPersona tipoPorDefecto;
+    private final Sede sedeFiltro;
+    private final Facultad facultadFiltro;
+    private final ProgramaEstudio programaFiltro;
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Integer> primeraFilaDocumento = new HashMap<>();
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Integer> primeraFilaCodigo = new HashMap<>();
+
+    /**
+     * Resultado de validar los campos de la fila: tipo de persona detectado o código de error
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class Resultado {
+        private final TipoPersona tipoPersona;
+        private final CodigoErrorImportacion error;
+
+        public boolean esValido() {
+            return error == null;
+        }
+    }
+
+    /**
+     * Detecta el tipo de persona y valida campos obligatorios y coherencia con el filtro de tipo
+     */
+    public Resultado validarCampos(MatriculaExcelDTO datos) {
+        TipoPersona tipoPersona = tipoPorDefecto;
+
+        // ✅ DETECCIÓN MEJORADA CON VALIDACIÓN DE FILTROS
+        boolean tieneDatosAcademicos = !vacio(datos.getModoContrato()) &&
+                !vacio(datos.getModalidadEstudio()) &&
+                !vacio(datos.getSede()) &&
+                !vacio(datos.getProgramaEstudio());
+
+        // Validar coherencia entre datos y filtros
+        if (tieneDatosAcademicos) {
+            if (filtros.getTipoPersona() != null && filtros.getTipoPersona() != TipoPersona.ESTUDIANTE) {
+                return new Resultado(null, CodigoErrorImportacion.DATOS_ACADEMICOS_NO_ESPERADOS);
+            }
+            tipoPersona = TipoPersona.ESTUDIANTE;
+        } else {
+            if (filtros.getTipoPersona() == TipoPersona.ESTUDIANTE) {
+                return new Resultado(null, CodigoErrorImportacion.DATOS_ACADEMICOS_INCOMPLETOS);
+            }
+            if (filtros.getTipoPersona() == null) {
+                tipoPersona = TipoPersona.INVITADO;
+            }
+        }
+
+        // Validaciones básicas - SOLO documento es obligatorio
+        if (vacio(datos.getDocumento())) {
+            return new Resultado(tipoPersona, CodigoErrorImportacion.DOCUMENTO_VACIO);
+        }
+
+        // Validar que nombreCompleto no esté vacío
+        if (vacio(datos.getEstudiante())) {
+            return new Resultado(tipoPersona, CodigoErrorImportacion.NOMBRE_VACIO);
+        }
+
+        return new Resultado(tipoPersona, null);
+    }
+
+    /**
+     * Valida sede, facultad y programa contra los filtros (solo para estudiantes).
+     * Devuelve null si la fila es coherente.
+     */
+    public CodigoErrorImportacion validarFiltros(MatriculaExcelDTO datos) {
+        if (sedeFiltro != null && !sedeFiltro.getNombre().equalsIgnoreCase(datos.getSede())) {
+            return CodigoErrorImportacion.SEDE_NO_COINCIDE;
+        }
+        if (facultadFiltro != null && !facultadFiltro.getNombre().equalsIgnoreCase(datos.getUnidadAcademica())) {
+            return CodigoErrorImportacion.FACULTAD_NO_COINCIDE;
+        }
+        if (facultadFiltro == null && vacio(datos.getUnidadAcademica())) {
+            return CodigoErrorImportacion.UNIDAD_ACADEMICA_VACIA;
+        }
+        if (programaFiltro != null && !programaFiltro.getNombre().equalsIgnoreCase(datos.getProgramaEstudio())) {
+            return CodigoErrorImportacion.PROGRAMA_NO_COINCIDE;
+        }
+        return null;
+    }
+
+    /**
+     * Registra una fila leída; se llama en el orden del archivo y antes de validarla
+     */
+    public void registrarLeida(int numeroFila, MatriculaExcelDTO datos) {
+        if (datos.getDocumento() != null) primeraFilaDocumento.putIfAbsent(datos.getDocumento(), numeroFila);
+        if (datos.getCodigoEstudiante() != null) primeraFilaCodigo.putIfAbsent(datos.getCodigoEstudiante(), numeroFila);
+    }
+
+    public Set<String> documentosLeidos() {
+        return Collections.unmodifiableSet(primeraFilaDocumento.keySet());
+    }
+
+    public Set<String> codigosLeidos() {
+        return Collections.unmodifiableSet(primeraFilaCodigo.keySet());
+    }
+
+    /**
+     * Solo la primera fila de cada documento se importa; las siguientes se omiten.
+     * Devuelve null si la fila es la primera con su documento.
+     */
+    public CodigoErrorImportacion validarRepetido(int numeroFila, MatriculaExcelDTO datos) {
+        Integer primera = primeraFilaDocumento.get(datos.getDocumento());
+        return primera != null && primera < numeroFila ? CodigoErrorImportacion.DOCUMENTO_REPETIDO_EN_ARCHIVO : null;
+    }
+
+    /**
+     * Para una persona nueva: el código no puede estar registrado ni aparecer en una fila anterior.
+     * Devuelve null si el código está libre.
+     */
+    public CodigoErrorImportacion validarCodigo(int numeroFila, MatriculaExcelDTO datos, Set<String> codigosExistentes) {
+        String codigo = datos.getCodigoEstudiante();
+        if (codigo == null) return null;
+        Integer primera = primeraFilaCodigo.get(codigo);
+        if (codigosExistentes.contains(codigo) || (primera != null && primera < numeroFila)) {
+            return CodigoErrorImportacion.CODIGO_DUPLICADO;
+        }
+        return null;
+    }
+
+    private static boolean vacio(String valor) {
+        return valor == null || valor.trim().isEmpty();
+    }
+}
@@ -0,0 +1,57 @@
+package pe.edu.upeu.sysasistencia.utils;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ejecuta una sola vez una tarea por clave: las llamadas concurrentes con la misma clave
+ * esperan el resultado de la que ya está en curso en lugar de repetir el trabajo.
+ */
+public class SingleFlight<K, V> {
+    private final ConcurrentHashMap<K, CompletableFuture<V>> enCurso = new ConcurrentHashMap<>();
+
+    public V ejecutar(K clave, Callable<V> tarea) throws Exception {
+        return ejecutar(clave, tarea, null);
+    }
+
+    /**
+     * Igual que ejecutar(clave, tarea), pero quien se une a una tarea en curso espera como
+     * máximo maxEspera y luego recibe TimeoutException (la tarea sigue para los demás).
+     */
+    public V ejecutar(K clave, Callable<V> tarea, Duration maxEspera) throws Exception {
+        CompletableFuture<V> nuevo = new CompletableFuture<>();
+        CompletableFuture<V> existente = enCurso.putIfAbsent(clave, nuevo);
+        if (existente != null) {
+            return esperar(existente, maxEspera);
+        }
+        try {
+            V valor = tarea.call();
+            nuevo.complete(valor);
+            return valor;
+        } catch (Throwable t) {
+            nuevo.completeExceptionally(t);
+            throw t;
+        } finally {
+            enCurso.remove(clave, nuevo);
+        }
+    }
+
+    public boolean estaEnCurso(K clave) {
+        return enCurso.containsKey(clave);
+    }
+
+    private V esperar(CompletableFuture<V> futuro, Duration maxEspera) throws Exception {
+        try {
+            return maxEspera != null ? futuro.get(maxEspera.toMillis(), TimeUnit.MILLISECONDS) : futuro.get();
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof Exception ex) throw ex;
+            if (causa instanceof Error err) throw err;
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package pe.edu.upeu.sysasistencia.utils;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Últimas N latencias (en nanosegundos) en un buffer circular sin bloqueos.
+ * Registrar es O(1); el percentil copia y ordena la ventana, pensado para consultarse pocas veces.
+ */
+public class VentanaLatencias {
+    private final AtomicLongArray muestras;
+    private final AtomicLongArray instantes;
+    private final AtomicLong contador = new AtomicLong();
+
+    public VentanaLatencias(int tamano) {
+        this.muestras = new AtomicLongArray(tamano);
+        this.instantes = new AtomicLongArray(tamano);
+    }
+
+    public void registrar(long nanos) {
+        int i = (int) (contador.getAndIncrement() % muestras.length());
+        muestras.set(i, nanos);
+        instantes.set(i, System.nanoTime());
+    }
+
+    /**
+     * Percentil (0-100) en nanosegundos de las muestras con antigüedad menor a maxEdadNanos.
+     * Devuelve 0 si hay menos de minMuestras (sin tráfico reciente no hay señal).
+     */
+    public long percentil(double p, long maxEdadNanos, int minMuestras) {
+        int n = (int) Math.min(contador.get(), muestras.length());
+        long limite = System.nanoTime() - maxEdadNanos;
+        long[] recientes = new long[n];
+        int m = 0;
+        for (int i = 0; i < n; i++) {
+            if (instantes.get(i) - limite >= 0) {
+                recientes[m++] = muestras.get(i);
+            }
+        }
+        if (m == 0 || m < minMuestras) return 0;
+        Arrays.sort(recientes, 0, m);
+        int indice = (int) Math.ceil(p / 100.0 * m) - 1;
+        return recientes[Math.max(0, Math.min(m - 1, indice))];
+    }
+}
@@ -0,0 +1,146 @@
+package pe.edu.upeu.sysasistencia.repositorio;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pe.edu.upeu.sysasistencia.dtos.ParticionExportacionDTO;
+import pe.edu.upeu.sysasistencia.modelo.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * El cursor usa su propia sesión y conexión, así que los datos se confirman antes de leerlos.
+ * H2 necesita NON_KEYWORDS=USER para crear upeu_usuario (columna user).
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cursor;NON_KEYWORDS=USER",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ActiveProfiles("test")
+public class IMatriculaRepositoryTest {
+
+    @Autowired
+    private IMatriculaRepository matriculaRepository;
+    @Autowired
+    private IPersonaRepository personaRepository;
+    @Autowired
+    private IUsuarioRepository usuarioRepository;
+    @Autowired
+    private ISedeRepository sedeRepository;
+    @Autowired
+    private IFacultadRepository facultadRepository;
+    @Autowired
+    private IProgramaEstudioRepository programaRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Sede sede;
+
+    @BeforeEach
+    public void setUp() {
+        sede = sedeRepository.save(Sede.builder().nombre("Sede Cursor").build());
+        Facultad facultad = facultadRepository.save(Facultad.builder().nombre("Facultad Cursor").build());
+        ProgramaEstudio programa = programaRepository.save(
+                ProgramaEstudio.builder().nombre("Programa Cursor").facultad(facultad).build());
+        Usuario usuario = usuarioRepository.save(
+                Usuario.builder().user("70000001").clave("x").estado("ACTIVO").build());
+
+        for (int i = 1; i <= 3; i++) {
+            Persona persona = personaRepository.save(Persona.builder()
+                    .nombreCompleto("Estudiante " + i)
+                    .documento("7000000" + i)
+                    .tipoPersona(i == 3 ? TipoPersona.INVITADO : TipoPersona.ESTUDIANTE)
+                    .usuario(i == 1 ? usuario : null)
+                    .build());
+            matriculaRepository.save(Matricula.builder().persona(persona).sede(sede).facultad(facultad)
+                    .programaEstudio(programa).ciclo("I").fechaMatricula(LocalDateTime.now()).build());
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        matriculaRepository.deleteAllInBatch();
+        personaRepository.deleteAllInBatch();
+        usuarioRepository.deleteAllInBatch();
+        programaRepository.deleteAllInBatch();
+        facultadRepository.deleteAllInBatch();
+        sedeRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("El cursor trae las asociaciones exportadas en una sola consulta")
+    public void testStreamByFiltros() {
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+
+        List<Matricula> leidas;
+        try (Stream<Matricula> matriculas = matriculaRepository.streamByFiltros(
+                sede.getIdSede(), null, null, TipoPersona.ESTUDIANTE)) {
+            leidas = matriculas.toList();
+        }
+
+        assertThat(leidas).hasSize(2);
+        assertThat(leidas).extracting(m -> m.getPersona().getNombreCompleto())
+                .containsExactlyInAnyOrder("Estudiante 1", "Estudiante 2");
+        assertThat(leidas).anySatisfy(m -> assertThat(m.getPersona().getUsuario().getUser()).isEqualTo("70000001"));
+        assertThat(leidas).allSatisfy(m -> {
+            assertThat(m.getSede().getNombre()).isEqualTo("Sede Cursor");
+            assertThat(m.getProgramaEstudio().getFacultad().getNombre()).isEqualTo("Facultad Cursor");
+        });
+        // Con el streaming de MySQL no se puede lanzar otra consulta mientras el cursor está abierto
+        assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("El padrón incluye a las personas sin matrícula, en una sola consulta")
+    public void testStreamPadron() {
+        Persona invitado = personaRepository.save(Persona.builder()
+                .nombreCompleto("Invitado sin matrícula").documento("70000009").tipoPersona(TipoPersona.INVITADO).build());
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+
+        List<Matricula> padron;
+        try (Stream<Matricula> filas = matriculaRepository.streamPadron(TipoPersona.INVITADO)) {
+            padron = filas.toList();
+        }
+
+        assertThat(padron).extracting(m -> m.getPersona().getNombreCompleto())
+                .containsExactlyInAnyOrder("Estudiante 3", "Invitado sin matrícula");
+        assertThat(padron).anySatisfy(m -> {
+            assertThat(m.getPersona().getIdPersona()).isEqualTo(invitado.getIdPersona());
+            assertThat(m.getIdMatricula()).isNull();
+            assertThat(m.getSede()).isNull();
+        });
+        assertThat(padron).anySatisfy(m -> {
+            assertThat(m.getSede().getNombre()).isEqualTo("Sede Cursor");
+            assertThat(m.getProgramaEstudio().getFacultad().getNombre()).isEqualTo("Facultad Cursor");
+        });
+        assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Contar las matrículas por programa para partir la exportación")
+    public void testContarPorPrograma() {
+        List<ParticionExportacionDTO> partes = matriculaRepository.contarPorPrograma(null, null, null, TipoPersona.ESTUDIANTE);
+
+        assertThat(partes).hasSize(1);
+        assertThat(partes.get(0).getNombre()).isEqualTo("Programa Cursor");
+        assertThat(partes.get(0).getFilas()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,87 @@
+package pe.edu.upeu.sysasistencia.servicio.impl;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pe.edu.upeu.sysasistencia.dtos.ResumenAuditoriaDTO;
+import pe.edu.upeu.sysasistencia.servicio.impl.importacion.CodigoErrorImportacion;
+import pe.edu.upeu.sysasistencia.servicio.impl.importacion.EventoImportacion;
+import pe.edu.upeu.sysasistencia.servicio.impl.importacion.ResultadoFila;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AuditoriaImportacionServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Escribir la auditoría en JSON lines y resumirla por importación")
+    public void testAuditoria() throws Exception {
+        AuditoriaImportacionService auditoria = new AuditoriaImportacionService(true, tempDir.toString(), 1024 * 1024, 100, 100, 1000, 10);
+        auditoria.iniciarEscritor();
+
+        auditoria.inicio("imp-1", "padron.xlsx");
+        auditoria.filas("imp-1", List.of(
+                EventoImportacion.de(2, ResultadoFila.CREADO, "70123456"),
+                EventoImportacion.de(3, ResultadoFila.error(CodigoErrorImportacion.DOCUMENTO_DUPLICADO), "70123456"),
+                EventoImportacion.error(4, CodigoErrorImportacion.ERROR_PROCESAMIENTO, "80001", "Dato \"inválido\"")));
+        auditoria.fin("imp-1", "COMPLETADO", "total=3");
+        auditoria.detenerEscritor();
+
+        ResumenAuditoriaDTO resumen = auditoria.resumen("imp-1");
+        assertThat(resumen.getNombreArchivo()).isEqualTo("padron.xlsx");
+        assertThat(resumen.getEstado()).isEqualTo("COMPLETADO");
+        assertThat(resumen.getRegistros()).isEqualTo(3);
+        assertThat(resumen.getEventos()).containsEntry("CREADO", 1L).containsEntry("DOCUMENTO_DUPLICADO", 1L);
+
+        List<String> lineas;
+        try (Stream<Path> archivos = Files.list(tempDir)) {
+            Path archivo = archivos.findFirst().orElseThrow();
+            lineas = Files.readAllLines(archivo);
+        }
+        assertThat(lineas).hasSize(5);
+        assertThat(lineas.get(3)).contains("\"evento\":\"ERROR_PROCESAMIENTO\"", "\"fila\":4",
+                "\"detalle\":\"Dato \\\"inválido\\\"\"");
+    }
+
+    @Test
+    @DisplayName("Rotar por bytes UTF-8, no por caracteres")
+    public void testRotacionBytesUtf8() throws Exception {
+        // Cada línea tiene menos de 200 caracteres pero más de 200 bytes
+        AuditoriaImportacionService auditoria = new AuditoriaImportacionService(true, tempDir.toString(), 200, 100, 100, 1000, 10);
+        auditoria.iniciarEscritor();
+        String detalle = "ñ".repeat(80);
+        auditoria.filas("imp-1", List.of(
+                EventoImportacion.error(2, CodigoErrorImportacion.ERROR_PROCESAMIENTO, "1", detalle),
+                EventoImportacion.error(3, CodigoErrorImportacion.ERROR_PROCESAMIENTO, "2", detalle)));
+        auditoria.detenerEscritor();
+
+        assertThat(auditoria.resumen("imp-1").getArchivos()).hasSize(2);
+        try (Stream<Path> archivos = Files.list(tempDir)) {
+            for (Path archivo : archivos.toList()) {
+                assertThat(Files.readAllLines(archivo)).hasSize(1);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Con la cola llena y sin escritor los registros se descartan y se cuentan, sin bloquear")
+    public void testColaLlena() {
+        AuditoriaImportacionService auditoria = new AuditoriaImportacionService(true, tempDir.toString(), 1024 * 1024, 1, 100, 1000, 10);
+
+        auditoria.filas("imp-1", List.of(
+                EventoImportacion.de(2, ResultadoFila.CREADO, "1"),
+                EventoImportacion.de(3, ResultadoFila.CREADO, "2"),
+                EventoImportacion.de(4, ResultadoFila.CREADO, "3")));
+
+        ResumenAuditoriaDTO resumen = auditoria.resumen("imp-1");
+        assertThat(resumen.getPendientes()).isEqualTo(1);
+        assertThat(resumen.getDescartados()).isEqualTo(2);
+    }
+}
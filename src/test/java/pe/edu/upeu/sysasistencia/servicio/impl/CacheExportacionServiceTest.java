@@ -0,0 +1,117 @@
+package pe.edu.upeu.sysasistencia.servicio.impl;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pe.edu.upeu.sysasistencia.servicio.impl.exportacion.ArchivoExportacion;
+import pe.edu.upeu.sysasistencia.servicio.impl.exportacion.VersionDatosExportacion;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CacheExportacionServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Reutilizar el archivo hasta que cambie la versión de los datos")
+    public void testVersionDatos() throws Exception {
+        VersionDatosExportacion version = new VersionDatosExportacion();
+        CacheExportacionService cache = new CacheExportacionService(version, tempDir.toString(), 1024 * 1024, 60);
+        cache.limpiarDirectorio();
+        AtomicInteger generaciones = new AtomicInteger();
+        CacheExportacionService.GeneradorArchivo generador = out -> {
+            generaciones.incrementAndGet();
+            out.write("datos".getBytes(StandardCharsets.UTF_8));
+        };
+
+        String etag;
+        try (ArchivoExportacion archivo = cache.obtenerOGenerar("xlsx|1", ".xlsx", generador)) {
+            etag = archivo.getEtag();
+            assertThat(etag).isEqualTo(cache.etag("xlsx|1"));
+        }
+        try (ArchivoExportacion archivo = cache.obtenerOGenerar("xlsx|1", ".xlsx", generador)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            archivo.transferirA(out);
+            assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("datos");
+        }
+        assertThat(generaciones).hasValue(1);
+
+        version.cambio();
+        assertThat(cache.etag("xlsx|1")).isNotEqualTo(etag);
+        cache.obtenerOGenerar("xlsx|1", ".xlsx", generador).close();
+        assertThat(generaciones).hasValue(2);
+        try (Stream<Path> archivos = Files.list(tempDir)) {
+            assertThat(archivos).hasSize(1);
+        }
+    }
+
+    @Test
+    @DisplayName("Desalojar el menos usado al superar el límite de bytes")
+    public void testLimiteBytes() throws Exception {
+        CacheExportacionService cache = new CacheExportacionService(new VersionDatosExportacion(), tempDir.toString(), 10, 60);
+        cache.limpiarDirectorio();
+        CacheExportacionService.GeneradorArchivo seisBytes = out -> out.write(new byte[6]);
+
+        cache.obtenerOGenerar("a", ".xlsx", seisBytes).close();
+        cache.obtenerOGenerar("b", ".xlsx", seisBytes).close();
+
+        assertThat(cache.getTotalBytes()).isEqualTo(6);
+        try (Stream<Path> archivos = Files.list(tempDir)) {
+            assertThat(archivos).hasSize(1);
+        }
+    }
+
+    @Test
+    @DisplayName("Solicitudes idénticas simultáneas esperan una sola generación")
+    public void testUnaSolaGeneracion() throws Exception {
+        CacheExportacionService cache = new CacheExportacionService(new VersionDatosExportacion(), tempDir.toString(), 1024 * 1024, 60);
+        cache.limpiarDirectorio();
+        AtomicInteger generaciones = new AtomicInteger();
+        CountDownLatch iniciada = new CountDownLatch(1);
+        CountDownLatch continuar = new CountDownLatch(1);
+        CacheExportacionService.GeneradorArchivo lento = out -> {
+            generaciones.incrementAndGet();
+            iniciada.countDown();
+            continuar.await();
+            out.write(new byte[3]);
+        };
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<Long> primera = pool.submit(() -> tamano(cache.obtenerOGenerar("zip", ".zip", lento)));
+            iniciada.await();
+            Future<Long> segunda = pool.submit(() -> tamano(cache.obtenerOGenerar("zip", ".zip", lento)));
+            while (!((ThreadPoolExecutor) pool).getQueue().isEmpty() || ((ThreadPoolExecutor) pool).getActiveCount() < 2) {
+                Thread.sleep(10);
+            }
+            continuar.countDown();
+
+            assertThat(primera.get(5, TimeUnit.SECONDS)).isEqualTo(3);
+            assertThat(segunda.get(5, TimeUnit.SECONDS)).isEqualTo(3);
+            assertThat(generaciones).hasValue(1);
+        } finally {
+            continuar.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    private static long tamano(ArchivoExportacion archivo) throws Exception {
+        try (archivo) {
+            return archivo.getTamano();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package pe.edu.upeu.sysasistencia.servicio.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import pe.edu.upeu.sysasistencia.dtos.CargaDTO;
+import pe.edu.upeu.sysasistencia.excepciones.ArchivoDemasiadoGrandeException;
+import pe.edu.upeu.sysasistencia.excepciones.CargaConflictoException;
+import pe.edu.upeu.sysasistencia.excepciones.CustomResponse;
+import pe.edu.upeu.sysasistencia.excepciones.RestExceptionHandler;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+public class CargaArchivoServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private CargaArchivoService cargaService;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        cargaService = new CargaArchivoService(tempDir.toString(), 1024, 24);
+    }
+
+    @Test
+    @DisplayName("Partes en orden: la carga está completa solo al recibir el tamaño declarado")
+    public void testPartesEnOrden() throws Exception {
+        CargaDTO carga = cargaService.iniciar("padron.csv", 10);
+
+        CargaDTO parcial = cargaService.agregar(carga.getId(), 0, parte("Docum"));
+        assertThat(parcial.getRecibidos()).isEqualTo(5);
+        assertThat(parcial.isCompleta()).isFalse();
+
+        CargaDTO completa = cargaService.agregar(carga.getId(), 5, parte("ento\n"));
+        assertThat(completa.getRecibidos()).isEqualTo(10);
+        assertThat(completa.isCompleta()).isTrue();
+
+        Path archivo = cargaService.archivoCompleto(carga.getId());
+        assertThat(Files.readString(archivo)).isEqualTo("Documento\n");
+    }
+
+    @Test
+    @DisplayName("Una parte con offset equivocado responde 409 con el Upload-Offset esperado")
+    public void testOffsetEquivocado() throws Exception {
+        CargaDTO carga = cargaService.iniciar("padron.csv", 10);
+        cargaService.agregar(carga.getId(), 0, parte("Docum"));
+
+        CargaConflictoException conflicto = catchThrowableOfType(CargaConflictoException.class,
+                () -> cargaService.agregar(carga.getId(), 3, parte("xxxxxxx")));
+        assertThat(conflicto.getRecibidos()).isEqualTo(5);
+        assertThat(cargaService.estado(carga.getId()).getRecibidos()).isEqualTo(5);
+
+        ResponseEntity<CustomResponse> respuesta = new RestExceptionHandler().handleCargaConflictoException(
+                conflicto, new ServletWebRequest(new MockHttpServletRequest()));
+        assertThat(respuesta.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(respuesta.getHeaders().getFirst("Upload-Offset")).isEqualTo("5");
+    }
+
+    @Test
+    @DisplayName("No se puede importar una carga incompleta ni pasar del tamaño declarado")
+    public void testCargaIncompleta() throws Exception {
+        CargaDTO carga = cargaService.iniciar("padron.csv", 10);
+        cargaService.agregar(carga.getId(), 0, parte("Docum"));
+
+        assertThatThrownBy(() -> cargaService.archivoCompleto(carga.getId()))
+                .isInstanceOf(CargaConflictoException.class)
+                .hasMessageContaining("5 de 10 bytes");
+
+        assertThatThrownBy(() -> cargaService.agregar(carga.getId(), 5, parte("ento\nextra")))
+                .isInstanceOf(ArchivoDemasiadoGrandeException.class);
+        assertThatThrownBy(() -> cargaService.iniciar("grande.csv", 2048))
+                .isInstanceOf(ArchivoDemasiadoGrandeException.class);
+    }
+
+    private static InputStream parte(String texto) {
+        return new ByteArrayInputStream(texto.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,57 @@
+package pe.edu.upeu.sysasistencia.servicio.impl;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pe.edu.upeu.sysasistencia.dtos.EstadoControlDTO;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ControlCargaImportacionTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private ControlCargaImportacion crear() {
+        // Bloque 50-500 (+50), hasta 4 bloques concurrentes, p99 objetivo 100 ms, espera máxima 20 ms
+        return new ControlCargaImportacion(null, true, 500, 50, 50, 4, 100, 20, 1000);
+    }
+
+    @Test
+    @DisplayName("La espera por conexión reduce a la mitad bloque y concurrencia")
+    public void testReduccionPorEsperaDeConexion() {
+        ControlCargaImportacion control = crear();
+        control.registrarBloque(500, MS, 500 * MS);
+        assertThat(control.tamanoBloque()).isEqualTo(500);
+
+        control.registrarBloque(500, 200 * MS, 500 * MS);
+
+        EstadoControlDTO estado = control.estado();
+        assertThat(estado.isCongestionado()).isTrue();
+        assertThat(estado.getTamanoBloque()).isEqualTo(250);
+        assertThat(estado.getParalelismo()).isEqualTo(2);
+        assertThat(estado.getReducciones()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Un p99 interactivo sobre el objetivo también es congestión; sin señales el bloque crece de a poco")
+    public void testP99InteractivoYRecuperacion() {
+        ControlCargaImportacion control = crear();
+        for (int i = 0; i < 30; i++) {
+            control.registrarInteractiva(300 * MS);
+        }
+        control.registrarBloque(500, 0, 500 * MS);
+        assertThat(control.estado().getMotivo()).isEqualTo("p99 interactivo sobre el objetivo");
+        assertThat(control.tamanoBloque()).isEqualTo(250);
+
+        ControlCargaImportacion sinTrafico = crear();
+        sinTrafico.registrarBloque(500, 200 * MS, 500 * MS);
+        assertThat(sinTrafico.tamanoBloque()).isEqualTo(250);
+        for (int i = 0; i < 20; i++) {
+            sinTrafico.registrarBloque(250, 0, 250 * MS);
+        }
+        assertThat(sinTrafico.estado().isCongestionado()).isFalse();
+        assertThat(sinTrafico.tamanoBloque()).isEqualTo(500);
+        assertThat(sinTrafico.estado().getParalelismo()).isEqualTo(4);
+    }
+}
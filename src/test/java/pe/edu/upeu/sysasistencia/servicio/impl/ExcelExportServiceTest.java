@@ -0,0 +1,50 @@
+package pe.edu.upeu.sysasistencia.servicio.impl;
+
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pe.edu.upeu.sysasistencia.modelo.*;
+import pe.edu.upeu.sysasistencia.servicio.impl.exportacion.ColumnasExportacion;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ExcelExportServiceTest {
+
+    @Test
+    @DisplayName("Id de persona como número, fechas como fechas y estilos compartidos")
+    public void testCeldasTipadas() throws Exception {
+        Persona persona = Persona.builder().idPersona(15L).nombreCompleto("Ana Pérez")
+                .fechaNacimiento(LocalDate.of(2001, 5, 20)).tipoPersona(TipoPersona.ESTUDIANTE).build();
+        Matricula matricula = Matricula.builder().persona(persona)
+                .sede(Sede.builder().nombre("Lima").build())
+                .fechaMatricula(LocalDateTime.of(2025, 3, 1, 8, 30)).build();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ExcelExportService().exportarMatriculasAExcel(List.of(matricula, matricula).iterator(), out);
+
+        try (XSSFWorkbook libro = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Row fila = libro.getSheetAt(0).getRow(1);
+            assertThat(fila.getCell(2).getStringCellValue()).isEqualTo("Lima");
+            assertThat(fila.getCell(ColumnasExportacion.ID_PERSONA).getNumericCellValue()).isEqualTo(15);
+            assertThat(DateUtil.isCellDateFormatted(fila.getCell(ColumnasExportacion.FECHA_NACIMIENTO))).isTrue();
+            assertThat(fila.getCell(ColumnasExportacion.FECHA_NACIMIENTO).getLocalDateTimeCellValue().toLocalDate())
+                    .isEqualTo(LocalDate.of(2001, 5, 20));
+            assertThat(fila.getCell(ColumnasExportacion.FECHA_MATRICULA).getLocalDateTimeCellValue())
+                    .isEqualTo(LocalDateTime.of(2025, 3, 1, 8, 30));
+            // Vacío: celda en blanco con el mismo estilo que el texto
+            assertThat(fila.getCell(0).getCellType()).isEqualTo(CellType.BLANK);
+            assertThat(fila.getCell(0).getCellStyle().getIndex()).isEqualTo(fila.getCell(2).getCellStyle().getIndex());
+            // Default + encabezado + texto + fecha + fecha y hora
+            assertThat(libro.getNumCellStyles()).isEqualTo(5);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package pe.edu.upeu.sysasistencia.servicio.impl;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pe.edu.upeu.sysasistencia.dtos.ArtefactoExportacionDTO;
+import pe.edu.upeu.sysasistencia.dtos.ParticionExportacionDTO;
+import pe.edu.upeu.sysasistencia.excepciones.ModelNotFoundException;
+import pe.edu.upeu.sysasistencia.modelo.Matricula;
+import pe.edu.upeu.sysasistencia.modelo.Persona;
+import pe.edu.upeu.sysasistencia.modelo.Sede;
+import pe.edu.upeu.sysasistencia.repositorio.IMatriculaRepository;
+import pe.edu.upeu.sysasistencia.servicio.impl.exportacion.ArchivoExportacion;
+import pe.edu.upeu.sysasistencia.servicio.impl.exportacion.VersionDatosExportacion;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class ExportacionProgramadaServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Un artefacto por sede, omitir si los datos no cambiaron y conservar solo las últimas versiones")
+    public void testGenerarYPodar() throws Exception {
+        IMatriculaRepository repo = mock(IMatriculaRepository.class);
+        given(repo.contarPorSede(null, null, null, null)).willReturn(List.of(
+                new ParticionExportacionDTO(1L, "Lima", 1L), new ParticionExportacionDTO(2L, "Juliaca", 1L)));
+        given(repo.streamByFiltros(any(), isNull(), isNull(), isNull())).willAnswer(inv -> Stream.of(
+                Matricula.builder().idMatricula(1L).persona(Persona.builder().idPersona(7L).nombreCompleto("Ana").build())
+                        .sede(Sede.builder().idSede(inv.getArgument(0)).nombre("Sede " + inv.getArgument(0)).build())
+                        .build()));
+        VersionDatosExportacion version = new VersionDatosExportacion();
+        ExportacionProgramadaService servicio = new ExportacionProgramadaService(repo, new ExcelExportService(),
+                new CsvExportService(), new ArrowExportService(repo), version,
+                List.of("csv:sede"), "", tempDir.toString(), 1);
+        servicio.iniciar();
+        try {
+            servicio.generarTodo(false);
+            servicio.generarTodo(false);
+            verify(repo, times(2)).streamByFiltros(any(), isNull(), isNull(), isNull());
+
+            // Puede caer en el mismo milisegundo que la anterior: la secuencia la distingue
+            version.cambio();
+            servicio.generarTodo(false);
+
+            List<ArtefactoExportacionDTO> artefactos = servicio.listar();
+            assertThat(artefactos).extracting(ArtefactoExportacionDTO::getConjunto)
+                    .containsExactlyInAnyOrder("csv-sede-1", "csv-sede-2");
+            assertThat(artefactos).extracting(ArtefactoExportacionDTO::getVersion)
+                    .allMatch(v -> v.matches("\\d{8}-\\d{9}-\\d{3}"));
+
+            ArtefactoExportacionDTO ultimo = servicio.buscar("csv-sede-2", null);
+            try (ArchivoExportacion archivo = servicio.abrir(ultimo)) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                archivo.transferirA(out);
+                assertThat(out.toString(StandardCharsets.UTF_8)).contains("Sede 2").contains("Ana");
+                assertThat(archivo.getEtag()).isEqualTo(ExportacionProgramadaService.etag(ultimo));
+            }
+            assertThatThrownBy(() -> servicio.buscar("csv-sede-3", null)).isInstanceOf(ModelNotFoundException.class);
+        } finally {
+            servicio.detener();
+        }
+    }
+}
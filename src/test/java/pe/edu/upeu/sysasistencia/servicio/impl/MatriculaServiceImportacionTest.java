@@ -0,0 +1,320 @@
+package pe.edu.upeu.sysasistencia.servicio.impl;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import pe.edu.upeu.sysasistencia.dtos.FilaVistaPreviaDTO;
+import pe.edu.upeu.sysasistencia.dtos.ImportFilterDTO;
+import pe.edu.upeu.sysasistencia.dtos.ImportResultDTO;
+import pe.edu.upeu.sysasistencia.dtos.VistaPreviaImportacionDTO;
+import pe.edu.upeu.sysasistencia.modelo.ImportacionCheckpoint;
+import pe.edu.upeu.sysasistencia.modelo.Matricula;
+import pe.edu.upeu.sysasistencia.modelo.ModoImportacion;
+import pe.edu.upeu.sysasistencia.modelo.Persona;
+import pe.edu.upeu.sysasistencia.modelo.TipoPersona;
+import pe.edu.upeu.sysasistencia.repositorio.*;
+import pe.edu.upeu.sysasistencia.servicio.IMatriculaService;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Importación completa contra H2: lectores CSV y XLSX, unidades (hojas y zip), bloques,
+ * checkpoint, modo UPSERT, simulación, archivos repetidos y vista previa.
+ * Bloques de 2 filas y sin control de carga para que cada archivo ocupe varios bloques.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:importacion;NON_KEYWORDS=USER",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "jwt.secret=clave-de-prueba-clave-de-prueba-clave-de-prueba-clave-de-prueba",
+        "importacion.tamano-bloque=2",
+        "importacion.control.habilitado=false",
+        "importacion.auditoria.habilitado=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+public class MatriculaServiceImportacionTest {
+
+    private static final String ENCABEZADOS =
+            "Modo contrato,Modalidad estudio,Sede,Facultad,Programa,Ciclo,Grupo,Codigo,Estudiante,Documento";
+
+    @Autowired
+    private IMatriculaService matriculaService;
+    @Autowired
+    private IMatriculaRepository matriculaRepository;
+    @Autowired
+    private IPersonaRepository personaRepository;
+    @Autowired
+    private IUsuarioRepository usuarioRepository;
+    @Autowired
+    private IUsuarioRolRepository usuarioRolRepository;
+    @Autowired
+    private IImportacionCheckpointRepository checkpointRepository;
+    @MockitoSpyBean
+    private AuditoriaImportacionService auditoria;
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    public void tearDown() {
+        usuarioRolRepository.deleteAllInBatch();
+        matriculaRepository.deleteAllInBatch();
+        personaRepository.deleteAllInBatch();
+        usuarioRepository.deleteAllInBatch();
+        checkpointRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("UPSERT: las filas iguales quedan sin cambios y solo se escriben las modificadas")
+    public void testUpsert() throws Exception {
+        Path original = csv("original.csv",
+                fila("I", "70100001"), fila("I", "70100002"), fila("I", "70100003"));
+        ImportResultDTO primera = matriculaService.importarDesdeArchivo(original, "original.csv", filtros(ModoImportacion.INSERTAR));
+        assertThat(primera.getExitosos()).isEqualTo(3);
+        assertThat(primera.getFallidos()).isZero();
+
+        Path modificado = csv("modificado.csv",
+                fila("I", "70100001"), fila("II", "70100002"), fila("I", "70100003"));
+        ImportResultDTO segunda = matriculaService.importarDesdeArchivo(modificado, "modificado.csv", filtros(ModoImportacion.UPSERT));
+
+        assertThat(segunda.getTotalRegistros()).isEqualTo(3);
+        assertThat(segunda.getExitosos()).isEqualTo(3);
+        assertThat(segunda.getActualizados()).isEqualTo(1);
+        assertThat(segunda.getSinCambios()).isEqualTo(2);
+        assertThat(segunda.getFallidos()).isZero();
+
+        assertThat(personaRepository.count()).isEqualTo(3);
+        List<Matricula> matriculas = matriculaRepository.findAll();
+        assertThat(matriculas).hasSize(3);
+        assertThat(matriculas).filteredOn(m -> "II".equals(m.getCiclo())).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Reanudar desde el checkpoint tras una caída sin repetir filas ni contadores")
+    public void testReanudarCheckpoint() throws Exception {
+        // 5 filas en bloques de 2: la caída ocurre después de confirmar el segundo bloque (filas 1-4)
+        Path archivo = csv("padron.csv",
+                fila("I", "70200001"), fila("I", "70200002").replace("Estudiante 70200002", ""),
+                fila("I", "70200003"), fila("I", "70200004"), fila("I", "70200005"));
+        doCallRealMethod()
+                .doThrow(new IllegalStateException("Caída simulada"))
+                .when(auditoria).filas(anyString(), anyList());
+
+        assertThatThrownBy(() -> matriculaService.importarDesdeArchivo(archivo, "padron.csv", filtros(ModoImportacion.INSERTAR)))
+                .hasMessageContaining("Caída simulada");
+        ImportacionCheckpoint interrumpido = checkpointRepository.findAll().get(0);
+        assertThat(interrumpido.getEstado()).isEqualTo(ImportacionCheckpoint.EN_PROCESO);
+        assertThat(interrumpido.getTotalRegistros()).isEqualTo(4);
+        assertThat(personaRepository.count()).isEqualTo(3);
+
+        reset(auditoria);
+        ImportResultDTO result = matriculaService.importarDesdeArchivo(archivo, "padron.csv", filtros(ModoImportacion.INSERTAR));
+
+        assertThat(result.getTotalRegistros()).isEqualTo(5);
+        assertThat(result.getExitosos()).isEqualTo(4);
+        assertThat(result.getFallidos()).isEqualTo(1);
+        assertThat(result.getWarnings()).anyMatch(w -> w.contains("reanudada desde la fila"));
+        assertThat(checkpointRepository.findAll()).singleElement()
+                .extracting(ImportacionCheckpoint::getEstado).isEqualTo(ImportacionCheckpoint.COMPLETADO);
+
+        List<Persona> personas = personaRepository.findAll();
+        assertThat(personas).extracting(Persona::getDocumento)
+                .containsExactlyInAnyOrder("70200001", "70200003", "70200004", "70200005");
+        assertThat(matriculaRepository.count()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("La simulación y la importación real del mismo archivo dan los mismos contadores")
+    public void testSimulacionIgualQueImportacion() throws Exception {
+        Path base = csv("base.csv", fila("I", "70300001"));
+        matriculaService.importarDesdeArchivo(base, "base.csv", filtros(ModoImportacion.INSERTAR));
+
+        Path archivo = csv("padron.csv",
+                fila("I", "70300002"),
+                fila("I", "70300002", "C70300099"),               // documento repetido en el archivo
+                fila("I", "70300003", "C70300001"),               // código ya registrado
+                fila("I", "70300004", "C70300002"),               // código repetido en el archivo
+                fila("I", "70300001"),                            // documento ya registrado
+                fila("I", "70300005").replace("Estudiante 70300005", ""),
+                fila("I", "70300006"));
+
+        ImportResultDTO simulado = matriculaService.simularImportacion(archivo, "padron.csv", filtros(ModoImportacion.INSERTAR));
+        ImportResultDTO real = matriculaService.importarDesdeArchivo(archivo, "padron.csv", filtros(ModoImportacion.INSERTAR));
+
+        assertThat(real.getTotalRegistros()).isEqualTo(7);
+        assertThat(real.getExitosos()).isEqualTo(2);
+        assertThat(real).usingRecursiveComparison()
+                .comparingOnlyFields("totalRegistros", "exitosos", "fallidos", "actualizados", "sinCambios", "errores")
+                .isEqualTo(simulado);
+        assertThat(personaRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Cada hoja de un libro se importa como unidad independiente con sus propios contadores")
+    public void testLibroVariasHojas() throws Exception {
+        Path libro = tempDir.resolve("padron.xlsx");
+        try (XSSFWorkbook wb = new XSSFWorkbook(); OutputStream os = Files.newOutputStream(libro)) {
+            hoja(wb, "Lima", fila("I", "70400001"), fila("I", "70400002"), fila("I", "70400003"));
+            hoja(wb, "Juliaca", fila("I", "70400004"), fila("I", "70400005").replace("Estudiante 70400005", ""));
+            wb.write(os);
+        }
+        ImportFilterDTO filtros = filtros(ModoImportacion.INSERTAR);
+        filtros.setMultiple(true);
+
+        ImportResultDTO result = matriculaService.importarDesdeArchivo(libro, "padron.xlsx", filtros);
+
+        assertThat(result.getUnidades()).extracting(ImportResultDTO::getUnidad)
+                .containsExactly("padron.xlsx / Lima", "padron.xlsx / Juliaca");
+        assertThat(result.getUnidades()).extracting(ImportResultDTO::getTotalRegistros).containsExactly(3, 2);
+        assertThat(result.getUnidades()).extracting(ImportResultDTO::getExitosos).containsExactly(3, 1);
+        assertThat(result.getUnidades()).extracting(ImportResultDTO::getFallidos).containsExactly(0, 1);
+        assertThat(result.getTotalRegistros()).isEqualTo(5);
+        assertThat(result.getExitosos()).isEqualTo(4);
+        assertThat(personaRepository.count()).isEqualTo(4);
+        // Un checkpoint por unidad
+        assertThat(checkpointRepository.findAll()).hasSize(2)
+                .allMatch(c -> ImportacionCheckpoint.COMPLETADO.equals(c.getEstado()));
+    }
+
+    @Test
+    @DisplayName("Cada archivo de un zip se importa como unidad independiente con sus propios contadores")
+    public void testZipVariosArchivos() throws Exception {
+        Path zip = tempDir.resolve("padron.zip");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip))) {
+            entrada(out, "lima.csv", fila("I", "70500001"), fila("I", "70500002"), fila("I", "70500003"));
+            entrada(out, "juliaca.csv", fila("I", "70500004"), fila("I", "70500001"));
+        }
+
+        ImportResultDTO result = matriculaService.importarDesdeArchivo(zip, "padron.zip", filtros(ModoImportacion.INSERTAR));
+
+        assertThat(result.getUnidades()).extracting(ImportResultDTO::getUnidad)
+                .containsExactly("lima.csv", "juliaca.csv");
+        assertThat(result.getUnidades()).extracting(ImportResultDTO::getTotalRegistros).containsExactly(3, 2);
+        assertThat(result.getTotalRegistros()).isEqualTo(5);
+        // 70500001 está en los dos archivos: solo una de las unidades lo crea
+        assertThat(result.getExitosos()).isEqualTo(4);
+        assertThat(result.getFallidos()).isEqualTo(1);
+        assertThat(personaRepository.count()).isEqualTo(4);
+        assertThat(checkpointRepository.findAll()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Un archivo idéntico con los mismos filtros devuelve el resultado anterior salvo con forzar")
+    public void testArchivoIdentico() throws Exception {
+        Path archivo = csv("padron.csv", fila("I", "70600001"), fila("I", "70600002"));
+        ImportResultDTO primera = matriculaService.importarDesdeArchivo(archivo, "padron.csv", filtros(ModoImportacion.INSERTAR));
+        assertThat(primera.getExitosos()).isEqualTo(2);
+
+        // Mismo contenido con otro nombre: la huella es del contenido
+        Path copia = Files.copy(archivo, tempDir.resolve("copia.csv"));
+        ImportResultDTO repetida = matriculaService.importarDesdeArchivo(copia, "copia.csv", filtros(ModoImportacion.INSERTAR));
+        assertThat(repetida.getExitosos()).isEqualTo(2);
+        assertThat(repetida.getWarnings()).anyMatch(w -> w.contains("Archivo idéntico ya importado"));
+        assertThat(checkpointRepository.count()).isEqualTo(1);
+
+        ImportFilterDTO forzar = filtros(ModoImportacion.INSERTAR);
+        forzar.setForzar(true);
+        ImportResultDTO forzada = matriculaService.importarDesdeArchivo(copia, "copia.csv", forzar);
+        // Se vuelve a importar: las dos filas ya existen
+        assertThat(forzada.getExitosos()).isZero();
+        assertThat(forzada.getFallidos()).isEqualTo(2);
+        assertThat(personaRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("La vista previa devuelve solo las primeras filas y no escribe en la base de datos")
+    public void testVistaPrevia() throws Exception {
+        String contenido = ENCABEZADOS + "\n" + String.join("\n",
+                fila("I", "70700001"), fila("I", "70700002").replace("Estudiante 70700002", ""),
+                fila("I", "70700003"), fila("I", "70700004"), fila("I", "70700005")) + "\n";
+        MockMultipartFile archivo = new MockMultipartFile("file", "padron.csv", "text/csv",
+                contenido.getBytes(StandardCharsets.UTF_8));
+
+        VistaPreviaImportacionDTO vista = matriculaService.previsualizarImportacion(archivo, filtros(ModoImportacion.INSERTAR), 3);
+
+        assertThat(vista.isPosicional()).isFalse();
+        assertThat(vista.getFaltantesObligatorias()).isEmpty();
+        assertThat(vista.getFilas()).extracting(FilaVistaPreviaDTO::getFila).containsExactly(2, 3, 4);
+        assertThat(vista.getFilas()).extracting(f -> f.getDatos().getDocumento())
+                .containsExactly("70700001", "70700002", "70700003");
+        assertThat(vista.getFilas().get(0).getError()).isNull();
+        assertThat(vista.getFilas().get(1).getError()).isNotNull();
+        assertThat(vista.isHayMasFilas()).isTrue();
+
+        VistaPreviaImportacionDTO completa = matriculaService.previsualizarImportacion(archivo, filtros(ModoImportacion.INSERTAR), 5);
+        assertThat(completa.getFilas()).hasSize(5);
+        assertThat(completa.isHayMasFilas()).isFalse();
+
+        // Sin personas, matrículas, checkpoint ni auditoría
+        assertThat(personaRepository.count()).isZero();
+        assertThat(matriculaRepository.count()).isZero();
+        assertThat(checkpointRepository.count()).isZero();
+        verifyNoInteractions(auditoria);
+    }
+
+    private void hoja(XSSFWorkbook wb, String nombre, String... filas) {
+        Sheet sheet = wb.createSheet(nombre);
+        String[] encabezados = ENCABEZADOS.split(",");
+        Row header = sheet.createRow(0);
+        for (int i = 0; i < encabezados.length; i++) header.createCell(i).setCellValue(encabezados[i]);
+        for (int f = 0; f < filas.length; f++) {
+            Row row = sheet.createRow(f + 1);
+            String[] valores = filas[f].split(",", -1);
+            for (int i = 0; i < valores.length; i++) {
+                if (!valores[i].isEmpty()) row.createCell(i).setCellValue(valores[i]);
+            }
+        }
+    }
+
+    private void entrada(ZipOutputStream out, String nombre, String... filas) throws Exception {
+        out.putNextEntry(new ZipEntry(nombre));
+        out.write((ENCABEZADOS + "\n" + String.join("\n", filas) + "\n").getBytes(StandardCharsets.UTF_8));
+        out.closeEntry();
+    }
+
+    private ImportFilterDTO filtros(ModoImportacion modo) {
+        ImportFilterDTO filtros = new ImportFilterDTO();
+        filtros.setTipoPersona(TipoPersona.ESTUDIANTE);
+        filtros.setModo(modo);
+        return filtros;
+    }
+
+    private static String fila(String ciclo, String documento) {
+        return fila(ciclo, documento, "C" + documento);
+    }
+
+    private static String fila(String ciclo, String documento, String codigo) {
+        return "Regular,Presencial,Filial Juliaca,Facultad de Ingeniería y Arquitectura,Ingeniería de Sistemas,"
+                + ciclo + ",1," + codigo + ",Estudiante " + documento + "," + documento;
+    }
+
+    private Path csv(String nombre, String... filas) throws Exception {
+        Path archivo = tempDir.resolve(nombre);
+        Files.writeString(archivo, ENCABEZADOS + "\n" + String.join("\n", filas) + "\n", StandardCharsets.UTF_8);
+        return archivo;
+    }
+}
@@ -0,0 +1,55 @@
+package pe.edu.upeu.sysasistencia.servicio.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pe.edu.upeu.sysasistencia.mappers.MatriculaMapperImpl;
+import pe.edu.upeu.sysasistencia.modelo.Matricula;
+import pe.edu.upeu.sysasistencia.modelo.Persona;
+import pe.edu.upeu.sysasistencia.modelo.Sede;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NdjsonExportServiceTest {
+
+    @Test
+    @DisplayName("Un objeto por línea, con envío tras la primera fila y luego por bloques")
+    public void testLineasYEnvios() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        NdjsonExportService servicio = new NdjsonExportService(new MatriculaMapperImpl(), objectMapper);
+        int total = NdjsonExportService.FILAS_POR_ENVIO + 5;
+
+        List<Integer> lineasAlEnviar = new ArrayList<>();
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                lineasAlEnviar.add((int) toString(StandardCharsets.UTF_8).chars().filter(c -> c == '\n').count());
+            }
+        };
+        long filas = servicio.exportar(IntStream.range(0, total).mapToObj(i -> Matricula.builder()
+                .idMatricula((long) i)
+                .persona(Persona.builder().idPersona(100L + i).nombreCompleto("Persona " + i).build())
+                .sede(Sede.builder().idSede(1L).nombre("Lima").build())
+                .fechaMatricula(LocalDateTime.of(2025, 3, 1, 8, 30))
+                .build()), out);
+
+        assertThat(filas).isEqualTo(total);
+        String[] lineas = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lineas).hasSize(total);
+        JsonNode primera = objectMapper.readTree(lineas[0]);
+        assertThat(primera.get("personaId").asLong()).isEqualTo(100);
+        assertThat(primera.get("sedeName").asText()).isEqualTo("Lima");
+        assertThat(primera.get("fechaMatricula").asText()).isEqualTo("2025-03-01T08:30:00");
+        assertThat(lineasAlEnviar).startsWith(1, NdjsonExportService.FILAS_POR_ENVIO + 1).endsWith(total);
+    }
+}
@@ -0,0 +1,115 @@
+package pe.edu.upeu.sysasistencia.servicio.impl;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pe.edu.upeu.sysasistencia.dtos.ImportResultDTO;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ResultadoImportacionCacheServiceTest {
+
+    @Test
+    @DisplayName("Dos importaciones idénticas simultáneas se ejecutan una sola vez")
+    public void testUnaSolaEjecucion() throws Exception {
+        ResultadoImportacionCacheService cache = new ResultadoImportacionCacheService(10, 60);
+        AtomicInteger ejecuciones = new AtomicInteger();
+        CountDownLatch iniciada = new CountDownLatch(1);
+        CountDownLatch continuar = new CountDownLatch(1);
+        Callable<ImportResultDTO> lenta = () -> {
+            ejecuciones.incrementAndGet();
+            iniciada.countDown();
+            continuar.await();
+            return resultado(3);
+        };
+
+        FutureTask<ImportResultDTO> primera = new FutureTask<>(() -> cache.obtenerOEjecutar("hash|1", false, lenta));
+        FutureTask<ImportResultDTO> segunda = new FutureTask<>(() -> cache.obtenerOEjecutar("hash|1", false, lenta));
+        Thread hiloPrimera = new Thread(primera);
+        Thread hiloSegunda = new Thread(segunda);
+        try {
+            hiloPrimera.start();
+            assertThat(iniciada.await(5, TimeUnit.SECONDS)).isTrue();
+            hiloSegunda.start();
+            // La segunda queda bloqueada esperando a la primera (o en la tarea, si no se unió)
+            while (hiloSegunda.getState() != Thread.State.WAITING) {
+                Thread.sleep(10);
+            }
+            continuar.countDown();
+
+            assertThat(primera.get(5, TimeUnit.SECONDS).getExitosos()).isEqualTo(3);
+            ImportResultDTO unida = segunda.get(5, TimeUnit.SECONDS);
+            assertThat(unida.getExitosos()).isEqualTo(3);
+            assertThat(unida.getWarnings()).isEmpty();
+            assertThat(ejecuciones).hasValue(1);
+        } finally {
+            continuar.countDown();
+            hiloPrimera.join(5000);
+            hiloSegunda.join(5000);
+        }
+    }
+
+    @Test
+    @DisplayName("Un archivo repetido devuelve el resultado guardado y forzar=true lo reimporta")
+    public void testRepetidoYForzar() throws Exception {
+        ResultadoImportacionCacheService cache = new ResultadoImportacionCacheService(10, 60);
+        AtomicInteger ejecuciones = new AtomicInteger();
+        Callable<ImportResultDTO> importacion = () -> resultado(ejecuciones.incrementAndGet());
+
+        ImportResultDTO primera = cache.obtenerOEjecutar("hash|1", false, importacion);
+        primera.getWarnings().add("agregado por el llamador");
+
+        ImportResultDTO repetida = cache.obtenerOEjecutar("hash|1", false, importacion);
+        assertThat(ejecuciones).hasValue(1);
+        assertThat(repetida.getExitosos()).isEqualTo(1);
+        assertThat(repetida.getWarnings()).singleElement().asString().contains("Archivo idéntico ya importado");
+
+        ImportResultDTO forzada = cache.obtenerOEjecutar("hash|1", true, importacion);
+        assertThat(ejecuciones).hasValue(2);
+        assertThat(forzada.getExitosos()).isEqualTo(2);
+        assertThat(forzada.getWarnings()).isEmpty();
+
+        // Lo forzado reemplaza lo guardado
+        assertThat(cache.obtenerOEjecutar("hash|1", false, importacion).getExitosos()).isEqualTo(2);
+        assertThat(ejecuciones).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Otra clave o una importación fallida no reutilizan resultados")
+    public void testClaveDistintaYFallo() throws Exception {
+        ResultadoImportacionCacheService cache = new ResultadoImportacionCacheService(1, 60);
+        AtomicInteger ejecuciones = new AtomicInteger();
+        Callable<ImportResultDTO> importacion = () -> resultado(ejecuciones.incrementAndGet());
+
+        cache.obtenerOEjecutar("hash|1", false, importacion);
+        cache.obtenerOEjecutar("hash|2", false, importacion);
+        assertThat(ejecuciones).hasValue(2);
+
+        // Con una sola entrada, hash|1 fue desalojada por hash|2
+        cache.obtenerOEjecutar("hash|1", false, importacion);
+        assertThat(ejecuciones).hasValue(3);
+
+        Callable<ImportResultDTO> fallida = () -> {
+            ejecuciones.incrementAndGet();
+            throw new IllegalStateException("Error de lectura");
+        };
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> cache.obtenerOEjecutar("hash|3", false, fallida))
+                    .hasMessage("Error de lectura");
+        }
+        assertThat(ejecuciones).hasValue(5);
+    }
+
+    private static ImportResultDTO resultado(int exitosos) {
+        ImportResultDTO resultado = new ImportResultDTO();
+        resultado.setExitosos(exitosos);
+        resultado.setTotalRegistros(exitosos);
+        return resultado;
+    }
+}
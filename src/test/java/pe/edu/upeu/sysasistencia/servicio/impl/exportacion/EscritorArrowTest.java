@@ -0,0 +1,69 @@
+package pe.edu.upeu.sysasistencia.servicio.impl.exportacion;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.dictionary.DictionaryEncoder;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pe.edu.upeu.sysasistencia.modelo.Matricula;
+import pe.edu.upeu.sysasistencia.modelo.Persona;
+import pe.edu.upeu.sysasistencia.modelo.Sede;
+import pe.edu.upeu.sysasistencia.modelo.TipoPersona;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EscritorArrowTest {
+
+    @Test
+    @DisplayName("Lotes de tamaño fijo y columnas con diccionario que se decodifican al leer")
+    public void testLotesYDiccionarios() throws Exception {
+        int total = EscritorArrow.FILAS_POR_LOTE + 3;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (BufferAllocator allocator = new RootAllocator()) {
+            try (EscritorArrow arrow = new EscritorArrow(out, allocator, Map.of("sede", List.of("Lima", "Juliaca")))) {
+                for (int i = 0; i < total; i++) {
+                    Persona persona = Persona.builder().idPersona((long) i).nombreCompleto("Persona " + i)
+                            .tipoPersona(TipoPersona.ESTUDIANTE).build();
+                    String sede = i == 1 ? "Tarapoto" : i % 2 == 0 ? "Lima" : "Juliaca";
+                    arrow.fila(Matricula.builder().idMatricula((long) i).persona(persona)
+                            .sede(Sede.builder().nombre(sede).build()).build());
+                }
+                arrow.terminar();
+                assertThat(arrow.getFilas()).isEqualTo(total);
+                assertThat(arrow.getSinDiccionario()).isEqualTo(1);
+            }
+
+            List<Integer> lotes = new ArrayList<>();
+            try (ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(out.toByteArray()), allocator)) {
+                VectorSchemaRoot root = reader.getVectorSchemaRoot();
+                while (reader.loadNextBatch()) {
+                    lotes.add(root.getRowCount());
+                    if (lotes.size() > 1) continue;
+
+                    FieldVector sedes = root.getVector("sede");
+                    try (VarCharVector decodificadas = (VarCharVector) DictionaryEncoder.decode(sedes,
+                            reader.getDictionaryVectors().get(sedes.getField().getDictionary().getId()))) {
+                        assertThat(decodificadas.getObject(0).toString()).isEqualTo("Lima");
+                        assertThat(decodificadas.isNull(1)).isTrue();
+                        assertThat(decodificadas.getObject(3).toString()).isEqualTo("Juliaca");
+                    }
+                    assertThat(((BigIntVector) root.getVector("id_persona")).get(2)).isEqualTo(2L);
+                    assertThat(root.getVector("nombre_completo").getObject(2).toString()).isEqualTo("Persona 2");
+                    assertThat(root.getVector("facultad").isNull(0)).isTrue();
+                }
+            }
+            assertThat(lotes).containsExactly(EscritorArrow.FILAS_POR_LOTE, 3);
+        }
+    }
+}
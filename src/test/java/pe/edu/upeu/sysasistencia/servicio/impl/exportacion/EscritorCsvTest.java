@@ -0,0 +1,25 @@
+package pe.edu.upeu.sysasistencia.servicio.impl.exportacion;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EscritorCsvTest {
+
+    @Test
+    @DisplayName("Escapar comas, comillas y saltos de línea aunque el buffer se llene a mitad de campo")
+    public void testEscape() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        EscritorCsv csv = new EscritorCsv(out, 4);
+        csv.fila(new String[]{"Lima", "Pérez, Ana", "dice \"hola\"", "", null, "a\nb"});
+        csv.fila(new String[]{"x"});
+        csv.flush();
+
+        assertThat(out.toString(StandardCharsets.UTF_8))
+                .isEqualTo("Lima,\"Pérez, Ana\",\"dice \"\"hola\"\"\",,,\"a\nb\"\r\nx\r\n");
+    }
+}
@@ -0,0 +1,103 @@
+package pe.edu.upeu.sysasistencia.servicio.impl.importacion;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pe.edu.upeu.sysasistencia.dtos.MatriculaExcelDTO;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EsquemaImportacionTest {
+
+    private Workbook workbook;
+    private Sheet sheet;
+
+    @BeforeEach
+    public void setUp() {
+        workbook = new XSSFWorkbook();
+        sheet = workbook.createSheet();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        workbook.close();
+    }
+
+    @Test
+    @DisplayName("Mapear columnas reordenadas y con alias, ignorando columnas extra")
+    public void testEncabezadoReordenado() {
+        EsquemaImportacion esquema = EsquemaImportacion.compilar(
+                List.of("DNI", "Observaciones", "Nombres y Apellidos", "SEDE", "Unidad Academica", "Fecha de matricula"));
+
+        assertThat(esquema.isPosicional()).isFalse();
+        assertThat(esquema.getFaltantesObligatorias()).isEmpty();
+        assertThat(esquema.getEncabezadosIgnorados()).containsExactly("Observaciones");
+        assertThat(esquema.indice(ColumnaMatricula.DOCUMENTO)).isZero();
+        assertThat(esquema.indice(ColumnaMatricula.FACULTAD)).isEqualTo(4);
+        assertThat(esquema.indice(ColumnaMatricula.CICLO)).isEqualTo(-1);
+
+        Row row = sheet.createRow(1);
+        row.createCell(0).setCellValue(70123456d);
+        row.createCell(1).setCellValue("no se lee");
+        row.createCell(2).setCellValue("  Ana Quispe ");
+        row.createCell(3).setCellValue("Filial Juliaca");
+        row.createCell(4).setCellValue("FIA");
+        row.createCell(5).setCellValue("07/08/2025 2:15 p. m.");
+
+        MatriculaExcelDTO datos = esquema.extraer(new FilaPoi().sobre(row));
+
+        assertThat(datos.getDocumento()).isEqualTo("70123456");
+        assertThat(datos.getEstudiante()).isEqualTo("Ana Quispe");
+        assertThat(datos.getSede()).isEqualTo("Filial Juliaca");
+        assertThat(datos.getUnidadAcademica()).isEqualTo("FIA");
+        assertThat(datos.getFechaMatricula()).isEqualTo(LocalDateTime.of(2025, 8, 7, 14, 15));
+        assertThat(datos.getCiclo()).isNull();
+    }
+
+    @Test
+    @DisplayName("Leer fechas nativas de Excel directamente como fecha")
+    public void testFechaNativa() {
+        EsquemaImportacion esquema = EsquemaImportacion.compilar(
+                List.of("Documento", "Estudiante", "Fecha de nacimiento"));
+
+        Row row = sheet.createRow(1);
+        row.createCell(0).setCellValue("12345678");
+        row.createCell(1).setCellValue("Luis");
+        var cell = row.createCell(2);
+        cell.setCellValue(LocalDate.of(2001, 3, 15));
+        var style = workbook.createCellStyle();
+        style.setDataFormat((short) 14);
+        cell.setCellStyle(style);
+
+        MatriculaExcelDTO datos = esquema.extraer(new FilaPoi().sobre(row));
+
+        assertThat(datos.getFechaNacimiento()).isEqualTo(LocalDate.of(2001, 3, 15));
+    }
+
+    @Test
+    @DisplayName("Sin encabezado reconocido se usa el layout histórico")
+    public void testLayoutPosicional() {
+        EsquemaImportacion esquema = EsquemaImportacion.compilar(List.of("a", "b", "c"));
+
+        assertThat(esquema.isPosicional()).isTrue();
+        assertThat(esquema.indice(ColumnaMatricula.DOCUMENTO)).isEqualTo(10);
+        assertThat(esquema.indice(ColumnaMatricula.FECHA_MATRICULA)).isEqualTo(19);
+    }
+
+    @Test
+    @DisplayName("Reportar columnas obligatorias faltantes")
+    public void testFaltanObligatorias() {
+        EsquemaImportacion esquema = EsquemaImportacion.compilar(List.of("Sede", "Estudiante"));
+
+        assertThat(esquema.getFaltantesObligatorias()).containsExactly(ColumnaMatricula.DOCUMENTO);
+    }
+}
@@ -0,0 +1,125 @@
+package pe.edu.upeu.sysasistencia.servicio.impl.importacion;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LectorCsvTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path escribir(byte[] contenido) throws Exception {
+        Path archivo = tempDir.resolve("padron.csv");
+        Files.write(archivo, contenido);
+        return archivo;
+    }
+
+    @Test
+    @DisplayName("Leer CSV con comillas, saltos de línea y comillas escapadas")
+    public void testComillas() throws Exception {
+        String csv = "Documento,Estudiante,Sede\r\n" +
+                "70123456,\"Quispe, Ana\",Juliaca\r\n" +
+                "\r\n" +
+                "\"80000001\",\"Luis \"\"Lucho\"\"\nMamani\",\r\n";
+
+        try (LectorCsv lector = new LectorCsv(escribir(csv.getBytes(StandardCharsets.UTF_8)))) {
+            assertThat(lector.encabezado()).containsExactly("Documento", "Estudiante", "Sede");
+
+            assertThat(lector.siguiente()).isTrue();
+            assertThat(lector.numeroFila()).isEqualTo(2);
+            assertThat(lector.fila().texto(1)).isEqualTo("Quispe, Ana");
+            assertThat(lector.fila().texto(2)).isEqualTo("Juliaca");
+
+            // La línea vacía se omite pero cuenta como fila del archivo
+            assertThat(lector.siguiente()).isTrue();
+            assertThat(lector.numeroFila()).isEqualTo(4);
+            assertThat(lector.fila().texto(0)).isEqualTo("80000001");
+            assertThat(lector.fila().texto(1)).isEqualTo("Luis \"Lucho\"\nMamani");
+            assertThat(lector.fila().texto(2)).isNull();
+            assertThat(lector.fila().texto(7)).isNull();
+
+            assertThat(lector.siguiente()).isFalse();
+        }
+    }
+
+    @Test
+    @DisplayName("Detectar BOM, punto y coma y UTF-8")
+    public void testBomYPuntoComa() throws Exception {
+        byte[] bom = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+        byte[] cuerpo = ("Documento;Estudiante;Fecha de nacimiento;Fecha de matrícula\n" +
+                "123;José Ñahui;15/03/2001;07/08/2025 2:15 p. m.").getBytes(StandardCharsets.UTF_8);
+        byte[] contenido = new byte[bom.length + cuerpo.length];
+        System.arraycopy(bom, 0, contenido, 0, bom.length);
+        System.arraycopy(cuerpo, 0, contenido, bom.length, cuerpo.length);
+
+        try (LectorCsv lector = new LectorCsv(escribir(contenido))) {
+            EsquemaImportacion esquema = EsquemaImportacion.compilar(lector.encabezado());
+            assertThat(lector.getDelimitador()).isEqualTo(';');
+            assertThat(esquema.isPosicional()).isFalse();
+
+            assertThat(lector.siguiente()).isTrue();
+            var datos = esquema.extraer(lector.fila());
+            assertThat(datos.getEstudiante()).isEqualTo("José Ñahui");
+            assertThat(datos.getFechaNacimiento()).isEqualTo(LocalDate.of(2001, 3, 15));
+            assertThat(datos.getFechaMatricula()).isEqualTo(LocalDateTime.of(2025, 8, 7, 14, 15));
+        }
+    }
+
+    @Test
+    @DisplayName("Detectar tabulación como delimitador")
+    public void testTsv() throws Exception {
+        String tsv = "Documento\tEstudiante\n1\tA\n2\tB\n";
+
+        try (LectorCsv lector = new LectorCsv(escribir(tsv.getBytes(StandardCharsets.UTF_8)))) {
+            lector.encabezado();
+            assertThat(lector.getDelimitador()).isEqualTo('\t');
+            int filas = 0;
+            while (lector.siguiente()) filas++;
+            assertThat(filas).isEqualTo(2);
+        }
+    }
+
+    @Test
+    @DisplayName("Registros cortados por la ventana, más grandes que ella y reanudación")
+    public void testVentanaPequena() throws Exception {
+        String csv = "Documento,Estudiante\n" +
+                "70123456,\"Quispe \"\"Ana\"\", de Lima y alrededores\"\r\n" +
+                "80000001,Luis\n" +
+                "90000002,\"Rosa\nMamani\"\n";
+        Path archivo = escribir(csv.getBytes(StandardCharsets.UTF_8));
+
+        long posicion;
+        try (LectorCsv lector = new LectorCsv(archivo, 8)) {
+            assertThat(lector.encabezado()).containsExactly("Documento", "Estudiante");
+            assertThat(lector.siguiente()).isTrue();
+            assertThat(lector.fila().texto(1)).isEqualTo("Quispe \"Ana\", de Lima y alrededores");
+            posicion = lector.posicion();
+            assertThat(lector.siguiente()).isTrue();
+            assertThat(lector.fila().texto(0)).isEqualTo("80000001");
+            assertThat(lector.fila().texto(1)).isEqualTo("Luis");
+            assertThat(lector.siguiente()).isTrue();
+            assertThat(lector.numeroFila()).isEqualTo(4);
+            assertThat(lector.fila().texto(1)).isEqualTo("Rosa\nMamani");
+            assertThat(lector.siguiente()).isFalse();
+        }
+
+        try (LectorCsv lector = new LectorCsv(archivo, 8)) {
+            lector.encabezado();
+            lector.reanudar(posicion, 2);
+            assertThat(lector.siguiente()).isTrue();
+            assertThat(lector.numeroFila()).isEqualTo(3);
+            assertThat(lector.fila().texto(1)).isEqualTo("Luis");
+        }
+        // Sin mapeo el archivo se puede borrar apenas se cierra el lector
+        Files.delete(archivo);
+    }
+}
@@ -0,0 +1,90 @@
+package pe.edu.upeu.sysasistencia.servicio.impl.importacion;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LectorXlsTest {
+
+    @TempDir
+    Path tempDir;
+
+    // Nombre .xlsx a propósito: el formato se detecta por contenido
+    private Path crearLibro() throws Exception {
+        Path archivo = tempDir.resolve("padron.xlsx");
+        try (HSSFWorkbook wb = new HSSFWorkbook(); OutputStream os = Files.newOutputStream(archivo)) {
+            CellStyle fecha = wb.createCellStyle();
+            fecha.setDataFormat(wb.getCreationHelper().createDataFormat().getFormat("dd/mm/yyyy"));
+
+            wb.createSheet("Vacía").createRow(0).createCell(0).setCellValue("Documento");
+            Sheet sheet = wb.createSheet("Lima");
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue("Documento");
+            header.createCell(1).setCellValue("Estudiante");
+            header.createCell(3).setCellValue("Fecha de nacimiento");
+
+            Row r1 = sheet.createRow(1);
+            r1.createCell(0).setCellValue(70123456d);
+            r1.createCell(1).setCellValue("  Ana Quispe ");
+            r1.createCell(3).setCellValue(LocalDate.of(2001, 3, 15));
+            r1.getCell(3).setCellStyle(fecha);
+
+            // Fila 3 sin celdas; la 4 tiene texto de fecha y una fórmula de texto
+            Row r3 = sheet.createRow(3);
+            r3.createCell(0).setCellFormula("\"800\"&\"01\"");
+            r3.createCell(1).setCellValue("Luis");
+            r3.createCell(3).setCellValue("15/03/2001");
+            wb.getCreationHelper().createFormulaEvaluator().evaluateAll();
+
+            wb.write(os);
+        }
+        return archivo;
+    }
+
+    @Test
+    @DisplayName("Leer .xls por registros con las mismas conversiones que el lector .xlsx")
+    public void testLectura() throws Exception {
+        Path archivo = crearLibro();
+        assertThat(UnidadImportacion.detectarFormato(archivo)).isEqualTo(UnidadImportacion.Formato.XLS);
+        assertThat(LectorXls.nombresHojas(archivo)).containsExactly("Vacía", "Lima");
+
+        try (LectorXls lector = new LectorXls(archivo, 1)) {
+            EsquemaImportacion esquema = EsquemaImportacion.compilar(lector.encabezado());
+            assertThat(esquema.isPosicional()).isFalse();
+
+            assertThat(lector.siguiente()).isTrue();
+            assertThat(lector.numeroFila()).isEqualTo(2);
+            var datos = esquema.extraer(lector.fila());
+            assertThat(datos.getDocumento()).isEqualTo("70123456");
+            assertThat(datos.getEstudiante()).isEqualTo("Ana Quispe");
+            assertThat(datos.getFechaNacimiento()).isEqualTo(LocalDate.of(2001, 3, 15));
+            assertThat(lector.fila().texto(3)).isEqualTo("2001-03-15");
+
+            assertThat(lector.siguiente()).isTrue();
+            assertThat(lector.numeroFila()).isEqualTo(4);
+            datos = esquema.extraer(lector.fila());
+            assertThat(datos.getDocumento()).isEqualTo("80001");
+            assertThat(datos.getFechaNacimiento()).isEqualTo(LocalDate.of(2001, 3, 15));
+
+            assertThat(lector.siguiente()).isFalse();
+        }
+
+        try (LectorXls lector = new LectorXls(archivo, 1)) {
+            lector.encabezado();
+            lector.reanudar(1, 2);
+            assertThat(lector.siguiente()).isTrue();
+            assertThat(lector.fila().texto(1)).isEqualTo("Luis");
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package pe.edu.upeu.sysasistencia.servicio.impl.importacion;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LectorXlsxTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path crearLibro() throws Exception {
+        Path archivo = tempDir.resolve("padron.xlsx");
+        try (XSSFWorkbook wb = new XSSFWorkbook(); OutputStream os = Files.newOutputStream(archivo)) {
+            CellStyle fecha = wb.createCellStyle();
+            fecha.setDataFormat(wb.getCreationHelper().createDataFormat().getFormat("dd/mm/yyyy"));
+
+            wb.createSheet("Vacía");
+            Sheet sheet = wb.createSheet("Lima");
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue("Documento");
+            header.createCell(1).setCellValue("Estudiante");
+            header.createCell(3).setCellValue("Fecha de nacimiento");
+
+            Row r1 = sheet.createRow(1);
+            r1.createCell(0).setCellValue(70123456d);
+            r1.createCell(1).setCellValue("  Ana Quispe ");
+            r1.createCell(3).setCellValue(LocalDate.of(2001, 3, 15));
+            r1.getCell(3).setCellStyle(fecha);
+
+            // Fila 3 no existe en el XML; la 4 tiene texto de fecha y una fórmula
+            Row r3 = sheet.createRow(3);
+            r3.createCell(0).setCellFormula("\"800\"&\"01\"");
+            r3.createCell(1).setCellValue("Luis");
+            r3.createCell(3).setCellValue("15/03/2001");
+            wb.getCreationHelper().createFormulaEvaluator().evaluateAll();
+
+            wb.write(os);
+        }
+        return archivo;
+    }
+
+    @Test
+    @DisplayName("Leer hoja en streaming con las mismas conversiones que el usermodel")
+    public void testLectura() throws Exception {
+        try (LectorXlsx lector = new LectorXlsx(crearLibro(), 1)) {
+            EsquemaImportacion esquema = EsquemaImportacion.compilar(lector.encabezado());
+            assertThat(esquema.isPosicional()).isFalse();
+
+            assertThat(lector.siguiente()).isTrue();
+            assertThat(lector.numeroFila()).isEqualTo(2);
+            var datos = esquema.extraer(lector.fila());
+            assertThat(datos.getDocumento()).isEqualTo("70123456");
+            assertThat(datos.getEstudiante()).isEqualTo("Ana Quispe");
+            assertThat(datos.getFechaNacimiento()).isEqualTo(LocalDate.of(2001, 3, 15));
+            assertThat(lector.fila().fechaHora(3)).isEqualTo(LocalDateTime.of(2001, 3, 15, 0, 0));
+            assertThat(lector.fila().texto(2)).isNull();
+
+            assertThat(lector.siguiente()).isTrue();
+            assertThat(lector.numeroFila()).isEqualTo(4);
+            datos = esquema.extraer(lector.fila());
+            assertThat(datos.getDocumento()).isEqualTo("80001");
+            assertThat(datos.getFechaNacimiento()).isEqualTo(LocalDate.of(2001, 3, 15));
+
+            assertThat(lector.siguiente()).isFalse();
+        }
+    }
+
+    @Test
+    @DisplayName("Textos compartidos en disco devuelven lo mismo que la tabla en memoria")
+    public void testTextosEnDisco() throws Exception {
+        try (LectorXlsx lector = new LectorXlsx(crearLibro(), 1, 0)) {
+            assertThat(lector.encabezado()).containsExactly("Documento", "Estudiante", null, "Fecha de nacimiento");
+            assertThat(lector.siguiente()).isTrue();
+            assertThat(lector.fila().texto(1)).isEqualTo("Ana Quispe");
+            assertThat(lector.siguiente()).isTrue();
+            assertThat(lector.fila().texto(1)).isEqualTo("Luis");
+            assertThat(lector.fila().fecha(3)).isEqualTo(LocalDate.of(2001, 3, 15));
+        }
+    }
+
+    @Test
+    @DisplayName("Reanudar después de la última fila confirmada")
+    public void testReanudar() throws Exception {
+        Path archivo = crearLibro();
+        long posicion;
+        try (LectorXlsx lector = new LectorXlsx(archivo, 1)) {
+            lector.encabezado();
+            lector.siguiente();
+            posicion = lector.posicion();
+        }
+
+        try (LectorXlsx lector = new LectorXlsx(archivo, 1)) {
+            lector.encabezado();
+            lector.reanudar(posicion, 2);
+            assertThat(lector.siguiente()).isTrue();
+            assertThat(lector.numeroFila()).isEqualTo(4);
+            assertThat(lector.fila().texto(1)).isEqualTo("Luis");
+            assertThat(lector.siguiente()).isFalse();
+        }
+    }
+}
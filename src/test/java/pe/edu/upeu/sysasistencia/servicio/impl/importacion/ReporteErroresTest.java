@@ -0,0 +1,53 @@
+package pe.edu.upeu.sysasistencia.servicio.impl.importacion;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReporteErroresTest {
+
+    @Test
+    @DisplayName("Solo las filas con error, con sus celdas originales y el código al final")
+    public void testFilasConError() throws Exception {
+        ReporteErrores reporte = new ReporteErrores();
+        ReporteErrores.Hoja hoja = reporte.hoja("Padron", List.of("Código", "DNI"));
+        hoja.agregar(
+                List.of(new FilaLeida(2, null, new String[]{"A1", "70123456"}),
+                        new FilaLeida(3, null, new String[]{"A2", "701"})),
+                List.of(EventoImportacion.de(2, ResultadoFila.CREADO, "70123456"),
+                        EventoImportacion.error(3, CodigoErrorImportacion.ERROR_PROCESAMIENTO, "701", "DNI corto")));
+
+        Path archivo = reporte.guardar();
+        try (InputStream in = Files.newInputStream(archivo); XSSFWorkbook libro = new XSSFWorkbook(in)) {
+            Sheet sheet = libro.getSheet("Padron");
+            assertThat(sheet.getLastRowNum()).isEqualTo(1);
+            assertThat(sheet.getRow(0).getCell(3).getStringCellValue()).isEqualTo("Código de error");
+            Row fila = sheet.getRow(1);
+            assertThat(fila.getCell(1).getStringCellValue()).isEqualTo("701");
+            assertThat(fila.getCell(2).getNumericCellValue()).isEqualTo(3);
+            assertThat(fila.getCell(3).getStringCellValue()).isEqualTo("ERROR_PROCESAMIENTO");
+            assertThat(fila.getCell(4).getStringCellValue()).endsWith(": DNI corto");
+        } finally {
+            Files.deleteIfExists(archivo);
+        }
+    }
+
+    @Test
+    @DisplayName("Sin errores no se genera archivo")
+    public void testSinErrores() throws Exception {
+        ReporteErrores reporte = new ReporteErrores();
+        reporte.hoja("Padron", List.of("DNI")).agregar(
+                List.of(new FilaLeida(2, null, new String[]{"70123456"})),
+                List.of(EventoImportacion.de(2, ResultadoFila.CREADO, "70123456")));
+        assertThat(reporte.guardar()).isNull();
+    }
+}
@@ -0,0 +1,67 @@
+package pe.edu.upeu.sysasistencia.servicio.impl.importacion;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pe.edu.upeu.sysasistencia.dtos.ImportResultDTO;
+import pe.edu.upeu.sysasistencia.dtos.ResumenErrorDTO;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ResumenErroresTest {
+
+    @Test
+    @DisplayName("Agrupar filas consecutivas en rangos por código")
+    public void testRangos() {
+        ResumenErrores resumen = new ResumenErrores();
+        for (int fila = 2; fila <= 1001; fila++) {
+            resumen.agregar(CodigoErrorImportacion.DOCUMENTO_DUPLICADO, fila, null);
+        }
+        resumen.agregar(CodigoErrorImportacion.DOCUMENTO_DUPLICADO, 1005, null);
+        resumen.agregar(CodigoErrorImportacion.NOMBRE_VACIO, 7, null);
+
+        assertThat(resumen.cantidad(CodigoErrorImportacion.DOCUMENTO_DUPLICADO)).isEqualTo(1001);
+        ResumenErrorDTO duplicados = resumen.resumen().stream()
+                .filter(r -> r.getCodigo().equals("DOCUMENTO_DUPLICADO"))
+                .findFirst().orElseThrow();
+        assertThat(duplicados.getFilas()).isEqualTo("2-1001, 1005");
+        assertThat(resumen.lineas()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Filas fuera de orden y combinación de bloques unen los rangos")
+    public void testDesordenYCombinar() {
+        ResumenErrores izquierda = new ResumenErrores();
+        izquierda.agregar(CodigoErrorImportacion.SEDE_NO_COINCIDE, 10, null);
+        izquierda.agregar(CodigoErrorImportacion.SEDE_NO_COINCIDE, 12, null);
+        izquierda.agregar(CodigoErrorImportacion.SEDE_NO_COINCIDE, 11, null);
+        izquierda.agregar(CodigoErrorImportacion.SEDE_NO_COINCIDE, 3, null);
+
+        ResumenErrores derecha = new ResumenErrores();
+        derecha.agregar(CodigoErrorImportacion.SEDE_NO_COINCIDE, 13, null);
+        derecha.agregar(CodigoErrorImportacion.SEDE_NO_COINCIDE, 20, null);
+        izquierda.combinar(derecha);
+
+        assertThat(izquierda.cantidad(CodigoErrorImportacion.SEDE_NO_COINCIDE)).isEqualTo(6);
+        assertThat(izquierda.resumen().get(0).getFilas()).isEqualTo("3, 10-13, 20");
+    }
+
+    @Test
+    @DisplayName("El resultado del bloque cuenta las filas omitidas sin un mensaje por fila")
+    public void testResultadoBloque() {
+        ResultadoBloque bloque = new ResultadoBloque();
+        bloque.registrar(2, ResultadoFila.CREADO);
+        bloque.registrar(3, ResultadoFila.error(CodigoErrorImportacion.DOCUMENTO_DUPLICADO));
+        bloque.registrar(4, ResultadoFila.error(CodigoErrorImportacion.DOCUMENTO_DUPLICADO));
+        bloque.fallo(5, CodigoErrorImportacion.ERROR_PROCESAMIENTO, "Conexión cerrada");
+
+        ImportResultDTO result = new ImportResultDTO();
+        bloque.aplicarA(result);
+
+        assertThat(result.getTotalRegistros()).isEqualTo(4);
+        assertThat(result.getExitosos()).isEqualTo(1);
+        assertThat(result.getFallidos()).isEqualTo(3);
+        assertThat(result.getErrores()).hasSize(2);
+        assertThat(result.getResumenErrores()).extracting(ResumenErrorDTO::getEjemplo)
+                .containsExactly(null, "Fila 5: Conexión cerrada");
+    }
+}
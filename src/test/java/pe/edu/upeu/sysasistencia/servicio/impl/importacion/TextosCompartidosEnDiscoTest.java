@@ -0,0 +1,37 @@
+package pe.edu.upeu.sysasistencia.servicio.impl.importacion;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.xml.stream.XMLInputFactory;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TextosCompartidosEnDiscoTest {
+
+    @Test
+    @DisplayName("Leer los textos del temporal y borrarlo al cerrar")
+    public void testLeerYBorrar() throws Exception {
+        String xml = "<sst xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" uniqueCount=\"3\">" +
+                "<si><t>Documento</t></si>" +
+                "<si><r><t>Ana </t></r><r><t>Quispe</t></r><rPh><t>x</t></rPh></si>" +
+                "<si><t>Pérez</t></si></sst>";
+
+        Path archivo;
+        try (TextosCompartidosEnDisco textos = new TextosCompartidosEnDisco(
+                new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), XMLInputFactory.newInstance(), 1)) {
+            archivo = textos.getArchivo();
+            assertThat(textos.getCantidad()).isEqualTo(3);
+            assertThat(textos.texto(1)).isEqualTo("Ana Quispe");
+            assertThat(textos.texto(2)).isEqualTo("Pérez");
+            // Con cache de 1 se vuelve a leer del disco
+            assertThat(textos.texto(1)).isEqualTo("Ana Quispe");
+            assertThat(Files.exists(archivo)).isTrue();
+        }
+        assertThat(Files.exists(archivo)).isFalse();
+    }
+}
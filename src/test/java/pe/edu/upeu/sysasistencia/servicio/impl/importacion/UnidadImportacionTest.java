@@ -0,0 +1,75 @@
+package pe.edu.upeu.sysasistencia.servicio.impl.importacion;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pe.edu.upeu.sysasistencia.excepciones.ArchivoDemasiadoGrandeException;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class UnidadImportacionTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Extraer las entradas soportadas de un zip dentro de los límites")
+    public void testListarZip() throws Exception {
+        Path zip = crearZip(1000, "a.csv", "b.tsv", "leeme.txt");
+        Path destino = Files.createDirectory(tempDir.resolve("extraidos"));
+
+        List<UnidadImportacion> unidades = UnidadImportacion.listar(zip, "padron.zip", destino, 10_000, 10);
+
+        assertThat(unidades).extracting(UnidadImportacion::getNombre).containsExactly("a.csv", "b.tsv");
+        assertThat(unidades).extracting(UnidadImportacion::getSufijoClave).containsExactly("e1", "e2");
+    }
+
+    @Test
+    @DisplayName("Cortar la extracción cuando lo extraído supera el tope, aunque el zip sea pequeño")
+    public void testZipBomb() throws Exception {
+        // 3 x 1 MB de ceros: el zip ocupa unos pocos KB
+        Path zip = crearZip(1024 * 1024, "a.csv", "b.csv", "c.csv");
+        Path destino = Files.createDirectory(tempDir.resolve("extraidos"));
+
+        assertThatThrownBy(() -> UnidadImportacion.listar(zip, "bomba.zip", destino, 2 * 1024 * 1024, 10))
+                .isInstanceOf(ArchivoDemasiadoGrandeException.class);
+        // No se llega a escribir la tercera entrada completa
+        long escritos = 0;
+        try (var archivos = Files.list(destino)) {
+            for (Path archivo : archivos.toList()) escritos += Files.size(archivo);
+        }
+        assertThat(escritos).isLessThanOrEqualTo(2 * 1024 * 1024);
+    }
+
+    @Test
+    @DisplayName("Rechazar un zip con demasiadas entradas")
+    public void testDemasiadasEntradas() throws Exception {
+        Path zip = crearZip(10, "a.csv", "b.csv", "c.csv");
+        Path destino = Files.createDirectory(tempDir.resolve("extraidos"));
+
+        assertThatThrownBy(() -> UnidadImportacion.listar(zip, "padron.zip", destino, 10_000, 2))
+                .isInstanceOf(ArchivoDemasiadoGrandeException.class)
+                .hasMessageContaining("2 entradas");
+    }
+
+    private Path crearZip(int bytesPorEntrada, String... nombres) throws Exception {
+        Path zip = tempDir.resolve("archivo.zip");
+        byte[] contenido = new byte[bytesPorEntrada];
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip))) {
+            for (String nombre : nombres) {
+                out.putNextEntry(new ZipEntry(nombre));
+                out.write(contenido);
+                out.closeEntry();
+            }
+        }
+        return zip;
+    }
+}